@@ -0,0 +1,147 @@
+package com.ai.hakaton.benchmarks;
+
+import com.ai.hakaton.services.DataLoadService;
+import com.ai.hakaton.services.ingest.CsvSheetReader;
+import com.ai.hakaton.services.ingest.EnrollmentPipeline;
+import com.ai.hakaton.services.ingest.EnrollmentSnapshot;
+import com.ai.hakaton.services.ingest.EnrollmentRow;
+import com.ai.hakaton.services.ingest.SheetRow;
+import com.ai.hakaton.services.ingest.StreamingSheetReader;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Разбор файла записей: чтение ячеек POI, разбор строк, потоковое чтение xlsx целиком,
+// конвейер чтение -> параллельный разбор (без записи в базу), чтение CSV и двоичного снимка
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoaderBenchmark {
+
+    @Param({"2000"})
+    public int students;
+
+    @Param({"150"})
+    public int sections;
+
+    @Param({"300"})
+    public int exams;
+
+    private List<SheetRow> rows;
+    private XSSFWorkbook workbook;
+    private List<Row> poiRows;
+    private File workbookFile;
+    private File csvFile;
+    private byte[] snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticDataset dataset = new SyntheticDataset(students, sections, exams, 10, 5, 42);
+        rows = dataset.enrollmentRows();
+        workbookFile = Files.createTempFile("enrollments", ".xlsx").toFile();
+        dataset.writeEnrollmentWorkbook(workbookFile);
+        csvFile = Files.createTempFile("enrollments", ".csv").toFile();
+        dataset.writeEnrollmentCsv(csvFile);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (EnrollmentSnapshot.Writer writer = EnrollmentSnapshot.writer(out)) {
+            List<EnrollmentRow> parsed = new ArrayList<>(rows.size());
+            for (SheetRow row : rows) {
+                parsed.add(EnrollmentRow.fromSheetRow(row));
+            }
+            writer.write(parsed);
+        }
+        snapshot = out.toByteArray();
+
+        // Строки в памяти, как в исходной загрузке через XSSFWorkbook
+        workbook = new XSSFWorkbook(workbookFile.getPath());
+        XSSFSheet sheet = workbook.getSheetAt(0);
+        poiRows = new ArrayList<>(sheet.getLastRowNum());
+        for (Row row : sheet) {
+            if (row.getRowNum() > 0) {
+                poiRows.add(row);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workbook.close();
+        Files.deleteIfExists(workbookFile.toPath());
+        Files.deleteIfExists(csvFile.toPath());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void getCellStringValue(Blackhole blackhole) {
+        for (Row row : poiRows) {
+            for (Cell cell : row) {
+                blackhole.consume(DataLoadService.getCellStringValue(cell));
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void parseEnrollmentRows(Blackhole blackhole) {
+        for (SheetRow row : rows) {
+            blackhole.consume(EnrollmentRow.fromSheetRow(row));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int streamingRead(Blackhole blackhole) throws IOException {
+        return StreamingSheetReader.read(workbookFile, StreamingSheetReader.DEFAULT_CHUNK_SIZE, blackhole::consume);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int pipelineRead(Blackhole blackhole) throws IOException {
+        return new EnrollmentPipeline(0, 8).run(chunks -> StreamingSheetReader.read(workbookFile,
+                StreamingSheetReader.DEFAULT_CHUNK_SIZE, chunks), blackhole::consume).rows();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int csvRead(Blackhole blackhole) throws IOException {
+        return CsvSheetReader.read(csvFile, StreamingSheetReader.DEFAULT_CHUNK_SIZE, blackhole::consume);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int snapshotRead(Blackhole blackhole) throws IOException {
+        return EnrollmentSnapshot.read(new ByteArrayInputStream(snapshot), StreamingSheetReader.DEFAULT_CHUNK_SIZE,
+                blackhole::consume);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ai.hakaton.benchmarks;
+
+import com.ai.hakaton.services.scheduling.ExamOrderings;
+import com.ai.hakaton.services.scheduling.GreedyScheduler;
+import com.ai.hakaton.services.scheduling.Schedule;
+import com.ai.hakaton.services.scheduling.ScheduleProblem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Расстановка экзаменов и проверки, из которых она состоит.
+// Полный прогон - то, что делает ExamSchedulerService после загрузки данных из базы.
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SchedulerBenchmark {
+
+    @Param({"5000"})
+    public int students;
+
+    @Param({"300"})
+    public int sections;
+
+    @Param({"600", "2000"})
+    public int exams;
+
+    @Param({"50"})
+    public int auditoriums;
+
+    private ScheduleProblem problem;
+    private int[] order;
+    // Наполовину заполненное расписание для точечных проверок
+    private GreedyScheduler halfFilled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        problem = new SyntheticDataset(students, sections, exams, auditoriums, 5, 42).problem();
+        order = ExamOrderings.byStudentCount(problem);
+        halfFilled = new GreedyScheduler(problem);
+        for (int i = 0; i < order.length; i += 2) {
+            halfFilled.tryPlace(order[i]);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Schedule placement() {
+        return GreedyScheduler.run(problem, order);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Schedule placementDsatur() {
+        return GreedyScheduler.runDsatur(problem);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ScheduleProblem buildProblem() {
+        return new SyntheticDataset(students, sections, exams, auditoriums, 5, 42).problem();
+    }
+
+    // Все пары (экзамен, день) для непоставленных экзаменов
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void canScheduleExam(Blackhole blackhole) {
+        for (int i = 1; i < order.length; i += 2) {
+            for (int day = 0; day < problem.dayCount(); day++) {
+                blackhole.consume(halfFilled.canScheduleExam(order[i], day));
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void findAvailableAuditorium(Blackhole blackhole) {
+        int start = problem.dayStartMinute();
+        for (int i = 1; i < order.length; i += 2) {
+            for (int day = 0; day < problem.dayCount(); day++) {
+                blackhole.consume(halfFilled.findAvailableAuditorium(order[i], day, start));
+            }
+        }
+    }
+}
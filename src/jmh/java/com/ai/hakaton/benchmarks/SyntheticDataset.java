@@ -0,0 +1,191 @@
+package com.ai.hakaton.benchmarks;
+
+import com.ai.hakaton.services.ingest.SheetRow;
+import com.ai.hakaton.services.scheduling.ScheduleProblem;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Синтетические данные для бенчмарков: студенты записаны в секции, у каждой секции
+// несколько экзаменов. Структура повторяет файл записей и параметры ExamSchedulerService.
+public final class SyntheticDataset {
+    static final int SCHEDULE_DAYS = 30;
+    static final int MAX_EXAMS_PER_DAY = 20;
+    static final int MAX_EXAMS_PER_STUDENT_PER_DAY = 2;
+    static final int[] SLOT_STARTS = {9 * 60, 12 * 60 + 30, 16 * 60};
+    static final int DAY_END_MINUTE = 19 * 60 + 30;
+    static final int EXAM_DURATION_MINUTES = 180;
+
+    private static final String[] SUBJECTS = {
+            "Математика", "Физика", "Программирование", "История", "Английский язык",
+            "Экономика", "Химия", "Философия", "Статистика", "Базы данных"
+    };
+
+    private final int studentCount;
+    private final int sectionCount;
+    private final int examCount;
+    private final int auditoriumCount;
+    private final int[][] sectionStudents;
+    private final int[] examSection;
+    private final int[] examSubject;
+    private final int[] examInstructor;
+    private final int[] roomCapacity;
+
+    // sectionsPerStudent - в сколько секций в среднем записан студент
+    public SyntheticDataset(int studentCount, int sectionCount, int examCount, int auditoriumCount,
+                            int sectionsPerStudent, long seed) {
+        this.studentCount = studentCount;
+        this.sectionCount = sectionCount;
+        this.examCount = examCount;
+        this.auditoriumCount = auditoriumCount;
+        Random random = new Random(seed);
+
+        List<List<Integer>> members = new ArrayList<>(sectionCount);
+        for (int k = 0; k < sectionCount; k++) {
+            members.add(new ArrayList<>());
+        }
+        for (int s = 0; s < studentCount; s++) {
+            for (int i = 0; i < sectionsPerStudent; i++) {
+                List<Integer> section = members.get(random.nextInt(sectionCount));
+                if (section.isEmpty() || section.get(section.size() - 1) != s) {
+                    section.add(s);
+                }
+            }
+        }
+        this.sectionStudents = new int[sectionCount][];
+        int largestSection = 0;
+        for (int k = 0; k < sectionCount; k++) {
+            sectionStudents[k] = members.get(k).stream().mapToInt(Integer::intValue).toArray();
+            largestSection = Math.max(largestSection, sectionStudents[k].length);
+        }
+
+        // Каждая секция получает хотя бы один экзамен, остальные распределяются случайно
+        int instructorCount = Math.max(1, examCount / 3);
+        this.examSection = new int[examCount];
+        this.examSubject = new int[examCount];
+        this.examInstructor = new int[examCount];
+        for (int e = 0; e < examCount; e++) {
+            examSection[e] = e < sectionCount ? e : random.nextInt(sectionCount);
+            examSubject[e] = random.nextInt(SUBJECTS.length);
+            examInstructor[e] = random.nextInt(instructorCount);
+        }
+
+        // Вместимость 20..200, одна аудитория гарантированно вмещает самую большую секцию
+        this.roomCapacity = new int[auditoriumCount];
+        for (int r = 0; r < auditoriumCount; r++) {
+            roomCapacity[r] = 20 + 10 * random.nextInt(19);
+        }
+        if (auditoriumCount > 0) {
+            roomCapacity[0] = Math.max(roomCapacity[0], largestSection);
+        }
+    }
+
+    public ScheduleProblem problem() {
+        int[][] examStudents = new int[examCount][];
+        int[] duration = new int[examCount];
+        for (int e = 0; e < examCount; e++) {
+            examStudents[e] = sectionStudents[examSection[e]];
+            duration[e] = EXAM_DURATION_MINUTES;
+        }
+        return new ScheduleProblem(examStudents, studentCount, examInstructor, examSection, duration, roomCapacity,
+                SCHEDULE_DAYS, MAX_EXAMS_PER_DAY, MAX_EXAMS_PER_STUDENT_PER_DAY, SLOT_STARTS, DAY_END_MINUTE);
+    }
+
+    // Строки файла записей в том виде, в каком их отдает StreamingSheetReader
+    public List<SheetRow> enrollmentRows() {
+        List<SheetRow> rows = new ArrayList<>();
+        int rowNumber = 1;
+        for (int e = 0; e < examCount; e++) {
+            for (int s : sectionStudents[examSection[e]]) {
+                rows.add(new SheetRow(rowNumber++, enrollmentCells(e, s)));
+            }
+        }
+        return rows;
+    }
+
+    // Тот же файл записей в формате xlsx
+    public void writeEnrollmentWorkbook(File file) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+             OutputStream out = new FileOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Enrollments");
+            Row header = sheet.createRow(0);
+            String[] titles = {"#", "Subject", "Instructor", "Course", "EduProgram", "YearsOfStudy",
+                    "Gender", "fake_name", "fake_id", "Section"};
+            for (int i = 0; i < titles.length; i++) {
+                header.createCell(i).setCellValue(titles[i]);
+            }
+            int rowNumber = 1;
+            for (SheetRow source : enrollmentRows()) {
+                Row row = sheet.createRow(rowNumber++);
+                for (int i = 0; i < titles.length; i++) {
+                    if (i == 0 || i == 3) {
+                        row.createCell(i).setCellValue(Double.parseDouble(source.getCell(i)));
+                    } else {
+                        row.createCell(i).setCellValue(source.getCell(i));
+                    }
+                }
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+    }
+
+    // Тот же файл записей в CSV (без кавычек: значения не содержат запятых)
+    public void writeEnrollmentCsv(File file) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.write("#,Subject,Instructor,Course,EduProgram,YearsOfStudy,Gender,fake_name,fake_id,Section\n");
+            for (SheetRow row : enrollmentRows()) {
+                for (int i = 0; i < 10; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    out.write(row.getCell(i));
+                }
+                out.write('\n');
+            }
+        }
+    }
+
+    private String[] enrollmentCells(int exam, int student) {
+        return new String[]{
+                String.valueOf(exam),
+                SUBJECTS[examSubject[exam]],
+                "Преподаватель " + examInstructor[exam],
+                String.valueOf(1 + student % 4),
+                "Программа " + student % 7,
+                String.valueOf(1 + student % 4),
+                student % 2 == 0 ? "M" : "F",
+                "Студент " + student,
+                "ST" + student,
+                "SEC-" + examSection[exam]
+        };
+    }
+
+    public int studentCount() {
+        return studentCount;
+    }
+
+    public int sectionCount() {
+        return sectionCount;
+    }
+
+    public int examCount() {
+        return examCount;
+    }
+
+    public int auditoriumCount() {
+        return auditoriumCount;
+    }
+}
@@ -2,6 +2,10 @@ package com.ai.hakaton.controllers;
 
 import com.ai.hakaton.models.Exam;
 import com.ai.hakaton.services.DataLoadService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -26,9 +30,46 @@ public class DataLoadController {
         return ResponseEntity.ok(service.loadAuditoriums(auditorium));
     }
 
+    @PostMapping("/dataLoad/auditorium/csv")
+    public ResponseEntity<String> loadAuditoriumCsv(@RequestParam(value = "auditorium")
+                                                        MultipartFile auditorium) throws IOException {
+        return ResponseEntity.ok(service.loadAuditoriumsCsv(auditorium));
+    }
+
     @PostMapping("/dataLoad/exams")
     public ResponseEntity<String> loadExams(@RequestParam(value = "exams")
                                                      MultipartFile exams) throws IOException {
         return ResponseEntity.ok(service.loadExamsAndStudents(exams));
     }
+
+    @PostMapping("/dataLoad/exams/csv")
+    public ResponseEntity<String> loadExamsCsv(@RequestParam(value = "exams")
+                                                   MultipartFile exams) throws IOException {
+        return ResponseEntity.ok(service.loadExamsAndStudentsCsv(exams));
+    }
+
+    @PostMapping("/dataLoad/exams/snapshot")
+    public ResponseEntity<String> loadExamsSnapshot(@RequestParam(value = "exams")
+                                                        MultipartFile exams) throws IOException {
+        return ResponseEntity.ok(service.loadExamsAndStudentsSnapshot(exams));
+    }
+
+    // Разностная загрузка исправленного файла записей; repair=false - только сбросить кэш расписания
+    @PostMapping("/dataLoad/exams/delta")
+    public ResponseEntity<String> loadExamsDelta(@RequestParam(value = "exams") MultipartFile exams,
+                                                 @RequestParam(value = "repair", defaultValue = "true")
+                                                 boolean repair) throws IOException {
+        return ResponseEntity.ok(service.loadExamsAndStudentsDelta(exams, repair));
+    }
+
+    // Перевод файла записей (xlsx или CSV) в двоичный снимок для быстрых повторных загрузок.
+    // Пишется синхронно: загруженный файл доступен только до конца обработки запроса
+    @PostMapping("/dataLoad/exams/snapshot/convert")
+    public void convertExamsToSnapshot(@RequestParam(value = "exams") MultipartFile exams,
+                                       HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("enrollments.exsn").build().toString());
+        service.convertToSnapshot(exams, response.getOutputStream());
+    }
 }
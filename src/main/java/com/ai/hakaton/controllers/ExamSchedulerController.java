@@ -1,11 +1,21 @@
 package com.ai.hakaton.controllers;
 
+import com.ai.hakaton.dto.ScheduleJobStatus;
+import com.ai.hakaton.dto.ScheduleRepairRequest;
+import com.ai.hakaton.dto.ScheduleVersionChange;
+import com.ai.hakaton.dto.ScheduleVersionInfo;
 import com.ai.hakaton.models.Exam;
 import com.ai.hakaton.services.ExamSchedulerService;
+import com.ai.hakaton.services.ScheduleJobService;
+import com.ai.hakaton.services.ScheduleVersionService;
+import com.ai.hakaton.services.scheduling.ScheduleProgress;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -15,13 +25,67 @@ import java.util.Map;
 @RequestMapping("/v1/api")
 public class ExamSchedulerController {
     private final ExamSchedulerService service;
+    private final ScheduleJobService jobService;
+    private final ScheduleVersionService versionService;
 
-    public ExamSchedulerController(ExamSchedulerService service) {
+    public ExamSchedulerController(ExamSchedulerService service, ScheduleJobService jobService,
+                                   ScheduleVersionService versionService) {
         this.service = service;
+        this.jobService = jobService;
+        this.versionService = versionService;
     }
 
     @GetMapping("/schedule")
-    public ResponseEntity<Map<LocalDate, List<Exam>>> getSchedule(){
-        return ResponseEntity.ok(service.scheduleExams());
+    public ResponseEntity<Map<LocalDate, List<Exam>>> getSchedule(@RequestParam(defaultValue = "false") boolean refresh){
+        return ResponseEntity.ok(service.scheduleExams(new ScheduleProgress(), refresh));
+    }
+
+    @PostMapping("/schedule/repair")
+    public ResponseEntity<Map<LocalDate, List<Exam>>> repairSchedule(@RequestBody ScheduleRepairRequest request){
+        return ResponseEntity.ok(service.repairSchedule(request));
+    }
+
+    @PostMapping("/schedule/jobs")
+    public ResponseEntity<ScheduleJobStatus> createScheduleJob(){
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ScheduleJobStatus.of(jobService.submit()));
+    }
+
+    @GetMapping("/schedule/jobs/{jobId}")
+    public ResponseEntity<ScheduleJobStatus> getScheduleJob(@PathVariable String jobId){
+        return ResponseEntity.ok(ScheduleJobStatus.of(jobService.getJob(jobId)));
+    }
+
+    @GetMapping("/schedule/jobs/{jobId}/result")
+    public ResponseEntity<Map<LocalDate, List<Exam>>> getScheduleJobResult(@PathVariable String jobId){
+        return ResponseEntity.ok(jobService.getResult(jobId));
+    }
+
+    @GetMapping("/schedule/versions")
+    public ResponseEntity<List<ScheduleVersionInfo>> getScheduleVersions(){
+        return ResponseEntity.ok(versionService.list());
+    }
+
+    // Что изменится при переходе от версии versionId к версии to (по умолчанию - к активной)
+    @GetMapping("/schedule/versions/{versionId}/diff")
+    public ResponseEntity<List<ScheduleVersionChange>> diffScheduleVersions(@PathVariable long versionId,
+                                                                            @RequestParam(required = false) Long to){
+        return ResponseEntity.ok(versionService.diff(versionId, to));
+    }
+
+    @PostMapping("/schedule/versions/{versionId}/activate")
+    public ResponseEntity<Map<LocalDate, List<Exam>>> activateScheduleVersion(@PathVariable long versionId){
+        return ResponseEntity.ok(service.activateVersion(versionId));
+    }
+
+    // Файл пишется прямо в ответ по мере формирования
+    @GetMapping("/schedule/export")
+    public ResponseEntity<StreamingResponseBody> exportSchedule(@RequestParam(defaultValue = "false") boolean perDay,
+                                                                @RequestParam(defaultValue = "false") boolean perStudent){
+        StreamingResponseBody body = out -> service.exportSchedule(perDay, perStudent, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("exam_schedule.xlsx").build().toString())
+                .body(body);
     }
 }
@@ -0,0 +1,31 @@
+package com.ai.hakaton.controllers;
+
+import com.ai.hakaton.dto.StudentTimetable;
+import com.ai.hakaton.services.StudentTimetableService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("/v1/api")
+public class StudentTimetableController {
+    private final StudentTimetableService service;
+
+    public StudentTimetableController(StudentTimetableService service) {
+        this.service = service;
+    }
+
+    // Личное расписание по fake_id; при совпадении If-None-Match отвечает 304 без тела
+    @GetMapping("/students/{studentId}/exams")
+    public ResponseEntity<StudentTimetable> getStudentExams(@PathVariable String studentId, WebRequest request){
+        StudentTimetableService.Entry entry = service.getTimetable(studentId);
+        if (request.checkNotModified(entry.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(entry.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(entry.getTimetable());
+    }
+}
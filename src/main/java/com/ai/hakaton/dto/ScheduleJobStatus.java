@@ -0,0 +1,90 @@
+package com.ai.hakaton.dto;
+
+import com.ai.hakaton.services.ScheduleJob;
+import com.ai.hakaton.services.scheduling.ScheduleProgress;
+import com.ai.hakaton.services.scheduling.ScheduleScore;
+
+import java.time.Instant;
+
+// Состояние фонового задания для опроса клиентом
+public class ScheduleJobStatus {
+    private String jobId;
+    private String status;
+    private String phase;
+    private int examsPlaced;
+    private int examsTotal;
+    private int startsDone;
+    private int startsTotal;
+    private Integer bestUnscheduled;
+    private Long bestBackToBack;
+    private Instant createdAt;
+    private Instant finishedAt;
+    private String error;
+
+    public static ScheduleJobStatus of(ScheduleJob job) {
+        ScheduleProgress progress = job.getProgress();
+        ScheduleScore best = progress.bestScore();
+        ScheduleJobStatus status = new ScheduleJobStatus();
+        status.jobId = job.getId();
+        status.status = job.getStatus().name();
+        status.phase = progress.phase();
+        status.examsPlaced = progress.examsPlaced();
+        status.examsTotal = progress.examsTotal();
+        status.startsDone = progress.startsDone();
+        status.startsTotal = progress.startsTotal();
+        status.bestUnscheduled = best == null ? null : best.unscheduled();
+        status.bestBackToBack = best == null ? null : best.backToBack();
+        status.createdAt = job.getCreatedAt();
+        status.finishedAt = job.getFinishedAt();
+        status.error = job.getError();
+        return status;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public int getExamsPlaced() {
+        return examsPlaced;
+    }
+
+    public int getExamsTotal() {
+        return examsTotal;
+    }
+
+    public int getStartsDone() {
+        return startsDone;
+    }
+
+    public int getStartsTotal() {
+        return startsTotal;
+    }
+
+    public Integer getBestUnscheduled() {
+        return bestUnscheduled;
+    }
+
+    public Long getBestBackToBack() {
+        return bestBackToBack;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
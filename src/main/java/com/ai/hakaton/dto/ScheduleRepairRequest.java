@@ -0,0 +1,60 @@
+package com.ai.hakaton.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Запрос на точечную перепланировку:
+// moves - перенести экзамены на указанную дату (и время), examIds - поставить экзамены заново.
+// Перенос, нарушающий ограничения, не выполняется: запрос отклоняется (409) с перечнем конфликтов
+public class ScheduleRepairRequest {
+    private List<Move> moves = new ArrayList<>();
+    private List<Long> examIds = new ArrayList<>();
+
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    public void setMoves(List<Move> moves) {
+        this.moves = moves;
+    }
+
+    public List<Long> getExamIds() {
+        return examIds;
+    }
+
+    public void setExamIds(List<Long> examIds) {
+        this.examIds = examIds;
+    }
+
+    public static class Move {
+        private Long examId;
+        private LocalDate date;
+        private LocalTime time;
+
+        public Long getExamId() {
+            return examId;
+        }
+
+        public void setExamId(Long examId) {
+            this.examId = examId;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public void setDate(LocalDate date) {
+            this.date = date;
+        }
+
+        public LocalTime getTime() {
+            return time;
+        }
+
+        public void setTime(LocalTime time) {
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ai.hakaton.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+// Различие двух версий расписания по одному экзамену; null - в версии экзамен не назначен.
+// Дополнительные аудитории разделенного экзамена - по возрастанию id, иначе пустой список
+public class ScheduleVersionChange {
+    private final Long examId;
+    private final LocalDate fromDate;
+    private final LocalTime fromTime;
+    private final Long fromAuditoriumId;
+    private final List<Long> fromExtraAuditoriumIds;
+    private final LocalDate toDate;
+    private final LocalTime toTime;
+    private final Long toAuditoriumId;
+    private final List<Long> toExtraAuditoriumIds;
+
+    public ScheduleVersionChange(Long examId, LocalDate fromDate, LocalTime fromTime, Long fromAuditoriumId,
+                                 List<Long> fromExtraAuditoriumIds, LocalDate toDate, LocalTime toTime,
+                                 Long toAuditoriumId, List<Long> toExtraAuditoriumIds) {
+        this.examId = examId;
+        this.fromDate = fromDate;
+        this.fromTime = fromTime;
+        this.fromAuditoriumId = fromAuditoriumId;
+        this.fromExtraAuditoriumIds = fromExtraAuditoriumIds;
+        this.toDate = toDate;
+        this.toTime = toTime;
+        this.toAuditoriumId = toAuditoriumId;
+        this.toExtraAuditoriumIds = toExtraAuditoriumIds;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public LocalTime getFromTime() {
+        return fromTime;
+    }
+
+    public Long getFromAuditoriumId() {
+        return fromAuditoriumId;
+    }
+
+    public List<Long> getFromExtraAuditoriumIds() {
+        return fromExtraAuditoriumIds;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public LocalTime getToTime() {
+        return toTime;
+    }
+
+    public Long getToAuditoriumId() {
+        return toAuditoriumId;
+    }
+
+    public List<Long> getToExtraAuditoriumIds() {
+        return toExtraAuditoriumIds;
+    }
+}
@@ -0,0 +1,40 @@
+package com.ai.hakaton.dto;
+
+import java.time.Instant;
+
+// Версия расписания в списке версий
+public class ScheduleVersionInfo {
+    private final Long id;
+    private final String source;
+    private final int assignedCount;
+    private final Instant createdAt;
+    private final boolean active;
+
+    public ScheduleVersionInfo(Long id, String source, int assignedCount, Instant createdAt, boolean active) {
+        this.id = id;
+        this.source = source;
+        this.assignedCount = assignedCount;
+        this.createdAt = createdAt;
+        this.active = active;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getAssignedCount() {
+        return assignedCount;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ai.hakaton.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Экзамен в личном расписании студента
+public class StudentExamSlot {
+    private final Long examId;
+    private final String subject;
+    private final String section;
+    private final String instructor;
+    private final LocalDate date;
+    private final LocalTime time;
+    private final int duration;
+    private final String auditorium;
+
+    public StudentExamSlot(Long examId, String subject, String section, String instructor,
+                           LocalDate date, LocalTime time, int duration, String auditorium) {
+        this.examId = examId;
+        this.subject = subject;
+        this.section = section;
+        this.instructor = instructor;
+        this.date = date;
+        this.time = time;
+        this.duration = duration;
+        this.auditorium = auditorium;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getSection() {
+        return section;
+    }
+
+    public String getInstructor() {
+        return instructor;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public LocalTime getTime() {
+        return time;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public String getAuditorium() {
+        return auditorium;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ai.hakaton.dto;
+
+import java.util.List;
+
+// Личное расписание студента: экзамены по дате и времени
+public class StudentTimetable {
+    private final String studentId;
+    private final String name;
+    private final List<StudentExamSlot> exams;
+
+    public StudentTimetable(String studentId, String name, List<StudentExamSlot> exams) {
+        this.studentId = studentId;
+        this.name = name;
+        this.exams = exams;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<StudentExamSlot> getExams() {
+        return exams;
+    }
+}
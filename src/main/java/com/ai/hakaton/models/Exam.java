@@ -4,13 +4,19 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Entity
-@Table(name = "exams")
+@Table(name = "exams", uniqueConstraints =
+        @UniqueConstraint(columnNames = {"section_id", "subject", "instructor"}))
 @Data
 public class Exam {
     @Id
@@ -30,6 +36,14 @@ public class Exam {
     @JoinColumn(name = "auditorium_id")
     private Auditorium auditorium;
 
+    // Если студентов больше, чем мест в одной аудитории, экзамен идет одновременно еще и в этих
+    @ManyToMany(fetch = FetchType.EAGER)
+    @JoinTable(name = "exam_extra_auditoriums",
+            joinColumns = @JoinColumn(name = "exam_id"),
+            inverseJoinColumns = @JoinColumn(name = "auditorium_id"))
+    @Fetch(FetchMode.SUBSELECT)
+    private Set<Auditorium> extraAuditoriums = new HashSet<>();
+
     @ManyToMany(mappedBy = "exams", cascade = CascadeType.PERSIST)
     @JsonManagedReference
     private Set<Student> students = new HashSet<>();
@@ -120,5 +134,21 @@ public class Exam {
     public void setAuditorium(Auditorium auditorium) {
         this.auditorium = auditorium;
     }
+
+    public Set<Auditorium> getExtraAuditoriums() {
+        return extraAuditoriums;
+    }
+
+    public void setExtraAuditoriums(Set<Auditorium> extraAuditoriums) {
+        this.extraAuditoriums = extraAuditoriums;
+    }
+
+    // Номера всех аудиторий экзамена через запятую: основная, затем дополнительные
+    public String auditoriumNumbers() {
+        return Stream.concat(Stream.of(auditorium), extraAuditoriums.stream()
+                        .sorted(Comparator.comparing(Auditorium::getNumber, Comparator.nullsLast(Comparator.naturalOrder()))))
+                .map(Auditorium::getNumber)
+                .collect(Collectors.joining(", "));
+    }
 }
 
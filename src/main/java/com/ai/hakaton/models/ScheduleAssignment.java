@@ -0,0 +1,104 @@
+package com.ai.hakaton.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Назначение экзамена в версии расписания: дата, начало в минутах от полуночи и аудитория;
+// у разделенного экзамена дополнительные аудитории - id через запятую по возрастанию.
+// Неназначенные экзамены в версию не попадают. Пишется и читается только через JDBC,
+// сущность нужна для создания таблицы; внешних ключей нет, чтобы версии переживали удаление экзаменов.
+@Entity
+@Table(name = "schedule_assignments")
+@IdClass(ScheduleAssignment.Key.class)
+@Data
+public class ScheduleAssignment {
+    @Id
+    private Long versionId;
+
+    @Id
+    private Long examId;
+
+    private LocalDate examDate;
+    private short startMinute;
+    private Long auditoriumId;
+    private String extraAuditoriums;
+
+    public ScheduleAssignment() {
+    }
+
+    public Long getVersionId() {
+        return versionId;
+    }
+
+    public void setVersionId(Long versionId) {
+        this.versionId = versionId;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public void setExamId(Long examId) {
+        this.examId = examId;
+    }
+
+    public LocalDate getExamDate() {
+        return examDate;
+    }
+
+    public void setExamDate(LocalDate examDate) {
+        this.examDate = examDate;
+    }
+
+    public short getStartMinute() {
+        return startMinute;
+    }
+
+    public void setStartMinute(short startMinute) {
+        this.startMinute = startMinute;
+    }
+
+    public Long getAuditoriumId() {
+        return auditoriumId;
+    }
+
+    public void setAuditoriumId(Long auditoriumId) {
+        this.auditoriumId = auditoriumId;
+    }
+
+    public String getExtraAuditoriums() {
+        return extraAuditoriums;
+    }
+
+    public void setExtraAuditoriums(String extraAuditoriums) {
+        this.extraAuditoriums = extraAuditoriums;
+    }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long versionId;
+        private Long examId;
+
+        public Key() {
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(versionId, other.versionId) && Objects.equals(examId, other.examId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(versionId, examId);
+        }
+    }
+}
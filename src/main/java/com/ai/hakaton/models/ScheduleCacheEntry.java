@@ -0,0 +1,63 @@
+package com.ai.hakaton.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+// Отпечаток данных, по которым построено сохраненное расписание, и активная версия (одна строка)
+@Entity
+@Table(name = "schedule_cache")
+@Data
+public class ScheduleCacheEntry {
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    private String fingerprint;
+    private Long activeVersionId;
+    private Instant createdAt;
+
+    public ScheduleCacheEntry(Long id, String fingerprint, Long activeVersionId, Instant createdAt) {
+        this.id = id;
+        this.fingerprint = fingerprint;
+        this.activeVersionId = activeVersionId;
+        this.createdAt = createdAt;
+    }
+
+    public ScheduleCacheEntry() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public Long getActiveVersionId() {
+        return activeVersionId;
+    }
+
+    public void setActiveVersionId(Long activeVersionId) {
+        this.activeVersionId = activeVersionId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
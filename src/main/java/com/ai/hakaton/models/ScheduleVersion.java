@@ -0,0 +1,72 @@
+package com.ai.hakaton.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+// Неизменяемая версия расписания: сами назначения лежат в schedule_assignments
+@Entity
+@Table(name = "schedule_versions")
+@Data
+public class ScheduleVersion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // schedule - полный расчет, repair - точечная перепланировка
+    private String source;
+    // Отпечаток данных, по которым построена версия
+    private String fingerprint;
+    private int assignedCount;
+    private Instant createdAt;
+
+    public ScheduleVersion(String source, String fingerprint, Instant createdAt) {
+        this.source = source;
+        this.fingerprint = fingerprint;
+        this.createdAt = createdAt;
+    }
+
+    public ScheduleVersion() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public int getAssignedCount() {
+        return assignedCount;
+    }
+
+    public void setAssignedCount(int assignedCount) {
+        this.assignedCount = assignedCount;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -18,6 +18,7 @@ public class Section {
     private Long id;
 
     // Уникальный код секции, например "A1", "B2" и т.д.
+    @Column(unique = true)
     private String code;
 
     // Другие поля, например, курс, образовательная программа и т.п.
@@ -0,0 +1,10 @@
+package com.ai.hakaton.repositories;
+
+// Проекция аудитории для планирования
+public interface AuditoriumCapacity {
+    Long getId();
+
+    int getCapacity();
+
+    String getType();
+}
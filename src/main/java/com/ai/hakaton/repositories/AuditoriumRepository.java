@@ -2,6 +2,13 @@ package com.ai.hakaton.repositories;
 
 import com.ai.hakaton.models.Auditorium;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface AuditoriumRepository extends JpaRepository<Auditorium, Long> {
+
+    // Вместимости и типы аудиторий для планирования, по возрастанию id
+    @Query("SELECT a.id AS id, a.capacity AS capacity, a.type AS type FROM Auditorium a ORDER BY a.id")
+    List<AuditoriumCapacity> findAllCapacities();
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.ai.hakaton.repositories;
+
+// Проекция пары (экзамен, студент) без загрузки сущностей
+public interface ExamEnrollment {
+    Long getExamId();
+
+    String getStudentId();
+
+    String getStudentName();
+
+    String getStudentProgram();
+}
@@ -0,0 +1,8 @@
+package com.ai.hakaton.repositories;
+
+// Проекция пары (экзамен, дополнительная аудитория) без загрузки сущностей
+public interface ExamExtraAuditorium {
+    Long getExamId();
+
+    Long getAuditoriumId();
+}
@@ -1,11 +1,15 @@
 package com.ai.hakaton.repositories;
 
 import com.ai.hakaton.models.Exam;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExamRepository extends JpaRepository<Exam, Long> {
@@ -15,6 +19,43 @@ public interface ExamRepository extends JpaRepository<Exam, Long> {
             "JOIN FETCH s.students")
     List<Exam> findAllWithStudents();
 
+    @Query("SELECT e FROM Exam e LEFT JOIN FETCH e.section")
+    List<Exam> findAllWithSection();
+
+    // Назначенные экзамены с секцией и аудиторией для личных расписаний
+    @Query("SELECT e FROM Exam e " +
+            "JOIN FETCH e.section " +
+            "JOIN FETCH e.auditorium " +
+            "WHERE e.examDate IS NOT NULL AND e.examTime IS NOT NULL")
+    List<Exam> findAllScheduled();
+
+    // Есть ли уже расписание: экзамены с назначенной аудиторией
+    long countByAuditoriumIsNotNull();
+
+    // Экзамены для планирования без загрузки сущностей, по возрастанию id
+    @Query("SELECT e.id AS id, e.instructor AS instructor, e.duration AS duration, sec.id AS sectionId, " +
+            "e.examDate AS examDate, e.examTime AS examTime, a.id AS auditoriumId " +
+            "FROM Exam e " +
+            "LEFT JOIN e.section sec " +
+            "LEFT JOIN e.auditorium a " +
+            "ORDER BY e.id")
+    List<ExamSlot> findAllSlots();
+
+    // Дополнительные аудитории разделенных экзаменов
+    @Query("SELECT e.id AS examId, a.id AS auditoriumId FROM Exam e JOIN e.extraAuditoriums a")
+    List<ExamExtraAuditorium> findAllExtraAuditoriums();
+
+    // Все записи студентов на экзамены одним запросом; читать внутри транзакции
+    @Query("SELECT e.id AS examId, s.id AS studentId, s.name AS studentName, s.eduProgram AS studentProgram " +
+            "FROM Exam e " +
+            "JOIN e.section sec " +
+            "JOIN sec.students s")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ExamEnrollment> streamEnrollments();
+
     default List<Exam> findAllWithStudentsLogged() {
         System.out.println("Загрузка всех экзаменов с секциями и студентами");
         return findAllWithStudents();
@@ -0,0 +1,21 @@
+package com.ai.hakaton.repositories;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Проекция экзамена для планирования: только поля, нужные расписанию
+public interface ExamSlot {
+    Long getId();
+
+    String getInstructor();
+
+    Integer getDuration();
+
+    Long getSectionId();
+
+    LocalDate getExamDate();
+
+    LocalTime getExamTime();
+
+    Long getAuditoriumId();
+}
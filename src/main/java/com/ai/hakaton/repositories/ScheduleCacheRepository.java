@@ -0,0 +1,7 @@
+package com.ai.hakaton.repositories;
+
+import com.ai.hakaton.models.ScheduleCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ScheduleCacheRepository extends JpaRepository<ScheduleCacheEntry, Long> {
+}
@@ -0,0 +1,11 @@
+package com.ai.hakaton.repositories;
+
+import com.ai.hakaton.models.ScheduleVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ScheduleVersionRepository extends JpaRepository<ScheduleVersion, Long> {
+
+    List<ScheduleVersion> findAllByOrderByIdDesc();
+}
@@ -1,29 +1,38 @@
 package com.ai.hakaton.services;
 
 import com.ai.hakaton.models.Auditorium;
-import com.ai.hakaton.models.Exam;
-import com.ai.hakaton.models.Section;
-import com.ai.hakaton.models.Student;
+import com.ai.hakaton.dto.ScheduleRepairRequest;
 import com.ai.hakaton.repositories.AuditoriumRepository;
 import com.ai.hakaton.repositories.ExamRepository;
 import com.ai.hakaton.repositories.SectionRepository;
 import com.ai.hakaton.repositories.StudentRepository;
+import com.ai.hakaton.services.ingest.BulkEnrollmentWriter;
+import com.ai.hakaton.services.ingest.CsvSheetReader;
+import com.ai.hakaton.services.ingest.DeltaEnrollmentImport;
+import com.ai.hakaton.services.ingest.EnrollmentPipeline;
+import com.ai.hakaton.services.ingest.EnrollmentSnapshot;
+import com.ai.hakaton.services.ingest.SheetRow;
+import com.ai.hakaton.services.ingest.StreamingSheetReader;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.time.LocalDate;
-import java.time.LocalTime;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
 
 @Service
 public class DataLoadService {
+    private static final Logger log = LoggerFactory.getLogger(DataLoadService.class);
 
     @Autowired
     private ExamRepository examRepository;
@@ -37,6 +46,32 @@ public class DataLoadService {
     @Autowired
     private SectionRepository sectionRepository;
 
+    @Autowired
+    private BulkEnrollmentWriter bulkEnrollmentWriter;
+
+    @Autowired
+    private DeltaEnrollmentImport deltaEnrollmentImport;
+
+    @Autowired
+    private ScheduleCache scheduleCache;
+
+    @Autowired
+    private ExamSchedulerService examSchedulerService;
+
+    @Autowired
+    private ScheduleVersionService scheduleVersions;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Потоки разбора строк файла записей; 0 - по числу ядер
+    @Value("${ingest.parse-threads:0}")
+    private int parseThreads;
+
+    // Сколько порций может ждать записи
+    @Value("${ingest.queue-capacity:8}")
+    private int queueCapacity;
+
     public static String getCellStringValue(Cell cell) {
         if (cell == null) return "";
         switch (cell.getCellType()) {
@@ -62,255 +97,229 @@ public class DataLoadService {
         }
     }
 
-    // Загрузка экзаменов, студентов и секций из Excel
-    @Transactional
+    // Загрузка экзаменов, студентов и секций из Excel. Ошибка чтения файла откатывает всю загрузку,
+    // кэш расписания сбрасывается в любом случае
+    @Transactional(rollbackFor = IOException.class)
     public String loadExamsAndStudents(String filePath) throws IOException {
-        System.out.println("Загрузка данных экзаменов и студентов из: " + filePath);
-
-        Map<String, Exam> examMap = new HashMap<>();
-        Map<String, Student> studentMap = new HashMap<>();
-        Map<String, Section> sectionMap = new HashMap<>();
-
-        try (FileInputStream fis = new FileInputStream(new File(filePath));
-             Workbook workbook = new XSSFWorkbook(fis)) {
+        log.info("Загрузка данных экзаменов и студентов из: {}", filePath);
+
+        BulkEnrollmentWriter.Session session = bulkEnrollmentWriter.session();
+        try {
+            // Лист читается потоково в отдельном потоке, строки разбираются параллельно,
+            // каждая порция пишется пакетными INSERT ... ON CONFLICT
+            EnrollmentPipeline.Result result = pipeline().run(chunks -> StreamingSheetReader.read(new File(filePath),
+                    StreamingSheetReader.DEFAULT_CHUNK_SIZE, chunks), session::write);
+            printLoadStats(session, result);
+            eventPublisher.publishEvent(new EnrollmentsChangedEvent());
+        } catch (IOException e) {
+            log.error("Ошибка чтения файла: {}", filePath, e);
+            throw e;
+        } finally {
+            scheduleCache.invalidate();
+        }
 
-            Sheet sheet = workbook.getSheetAt(0);
+        return "All data processed"+"\nЭкзаменов загружено: " + session.examCount()+
+                "\nСтудентов загружено: "+session.studentCount()+
+                "\nСекций загружено: "+session.sectionCount();
+    }
 
-            for (int i = 1; i <= 5000; i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
+    // Загрузка аудиторий из Excel
+    public String loadAuditoriums(String filePath) throws IOException {
+        log.info("Загрузка данных аудиторий из: {}", filePath);
+        int loaded = StreamingSheetReader.read(new File(filePath), StreamingSheetReader.DEFAULT_CHUNK_SIZE,
+                this::saveAuditoriums);
+        log.info("Аудиторий загружено: {}", loaded);
+        scheduleCache.invalidate();
+        return "All data processed";
+    }
 
-                try {
-                    String subject = getCellStringValue(row.getCell(1));
-                    String instructor = getCellStringValue(row.getCell(2));
-                    String course = getCellStringValue(row.getCell(3));
-                    String eduProgram = getCellStringValue(row.getCell(4));
-                    String yearsOfStudyStr = getCellStringValue(row.getCell(5));
-                    String fakeName = getCellStringValue(row.getCell(7));
-                    String fakeIdStr = getCellStringValue(row.getCell(8));
-                    String sectionCode = getCellStringValue(row.getCell(9));
-
-                    // Handle Section
-                    Section section = sectionMap.get(sectionCode);
-                    if (section == null) {
-                        Optional<Section> optSection = sectionRepository.findByCode(sectionCode);
-                        if (optSection.isPresent()) {
-                            section = optSection.get();
-                        } else {
-                            section = new Section();
-                            section.setCode(sectionCode);
-                            section = sectionRepository.save(section); // Use save() for new entities
-                        }
-                        sectionMap.put(sectionCode, section);
-                    }
-
-                    // Handle Exam
-                    String examKey = sectionCode + "-" + subject + "-" + instructor;
-                    Exam exam = examMap.get(examKey);
-                    if (exam == null) {
-                        exam = new Exam();
-                        exam.setSubject(subject);
-                        exam.setInstructor(instructor);
-                        exam.setSection(section);
-                        exam.setExamDate(LocalDate.parse("2025-02-24")); // Example date
-                        exam.setExamTime(LocalTime.parse("09:00")); // Example time
-                        exam.setDuration(180); // Example duration
-                        examMap.put(examKey, exam);
-                    }
-
-                    // Handle Student
-                    Student student = studentMap.get(fakeIdStr);
-                    if (student == null) {
-                        Optional<Student> optStudent = studentRepository.findById(fakeIdStr);
-                        if (optStudent.isPresent()) {
-                            student = optStudent.get();
-                        } else {
-                            student = new Student();
-                            student.setId(fakeIdStr);
-                            student.setName(fakeName);
-                            student.setCourse(Integer.parseInt(course));
-                            student.setEduProgram(eduProgram);
-                            student.setYearOfStudy(yearsOfStudyStr);
-                            student.setSections(new HashSet<>());
-                        }
-                        studentMap.put(fakeIdStr, student);
-                    }
-
-                    // Add relationships
-                    student.getSections().add(section);
-                    student.getExams().add(exam);
-                    exam.getStudents().add(student);
-
-                } catch (Exception e) {
-                    System.out.println("Error processing row " + e);
-                }
-            }
+    public String loadAuditoriums(MultipartFile file) throws IOException {
+        log.info("Загрузка данных аудиторий из: {}", file);
+        int loaded;
+        try (InputStream input = file.getInputStream()) {
+            loaded = StreamingSheetReader.read(input, StreamingSheetReader.DEFAULT_CHUNK_SIZE, this::saveAuditoriums);
+        }
+        log.info("Аудиторий загружено: {}", loaded);
+        scheduleCache.invalidate();
+        return "All data processed";
+    }
 
-            // Save all entities
-            examRepository.saveAll(examMap.values());
-            studentRepository.saveAll(studentMap.values());
+    // Те же колонки в CSV
+    public String loadAuditoriumsCsv(MultipartFile file) throws IOException {
+        log.info("Загрузка данных аудиторий из CSV: {}", file.getOriginalFilename());
+        int loaded;
+        try (InputStream input = file.getInputStream()) {
+            loaded = CsvSheetReader.read(input, StreamingSheetReader.DEFAULT_CHUNK_SIZE, this::saveAuditoriums);
+        }
+        log.info("Аудиторий загружено: {}", loaded);
+        scheduleCache.invalidate();
+        return "All data processed";
+    }
 
-            System.out.println("Экзаменов загружено: " + examMap.size());
-            System.out.println("Студентов загружено: " + studentMap.size());
-            System.out.println("Секций загружено: " + sectionMap.size());
+    // Предполагается, что первая строка – заголовки: RoomId, RoomType, Capacity
+    private void saveAuditoriums(List<SheetRow> chunk) {
+        List<Auditorium> auditoriums = new ArrayList<>(chunk.size());
+        for (SheetRow row : chunk) {
+            String roomId = row.getCell(0);
+            String roomType = row.getCell(1);
+            int capacity = Integer.parseInt(row.getCell(2));
+            auditoriums.add(new Auditorium(null, roomId, roomType, capacity));
+        }
+        auditoriumRepository.saveAll(auditoriums);
+    }
 
-        } catch (IOException e) {
-            System.out.println("Error reading file: " + e);
-            throw e;
+    @Transactional(rollbackFor = IOException.class)
+    public String loadExamsAndStudents(MultipartFile file) throws IOException {
+        log.info("Загрузка данных экзаменов и студентов из: {}", file);
+
+        BulkEnrollmentWriter.Session session = bulkEnrollmentWriter.session();
+        try (InputStream input = file.getInputStream()) {
+            EnrollmentPipeline.Result result = pipeline().run(chunks -> StreamingSheetReader.read(input,
+                    StreamingSheetReader.DEFAULT_CHUNK_SIZE, chunks), session::write);
+            printLoadStats(session, result);
+            eventPublisher.publishEvent(new EnrollmentsChangedEvent());
+        } finally {
+            scheduleCache.invalidate();
         }
 
-        return "All data processed"+"\nЭкзаменов загружено: " + examMap.size()+
-                "\nСтудентов загружено: "+studentMap.size()+
-                "\nСекций загружено: "+sectionMap.size();
+        return "All data processed";
     }
 
-
-    // Загрузка аудиторий из Excel
-    public String loadAuditoriums(String filePath) throws IOException {
-        System.out.println("Загрузка данных аудиторий из: " + filePath);
-        List<Auditorium> auditoriums = new ArrayList<>();
-        FileInputStream fis = new FileInputStream(new File(filePath));
-        Workbook workbook = new XSSFWorkbook(fis);
-        Sheet sheet = workbook.getSheetAt(0);
-        // Предполагается, что первая строка – заголовки: RoomId, RoomType, Capacity
-        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-            Row row = sheet.getRow(i);
-            if (row == null) continue;
-            String roomId = getCellStringValue(row.getCell(0));
-            String roomType = getCellStringValue(row.getCell(1));
-            int capacity = Integer.parseInt(getCellStringValue(row.getCell(2)));
-            Auditorium auditorium = new Auditorium(null, roomId, roomType, capacity);
-            auditoriums.add(auditorium);
+    // Файл записей в CSV: те же колонки, что в xlsx, без распаковки и разбора XML
+    @Transactional(rollbackFor = IOException.class)
+    public String loadExamsAndStudentsCsv(MultipartFile file) throws IOException {
+        log.info("Загрузка данных экзаменов и студентов из CSV: {}", file.getOriginalFilename());
+
+        BulkEnrollmentWriter.Session session = bulkEnrollmentWriter.session();
+        try (InputStream input = file.getInputStream()) {
+            EnrollmentPipeline.Result result = pipeline().run(chunks -> CsvSheetReader.read(input,
+                    StreamingSheetReader.DEFAULT_CHUNK_SIZE, chunks), session::write);
+            printLoadStats(session, result);
+            eventPublisher.publishEvent(new EnrollmentsChangedEvent());
+        } finally {
+            scheduleCache.invalidate();
         }
-        workbook.close();
-        fis.close();
-        auditoriumRepository.saveAll(auditoriums);
-        System.out.println("Аудиторий загружено: " + auditoriums.size());
+
         return "All data processed";
     }
 
-    public String loadAuditoriums(MultipartFile file) throws IOException {
-        System.out.println("Загрузка данных аудиторий из: " + file);
-        List<Auditorium> auditoriums = new ArrayList<>();
-        Workbook workbook = new XSSFWorkbook(file.getInputStream());
-        Sheet sheet = workbook.getSheetAt(0);
-        // Предполагается, что первая строка – заголовки: RoomId, RoomType, Capacity
-        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-            Row row = sheet.getRow(i);
-            if (row == null) continue;
-            String roomId = getCellStringValue(row.getCell(0));
-            String roomType = getCellStringValue(row.getCell(1));
-            int capacity = Integer.parseInt(getCellStringValue(row.getCell(2)));
-            Auditorium auditorium = new Auditorium(null, roomId, roomType, capacity);
-            auditoriums.add(auditorium);
+    // Двоичный снимок файла записей: строки уже разобраны, сразу пишутся в базу.
+    // Оборванный снимок откатывает порции, записанные до ошибки
+    @Transactional(rollbackFor = IOException.class)
+    public String loadExamsAndStudentsSnapshot(MultipartFile file) throws IOException {
+        log.info("Загрузка снимка записей: {}", file.getOriginalFilename());
+
+        BulkEnrollmentWriter.Session session = bulkEnrollmentWriter.session();
+        int rows;
+        try (InputStream input = file.getInputStream()) {
+            rows = EnrollmentSnapshot.read(input, StreamingSheetReader.DEFAULT_CHUNK_SIZE, session::write);
+        } finally {
+            scheduleCache.invalidate();
         }
-        workbook.close();
-        auditoriumRepository.saveAll(auditoriums);
-        System.out.println("Аудиторий загружено: " + auditoriums.size());
+        log.info("Записей в снимке: {}", rows);
+        printLoadStats(session);
+        eventPublisher.publishEvent(new EnrollmentsChangedEvent());
+
         return "All data processed";
     }
 
-    public String loadExamsAndStudents(MultipartFile file) throws IOException {
-        System.out.println("Загрузка данных экзаменов и студентов из: " + file);
-        List<Exam> exams = new ArrayList<>();
-        Map<String, Student> studentMap = new HashMap<>();
-        // Для секций используем Map, чтобы не создавать дубликаты.
-        Map<String, Section> sectionMap = new HashMap<>();
-
-        Workbook workbook = new XSSFWorkbook(file.getInputStream());
-        Sheet sheet = workbook.getSheetAt(0);
-        // Предполагается, что первая строка – заголовки:
-        // Заголовки: Subject, Instructor, Course, EduProgram, YearsOfStudy, fake_name, fake_id, Section
-        for (int i = 1; i <= 500; i++) {
-            Row row = sheet.getRow(i);
-            if (row == null) continue;
-            try {
-                String subject = getCellStringValue(row.getCell(1));
-                String instructor = getCellStringValue(row.getCell(2));
-                String course = getCellStringValue(row.getCell(3));
-                String eduProgram = getCellStringValue(row.getCell(4));
-                String yearsOfStudyStr = getCellStringValue(row.getCell(5));
-                String fakeName = getCellStringValue(row.getCell(7));
-                String fakeIdStr = getCellStringValue(row.getCell(8));
-                String sectionCode = getCellStringValue(row.getCell(9));
-
-                // Значения по умолчанию для экзамена
-                LocalDate examDate = LocalDate.parse("2025-02-24");
-                LocalTime examTime = LocalTime.parse("09:00");
-                int duration = 180;
-
-                // Обработка секции
-                Section section = sectionMap.get(sectionCode);
-                if (section == null) {
-                    Optional<Section> optSection = sectionRepository.findByCode(sectionCode);
-                    if (optSection.isPresent()) {
-                        section = optSection.get();
-                    } else {
-                        section = new Section();
-                        section.setCode(sectionCode);
-                        section = sectionRepository.save(section);
-                    }
-                    sectionMap.put(sectionCode, section);
-                }
+    // Разностная загрузка: файл (xlsx, CSV или снимок - по расширению) описывает полное состояние,
+    // в базе меняется только то, что отличается. Если уже есть расписание, то при repair
+    // оно точечно исправляется: новые экзамены расставляются, конфликтующие переносятся
+    @Transactional(rollbackFor = IOException.class)
+    public String loadExamsAndStudentsDelta(MultipartFile file, boolean repair) throws IOException {
+        log.info("Разностная загрузка экзаменов и студентов из: {}", file.getOriginalFilename());
+
+        String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+        DeltaEnrollmentImport.Target target = deltaEnrollmentImport.target();
+        try (InputStream input = file.getInputStream()) {
+            if (name.endsWith(".exsn")) {
+                int rows = EnrollmentSnapshot.read(input, StreamingSheetReader.DEFAULT_CHUNK_SIZE, target);
+                log.info("Записей в снимке: {}", rows);
+            } else {
+                boolean csv = name.endsWith(".csv") || name.endsWith(".tsv") || name.endsWith(".txt");
+                EnrollmentPipeline.Source source = csv
+                        ? chunks -> CsvSheetReader.read(input, StreamingSheetReader.DEFAULT_CHUNK_SIZE, chunks)
+                        : chunks -> StreamingSheetReader.read(input, StreamingSheetReader.DEFAULT_CHUNK_SIZE, chunks);
+                EnrollmentPipeline.Result result = pipeline().run(source, target);
+                log.info("Строк разобрано: {}, с ошибками: {}", result.rows(), result.failed());
+            }
+        }
+        DeltaEnrollmentImport.Delta delta = deltaEnrollmentImport.apply(target);
+        log.info("{}", delta);
+
+        // Перепланировка сама обновляет личные расписания; без нее их нужно перестроить,
+        // даже если изменились только имена студентов
+        if (delta.affectsSchedule() && repair && examRepository.countByAuditoriumIsNotNull() > 0) {
+            examSchedulerService.repairSchedule(new ScheduleRepairRequest());
+        } else if (!delta.isEmpty()) {
+            if (delta.affectsSchedule()) {
+                scheduleCache.invalidate();
+            }
+            eventPublisher.publishEvent(new EnrollmentsChangedEvent());
+        }
+        return (delta.isEmpty() ? "Изменений нет" : "Изменения применены") + "\n" + delta;
+    }
 
-                // Создаем экзамен и связываем его с секцией
-                Exam exam = new Exam(null, subject, instructor, null, examDate, examTime, duration, null);
-                // Здесь устанавливаем связь экзамена с секцией
-                exam.setSection(section);
-                exams.add(exam);
-
-                // Обработка студента (по fake_id)
-                Student student = studentMap.get(fakeIdStr);
-                if (student == null) {
-                    Student optStudent = studentRepository.findById(fakeIdStr).orElse(null);
-                    if (optStudent==null) {
-                        student = new Student();
-                        student.setId(fakeIdStr);
-                        student.setName(fakeName);
-                        student.setEduProgram(eduProgram);
-                        student.setYearOfStudy(yearsOfStudyStr);
-                        student.setSections(new HashSet<>());
-                    } else {
-                        student = optStudent;
-                    }
-                    studentMap.put(fakeIdStr, student);
+    // Снимок из файла записей в xlsx или CSV (по расширению); база не изменяется
+    public void convertToSnapshot(MultipartFile file, OutputStream out) throws IOException {
+        String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+        boolean csv = name.endsWith(".csv") || name.endsWith(".tsv") || name.endsWith(".txt");
+        try (InputStream input = file.getInputStream();
+             EnrollmentSnapshot.Writer snapshot = EnrollmentSnapshot.writer(out)) {
+            EnrollmentPipeline.Source source = csv
+                    ? chunks -> CsvSheetReader.read(input, StreamingSheetReader.DEFAULT_CHUNK_SIZE, chunks)
+                    : chunks -> StreamingSheetReader.read(input, StreamingSheetReader.DEFAULT_CHUNK_SIZE, chunks);
+            EnrollmentPipeline.Result result = pipeline().run(source, rows -> {
+                try {
+                    snapshot.write(rows);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-                // Добавляем секцию к студенту (many-to-many)
-                student.getSections().add(section);
-            } catch (Exception e) {
-                System.out.println("Ошибка при обработке строки " + i + ": " + e.getMessage());
-            }
+            });
+            log.info("Снимок записей: {} строк, с ошибками: {}", result.rows(), result.failed());
         }
-        workbook.close();
+    }
+
+    // Заголовки: Subject, Instructor, Course, EduProgram, YearsOfStudy, fake_name, fake_id, Section
+    private EnrollmentPipeline pipeline() {
+        return new EnrollmentPipeline(parseThreads, queueCapacity);
+    }
 
-        examRepository.saveAll(exams);
-        studentRepository.saveAll(studentMap.values());
-        System.out.println("Экзаменов загружено: " + exams.size());
-        System.out.println("Студентов загружено: " + studentMap.size());
-        System.out.println("Секций загружено: " + sectionMap.size());
+    private void printLoadStats(BulkEnrollmentWriter.Session session, EnrollmentPipeline.Result result) {
+        log.info("Строк разобрано: {}, с ошибками: {}", result.rows(), result.failed());
+        printLoadStats(session);
+    }
 
-        return "All data processed";
+    private void printLoadStats(BulkEnrollmentWriter.Session session) {
+        log.info("Экзаменов загружено: {}", session.examCount());
+        log.info("Студентов загружено: {}", session.studentCount());
+        log.info("Секций загружено: {}", session.sectionCount());
     }
 
     @Transactional
     public void clearDatabase() {
-        System.out.println("Начинаем очистку базы данных...");
+        log.info("Начинаем очистку базы данных...");
 
         // Удаляем экзамены, так как они зависят от студентов и аудиторий
         examRepository.deleteAll();
-        System.out.println("Удалены все экзамены.");
+        log.info("Удалены все экзамены.");
 
         // Удаляем студентов (если у них есть зависимые сущности, сначала очистить их)
         studentRepository.deleteAll();
-        System.out.println("Удалены все студенты.");
+        log.info("Удалены все студенты.");
 
         // Удаляем аудитории (они не зависят от других таблиц)
         auditoriumRepository.deleteAll();
-        System.out.println("Удалены все аудитории.");
+        log.info("Удалены все аудитории.");
 
         sectionRepository.deleteAll();
-        System.out.println("Удалены все секции.");
-        System.out.println("База данных успешно очищена.");
+        log.info("Удалены все секции.");
+
+        scheduleVersions.clear();
+        scheduleCache.clear();
+        eventPublisher.publishEvent(new EnrollmentsChangedEvent());
+        log.info("База данных успешно очищена.");
 
     }
 }
@@ -0,0 +1,6 @@
+package com.ai.hakaton.services;
+
+// Публикуется при изменении записей студентов без сохранения расписания (загрузка файла записей,
+// разностная загрузка без перепланировки, очистка базы); слушатели получают его после коммита транзакции
+public class EnrollmentsChangedEvent {
+}
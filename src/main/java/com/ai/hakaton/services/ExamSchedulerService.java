@@ -1,23 +1,55 @@
 package com.ai.hakaton.services;
 
-import com.ai.hakaton.models.Auditorium;
+import com.ai.hakaton.dto.ScheduleRepairRequest;
 import com.ai.hakaton.models.Exam;
-import com.ai.hakaton.models.Student;
+import com.ai.hakaton.repositories.AuditoriumCapacity;
+import com.ai.hakaton.repositories.ExamEnrollment;
+import com.ai.hakaton.repositories.ExamExtraAuditorium;
 import com.ai.hakaton.repositories.ExamRepository;
-import com.ai.hakaton.repositories.StudentRepository;
 import com.ai.hakaton.repositories.AuditoriumRepository;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.ai.hakaton.repositories.ExamSlot;
+import com.ai.hakaton.services.export.ScheduleWorkbookWriter;
+import com.ai.hakaton.services.scheduling.BackToBackConstraint;
+import com.ai.hakaton.services.scheduling.CpSatScheduler;
+import com.ai.hakaton.services.scheduling.EnrollmentIndex;
+import com.ai.hakaton.services.scheduling.ExamCalendar;
+import com.ai.hakaton.services.scheduling.ExamOrderings;
+import com.ai.hakaton.services.scheduling.Fingerprint;
+import com.ai.hakaton.services.scheduling.GreedyScheduler;
+import com.ai.hakaton.services.scheduling.InstructorLoadConstraint;
+import com.ai.hakaton.services.scheduling.LocalSearch;
+import com.ai.hakaton.services.scheduling.MultiStartScheduler;
+import com.ai.hakaton.services.scheduling.PartitionedScheduler;
+import com.ai.hakaton.services.scheduling.PreferredDaysConstraint;
+import com.ai.hakaton.services.scheduling.RoomWasteConstraint;
+import com.ai.hakaton.services.scheduling.Schedule;
+import com.ai.hakaton.services.scheduling.ScheduleObjective;
+import com.ai.hakaton.services.scheduling.ScheduleProblem;
+import com.ai.hakaton.services.scheduling.ScheduleProgress;
+import com.ai.hakaton.services.scheduling.ScheduleRepair;
+import com.ai.hakaton.services.scheduling.ScheduleScore;
+import com.ai.hakaton.services.scheduling.ScheduleSolver;
+import com.ai.hakaton.services.scheduling.SchedulingModel;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 @Service
 public class ExamSchedulerService {
@@ -25,231 +57,672 @@ public class ExamSchedulerService {
     private ExamRepository examRepository;
 
     @Autowired
-    private StudentRepository studentRepository;
+    private AuditoriumRepository auditoriumRepository;
 
     @Autowired
-    private AuditoriumRepository auditoriumRepository;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ScheduleCache scheduleCache;
+
+    @Autowired
+    private ScheduleMetrics metrics;
+
+    @Autowired
+    private ScheduleWriter scheduleWriter;
+
+    @Autowired
+    private ScheduleVersionService scheduleVersions;
+
+    private static final Logger log = LoggerFactory.getLogger(ExamSchedulerService.class);
+
+    private static final int MAX_EXAMS_PER_DAY = 20;
+
+    // Записи студентов на экзамены последнего запуска (нужны для экспорта)
+    private volatile EnrollmentIndex enrollments;
+
+    // Параллельный мультистарт жадной расстановки
+    @Value("${scheduler.parallel.enabled:true}")
+    private boolean parallelEnabled;
+
+    @Value("${scheduler.parallel.starts:32}")
+    private int parallelStarts;
+
+    // 0 - общий ForkJoinPool (все ядра)
+    @Value("${scheduler.parallel.threads:0}")
+    private int parallelThreads;
+
+    @Value("${scheduler.parallel.seed:42}")
+    private long parallelSeed;
+
+    // Алгоритм расстановки: greedy (жадный/мультистарт) или cpsat (OR-Tools)
+    @Value("${scheduler.solver:greedy}")
+    private String solverName;
 
-    private static final LocalTime START_TIME = LocalTime.of(9, 0);
-    private static final LocalTime END_TIME = LocalTime.of(19, 30);
-    private static final int EXAM_DURATION_MINUTES = 180; // 3 часа
-    private static final int SCHEDULE_DAYS = 30;
+    @Value("${scheduler.cpsat.time-limit-seconds:60}")
+    private double cpSatTimeLimitSeconds;
 
-    // Кэши для оптимизации доступа к данным
-    private Map<Exam, List<Student>> studentsByExamCache = new HashMap<>();
-    private Map<Exam, Integer> studentCountCache = new HashMap<>();
+    @Value("${scheduler.cpsat.workers:8}")
+    private int cpSatWorkers;
+
+    // Независимые группы экзаменов (без общих студентов, преподавателей и секций) решаются параллельно;
+    // группы меньше min-size объединяются
+    @Value("${scheduler.partition.enabled:true}")
+    private boolean partitionEnabled;
+
+    @Value("${scheduler.partition.min-size:50}")
+    private int partitionMinSize;
+
+    // Бюджет улучшения расписания локальным поиском после расстановки; 0 - выключено
+    @Value("${scheduler.local-search.time-limit-ms:5000}")
+    private long localSearchMillis;
+
+    // Сетка слотов: времена начала экзаменов (HH:mm) и конец учебного дня
+    @Value("${scheduler.grid.slots:09:00,12:30,16:00}")
+    private String[] gridSlots;
+
+    @Value("${scheduler.grid.day-end:19:30}")
+    private String gridDayEnd;
+
+    // Число рабочих дней сессии
+    @Value("${scheduler.grid.days:30}")
+    private int gridDays;
+
+    @Value("${scheduler.grid.weekends:SATURDAY,SUNDAY}")
+    private String[] gridWeekends;
+
+    // Закрытые даты (праздники), yyyy-MM-dd
+    @Value("${scheduler.grid.blackout-dates:}")
+    private String[] gridBlackoutDates;
+
+    // 1 - не больше одного экзамена у студента в день
+    @Value("${scheduler.grid.max-exams-per-student-per-day:2}")
+    private int maxExamsPerStudentPerDay;
+
+    // Для экзаменов без указанной длительности
+    @Value("${scheduler.grid.default-duration-minutes:180}")
+    private int defaultDurationMinutes;
+
+    // Целевая функция локального поиска и перепланировки: веса мягких ограничений, 0 - ограничение выключено.
+    // Ограничения из scheduler.score.hard получают жесткий уровень (вес * ScheduleObjective.HARD_WEIGHT)
+    @Value("${scheduler.score.back-to-back:1}")
+    private long backToBackWeight;
+
+    @Value("${scheduler.score.instructor-load:0}")
+    private long instructorLoadWeight;
+
+    // Сколько экзаменов в день у преподавателя не штрафуется
+    @Value("${scheduler.score.instructor-daily-limit:2}")
+    private int instructorDailyLimit;
+
+    @Value("${scheduler.score.room-waste:0}")
+    private long roomWasteWeight;
+
+    @Value("${scheduler.score.preferred-days:0}")
+    private long preferredDaysWeight;
+
+    // Предпочтительные дни недели программ: Программа:MONDAY|WEDNESDAY, через запятую
+    @Value("${scheduler.score.preferred-days-by-program:}")
+    private String[] preferredDaysByProgram;
+
+    @Value("${scheduler.score.hard:}")
+    private String[] hardConstraints;
 
     @Transactional
     public Map<LocalDate, List<Exam>> scheduleExams() {
-        System.out.println("Начинаем планирование экзаменов...");
+        return scheduleExams(new ScheduleProgress(), false);
+    }
 
-        // Загружаем экзамены и аудитории
-        List<Exam> exams = examRepository.findAllWithStudents();
-        List<Auditorium> auditoriums = auditoriumRepository.findAll();
+    @Transactional
+    public Map<LocalDate, List<Exam>> scheduleExams(ScheduleProgress progress) {
+        return scheduleExams(progress, false);
+    }
 
-        System.out.println("Загружено " + exams.size() + " экзаменов и " + auditoriums.size() + " аудиторий");
+    // refresh - пересчитать, даже если данные не менялись с прошлого расчета
+    @Transactional
+    public Map<LocalDate, List<Exam>> scheduleExams(ScheduleProgress progress, boolean refresh) {
+        log.info("Начинаем планирование экзаменов...");
 
-        // Заполняем кэш студентов для экзаменов
-        for (Exam exam : exams) {
-            List<Student> students = studentRepository.findBySections(exam.getSection());
-            studentsByExamCache.put(exam, students);
-            studentCountCache.put(exam, students.size());
+        if (!refresh && scheduleCache.isValid()) {
+            return cachedSchedule(progress);
+        }
+        progress.phase("загрузка данных");
+        Timer.Sample phase = metrics.start();
+        SchedulingData data = loadSchedulingData();
+        metrics.stop(phase, ScheduleMetrics.LOAD);
+        if (!refresh && scheduleCache.matches(data.fingerprint)) {
+            return cachedSchedule(progress);
         }
+        metrics.computedRun();
+
+        phase = metrics.start();
+        ExamCalendar calendar = calendar(LocalDate.now(), null);
+        ScheduleProblem problem = buildProblem(data.model, calendar.dayCount());
+        metrics.stop(phase, ScheduleMetrics.CONFLICT_GRAPH);
+
+        progress.examsTotal(problem.examCount());
+        progress.phase("расстановка");
+        progress.onFeasibilityChecks(metrics::recordFeasibilityChecks);
+        phase = metrics.start();
+        Schedule result = scheduleSolver(objective(data.model, calendar)).solve(problem, progress);
+        metrics.stop(phase, ScheduleMetrics.PLACEMENT);
+        metrics.recordSchedule(problem, result);
+        progress.phase("сохранение");
+
+        log.info("Планирование завершено. Сохраняем данные...");
+        phase = metrics.start();
+        boolean[] apply = new boolean[problem.examCount()];
+        Arrays.fill(apply, true);
+        int written = applySchedule(data, result, calendar, apply);
+        metrics.stop(phase, ScheduleMetrics.PERSISTENCE);
+        log.info("Изменено назначений: {} из {}", written, problem.examCount());
+        scheduleVersions.record("schedule", data.fingerprint);
+        eventPublisher.publishEvent(new ScheduleCommittedEvent(written));
+        return groupByDate(examRepository.findAllWithSection());
+    }
 
-        // Сортируем экзамены по количеству студентов (сначала большие группы)
-        exams.sort(Comparator.comparingInt(studentCountCache::get).reversed());
+    // Переход к сохраненной версии расписания без пересчета; версия по устаревшим данным отклоняется (409)
+    @Transactional
+    public Map<LocalDate, List<Exam>> activateVersion(long versionId) {
+        scheduleVersions.activate(versionId, loadSchedulingData().fingerprint);
+        return groupByDate(examRepository.findAllWithSection());
+    }
 
-        Map<LocalDate, List<Exam>> schedule = new TreeMap<>();
-        Map<String, LocalDate> lastStudentExamDate = new HashMap<>();
-        Map<String, LocalDate> lastInstructorExamDate = new HashMap<>();
-        Map<LocalDate, Set<String>> scheduledSections = new HashMap<>();
-        LocalDate startDate = LocalDate.now();
+    // Данные не менялись с прошлого расчета - отдаем сохраненное расписание
+    private Map<LocalDate, List<Exam>> cachedSchedule(ScheduleProgress progress) {
+        log.info("Данные не изменились, используем сохраненное расписание");
+        metrics.cachedRun();
+        progress.phase("сохраненное расписание");
+        return groupByDate(examRepository.findAllWithSection());
+    }
 
-        for (Exam exam : exams) {
-            boolean scheduled = false;
+    // Точечная перепланировка: текущее расписание сохраняется, переставляются только
+    // перенесенные и запрошенные экзамены и те, что с ними теперь конфликтуют
+    @Transactional
+    public Map<LocalDate, List<Exam>> repairSchedule(ScheduleRepairRequest request) {
+        log.info("Начинаем точечную перепланировку...");
+
+        Timer.Sample phase = metrics.start();
+        SchedulingData data = loadSchedulingData();
+        metrics.stop(phase, ScheduleMetrics.LOAD);
+        SchedulingModel model = data.model;
+        List<ExamSlot> slots = data.slots;
+
+        // Окно планирования начинается с самой ранней даты текущего расписания или переноса
+        LocalDate startDate = null;
+        LocalDate endDate = null;
+        for (ExamSlot slot : slots) {
+            if (isAssigned(slot)) {
+                startDate = min(startDate, slot.getExamDate());
+                endDate = max(endDate, slot.getExamDate());
+            }
+        }
+        for (ScheduleRepairRequest.Move move : request.getMoves()) {
+            startDate = min(startDate, move.getDate());
+            endDate = max(endDate, move.getDate());
+        }
+        if (startDate == null) {
+            startDate = LocalDate.now();
+            endDate = startDate;
+        }
+        phase = metrics.start();
+        ExamCalendar calendar = calendar(startDate, endDate);
+        ScheduleProblem problem = buildProblem(model, calendar.dayCount());
+        metrics.stop(phase, ScheduleMetrics.CONFLICT_GRAPH);
+
+        // Текущее расписание в индексах; проекции идут в том же порядке, что и экзамены модели.
+        // Экзамены на датах, ставших нерабочими, считаются неназначенными и ставятся заново.
+        Schedule current = new Schedule(model.examCount());
+        for (int e = 0; e < slots.size(); e++) {
+            ExamSlot slot = slots.get(e);
+            int room = isAssigned(slot) ? model.roomIndex(slot.getAuditoriumId()) : -1;
+            int day = isAssigned(slot) ? calendar.dayIndex(slot.getExamDate()) : -1;
+            if (room >= 0 && day >= 0) {
+                current.assign(e, day, slot.getExamTime().toSecondOfDay() / 60,
+                        roomIndexes(model, room, data.extraAuditoriums(slot.getId())));
+            }
+        }
 
-            for (int i = 0; i < SCHEDULE_DAYS && !scheduled; i++) {
-                LocalDate date = startDate.plusDays(i);
+        int[] pinnedDay = new int[model.examCount()];
+        int[] pinnedStart = new int[model.examCount()];
+        Arrays.fill(pinnedDay, -1);
+        Arrays.fill(pinnedStart, -1);
+        boolean[] released = new boolean[model.examCount()];
+        for (ScheduleRepairRequest.Move move : request.getMoves()) {
+            int e = examIndex(model, move.getExamId());
+            pinnedDay[e] = calendar.dayIndex(move.getDate());
+            if (pinnedDay[e] < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Дата не входит в календарь экзаменов: " + move.getDate());
+            }
+            pinnedStart[e] = move.getTime() == null ? -1 : move.getTime().toSecondOfDay() / 60;
+        }
+        for (Long examId : request.getExamIds()) {
+            released[examIndex(model, examId)] = true;
+        }
 
-                if (canScheduleExam(exam, date, lastStudentExamDate, lastInstructorExamDate, scheduledSections, schedule)) {
-                    System.out.println("Назначаем экзамен " + exam.getSection() + " на " + date);
+        phase = metrics.start();
+        ScheduleObjective objective = objective(model, calendar);
+        Schedule repaired;
+        try {
+            repaired = ScheduleRepair.repair(problem, current, pinnedDay, pinnedStart, released, objective);
+        } catch (ScheduleRepair.PinConflictException e) {
+            // Перенос не переставляется молча в другое место: отказ с нарушаемым ограничением
+            throw new ResponseStatusException(HttpStatus.CONFLICT, pinConflictMessage(model, e));
+        }
+        metrics.stop(phase, ScheduleMetrics.PLACEMENT);
+        log.info("Целевая функция: {} -> {}", objective.evaluate(problem, current),
+                objective.evaluate(problem, repaired));
+        metrics.recordSchedule(problem, repaired);
+        List<Integer> changed = ScheduleRepair.changed(current, repaired);
+        boolean[] apply = new boolean[model.examCount()];
+        for (int e : changed) {
+            apply[e] = true;
+        }
 
-                    schedule.computeIfAbsent(date, k -> new ArrayList<>()).add(exam);
-                    exam.setExamDate(date);
-                    exam.setExamTime(findAvailableTime(schedule.get(date)));
-                    exam.setAuditorium(findAvailableAuditorium(auditoriums, schedule.get(date), exam));
+        log.info("Перепланировано экзаменов: {} из {}", changed.size(), model.examCount());
+        phase = metrics.start();
+        int written = applySchedule(data, repaired, calendar, apply);
+        metrics.stop(phase, ScheduleMetrics.PERSISTENCE);
+        // Исправленное расписание соответствует текущим данным, полный пересчет не нужен
+        scheduleVersions.record("repair", data.fingerprint);
+        eventPublisher.publishEvent(new ScheduleCommittedEvent(written));
+        return groupByDate(examRepository.findAllWithSection());
+    }
 
-                    updateLastExamDates(exam, lastStudentExamDate, lastInstructorExamDate, scheduledSections, date);
-                    scheduled = true;
+    // Расписание по сохраненным идентификаторам экзаменов (результат фонового задания)
+    @Transactional(readOnly = true)
+    public Map<LocalDate, List<Exam>> loadSchedule(Map<LocalDate, List<Long>> examIdsByDate) {
+        List<Long> ids = new ArrayList<>();
+        examIdsByDate.values().forEach(ids::addAll);
+        Map<Long, Exam> examsById = new HashMap<>();
+        for (Exam exam : examRepository.findAllById(ids)) {
+            examsById.put(exam.getId(), exam);
+        }
+        Map<LocalDate, List<Exam>> schedule = new TreeMap<>();
+        examIdsByDate.forEach((date, dayIds) -> {
+            List<Exam> day = new ArrayList<>(dayIds.size());
+            for (Long id : dayIds) {
+                Exam exam = examsById.get(id);
+                if (exam != null) {
+                    day.add(exam);
                 }
             }
-            if (!scheduled) {
-                System.out.println("Не удалось назначить экзамен " + exam.getSection());
-            }
+            schedule.put(date, day);
+        });
+        return schedule;
+    }
+
+    // Данные одного запуска: модель в индексах, текущие назначения из базы (индекс = позиция в slots),
+    // дополнительные аудитории разделенных экзаменов (id экзамена -> id аудиторий по возрастанию)
+    // и отпечаток входных данных для кэша
+    private static final class SchedulingData {
+        private final SchedulingModel model;
+        private final List<ExamSlot> slots;
+        private final Map<Long, List<Long>> extraAuditoriums;
+        private final String fingerprint;
+
+        private SchedulingData(SchedulingModel model, List<ExamSlot> slots, Map<Long, List<Long>> extraAuditoriums,
+                               String fingerprint) {
+            this.model = model;
+            this.slots = slots;
+            this.extraAuditoriums = extraAuditoriums;
+            this.fingerprint = fingerprint;
         }
 
-        System.out.println("Планирование завершено. Сохраняем данные...");
-        examRepository.saveAll(exams);
-        return schedule;
+        private List<Long> extraAuditoriums(long examId) {
+            return extraAuditoriums.getOrDefault(examId, List.of());
+        }
     }
 
-    private boolean canScheduleExam(Exam exam, LocalDate date,
-                                    Map<String, LocalDate> lastStudentExamDate,
-                                    Map<String, LocalDate> lastInstructorExamDate,
-                                    Map<LocalDate, Set<String>> scheduledSections,
-                                    Map<LocalDate, List<Exam>> schedule) {
-        //Ограничение по количеству экзаменов в день
-        if (schedule.getOrDefault(date, new ArrayList<>()).size() >= 20) {
-            return false;
-        }
-        //Ограничение по пересечению студентов
-        for (Student student : studentsByExamCache.get(exam)) {
-            LocalDate lastExam = lastStudentExamDate.get(student.getName());
-            if (lastExam != null && lastExam.plusDays(1).isAfter(date)) {
-                return false;
+    // Модель строится из проекций, сущности на этом этапе не загружаются
+    private SchedulingData loadSchedulingData() {
+        List<ExamSlot> slots = examRepository.findAllSlots();
+        List<AuditoriumCapacity> auditoriums = auditoriumRepository.findAllCapacities();
+
+        log.info("Загружено {} экзаменов и {} аудиторий", slots.size(), auditoriums.size());
+
+        SchedulingModel.Builder builder = SchedulingModel.builder(slots.size(), auditoriums.size());
+        Fingerprint fingerprint = configFingerprint();
+        for (ExamSlot slot : slots) {
+            int duration = durationOf(slot);
+            builder.exam(slot.getId(), slot.getInstructor(), slot.getSectionId(), duration);
+            fingerprint.add(slot.getId()).add(slot.getInstructor()).add(slot.getSectionId() == null ? -1 : slot.getSectionId());
+            fingerprint.add(duration);
+        }
+        for (AuditoriumCapacity auditorium : auditoriums) {
+            builder.room(auditorium.getId(), auditorium.getCapacity(), auditorium.getType());
+            fingerprint.add(auditorium.getId()).add(auditorium.getCapacity())
+                    .add(auditorium.getType() == null ? "" : auditorium.getType());
+        }
+        // Все записи студентов одним потоковым запросом
+        try (Stream<ExamEnrollment> rows = examRepository.streamEnrollments()) {
+            rows.forEach(row -> {
+                builder.enrollment(row.getExamId(), row.getStudentId(), row.getStudentName(), row.getStudentProgram());
+                fingerprint.addUnordered(row.getExamId(), row.getStudentId() + '/' + row.getStudentProgram());
+            });
+        }
+        SchedulingModel model = builder.build();
+        this.enrollments = model.enrollments();
+        Map<Long, List<Long>> extraAuditoriums = new HashMap<>();
+        for (ExamExtraAuditorium extra : examRepository.findAllExtraAuditoriums()) {
+            extraAuditoriums.computeIfAbsent(extra.getExamId(), k -> new ArrayList<>()).add(extra.getAuditoriumId());
+        }
+        extraAuditoriums.values().forEach(Collections::sort);
+        return new SchedulingData(model, slots, extraAuditoriums, fingerprint.value());
+    }
+
+    // Настройки, влияющие на результат, тоже входят в отпечаток
+    private Fingerprint configFingerprint() {
+        return new Fingerprint()
+                .add(solverName)
+                .add(parallelEnabled ? 1 : 0)
+                .add(parallelStarts)
+                .add(parallelSeed)
+                .add(Double.doubleToLongBits(cpSatTimeLimitSeconds))
+                .add(localSearchMillis)
+                .add(partitionEnabled ? partitionMinSize : 0)
+                .add(gridDays)
+                .add(MAX_EXAMS_PER_DAY)
+                .add(maxExamsPerStudentPerDay)
+                .add(Arrays.toString(slotStarts()))
+                .add(minuteOfDay(gridDayEnd))
+                .add(weekends().toString())
+                .add(blackoutDates().toString())
+                .add(backToBackWeight)
+                .add(instructorLoadWeight)
+                .add(instructorDailyLimit)
+                .add(roomWasteWeight)
+                .add(preferredDaysWeight)
+                .add(String.join(",", preferredDaysByProgram))
+                .add(hardConstraints().toString());
+    }
+
+    private ScheduleObjective objective(SchedulingModel model, ExamCalendar calendar) {
+        Set<String> hard = hardConstraints();
+        return ScheduleObjective.builder()
+                .add(backToBackWeight, hard.contains(BackToBackConstraint.NAME), BackToBackConstraint::new)
+                .add(instructorLoadWeight, hard.contains(InstructorLoadConstraint.NAME),
+                        problem -> new InstructorLoadConstraint(problem, instructorDailyLimit))
+                .add(roomWasteWeight, hard.contains(RoomWasteConstraint.NAME), RoomWasteConstraint::new)
+                .add(preferredDaysWeight, hard.contains(PreferredDaysConstraint.NAME),
+                        problem -> preferredDays(problem, model.enrollments(), calendar))
+                .build();
+    }
+
+    private Set<String> hardConstraints() {
+        Set<String> hard = new TreeSet<>();
+        for (String name : hardConstraints) {
+            if (!name.isBlank()) {
+                hard.add(name.trim());
             }
         }
-//        LocalDate lastInstructorExam = lastInstructorExamDate.get(exam.getInstructor());
-//        if (lastInstructorExam != null && lastInstructorExam.plusDays(1).isAfter(date)) {
-//            return false;
-//        }
-        // Один проктор, одна аудитория
-        LocalDate lastInstructorExam = lastInstructorExamDate.get(exam.getInstructor());
-        if (lastInstructorExam != null && lastInstructorExam.isEqual(date)) {
-            // Проверяем, есть ли уже экзамен с этим преподавателем в это же время
-            List<Exam> examsOnThisDay = schedule.getOrDefault(date, new ArrayList<>());
-            for (Exam e : examsOnThisDay) {
-                if (e.getInstructor().equals(exam.getInstructor())) {
-                    // Проверяем пересечение по времени
-                    LocalTime existingExamEndTime = e.getExamTime().plusMinutes(EXAM_DURATION_MINUTES);
-                    if (exam.getExamTime().isBefore(existingExamEndTime) &&
-                            exam.getExamTime().plusMinutes(EXAM_DURATION_MINUTES).isAfter(e.getExamTime()) ||
-                            exam.getExamTime().equals(existingExamEndTime)) {
-                        return false; // Экзамены пересекаются или стыкуются без перерыва
-                    }
+        return hard;
+    }
+
+    // Группа студента - его программа, если для нее заданы дни; день подходит, если его день недели в списке
+    private PreferredDaysConstraint preferredDays(ScheduleProblem problem, EnrollmentIndex enrollments,
+                                                  ExamCalendar calendar) {
+        Map<String, Integer> groups = new HashMap<>();
+        List<boolean[]> preferred = new ArrayList<>();
+        for (String entry : preferredDaysByProgram) {
+            int separator = entry.lastIndexOf(':');
+            if (separator < 0) {
+                continue;
+            }
+            Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+            for (String day : entry.substring(separator + 1).split("\\|")) {
+                if (!day.isBlank()) {
+                    days.add(DayOfWeek.valueOf(day.trim().toUpperCase()));
                 }
             }
+            boolean[] groupDays = new boolean[calendar.dayCount()];
+            for (int d = 0; d < groupDays.length; d++) {
+                groupDays[d] = days.contains(calendar.date(d).getDayOfWeek());
+            }
+            groups.put(entry.substring(0, separator).trim(), preferred.size());
+            preferred.add(groupDays);
         }
-        //Ограничение на дублирование предметов в один день:
-        Set<String> sectionsOnDate = scheduledSections.getOrDefault(date, new HashSet<>());
-        if (sectionsOnDate.contains(exam.getSection())) {
-            return false;
+        int[] studentGroup = new int[problem.studentCount()];
+        for (int s = 0; s < studentGroup.length; s++) {
+            String program = enrollments.studentProgram(s);
+            studentGroup[s] = program == null ? -1 : groups.getOrDefault(program.trim(), -1);
         }
+        return new PreferredDaysConstraint(problem, studentGroup, preferred.toArray(new boolean[0][]));
+    }
 
-        return true;
+    private int durationOf(ExamSlot slot) {
+        Integer duration = slot.getDuration();
+        return duration == null || duration <= 0 ? defaultDurationMinutes : duration;
     }
 
-    private Auditorium findAvailableAuditorium(List<Auditorium> auditoriums, List<Exam> exams, Exam exam) {
-        int studentCount = studentCountCache.get(exam);
+    // Рабочие дни с first: не меньше gridDays и до last включительно, если last задан
+    private ExamCalendar calendar(LocalDate first, LocalDate last) {
+        return new ExamCalendar(first, gridDays, last, weekends(), blackoutDates());
+    }
+
+    private int[] slotStarts() {
+        return Arrays.stream(gridSlots).map(String::trim).filter(slot -> !slot.isEmpty())
+                .mapToInt(ExamSchedulerService::minuteOfDay).sorted().distinct().toArray();
+    }
 
-        for (Auditorium auditorium : auditoriums) {
-            boolean occupied = exams.stream()
-                    .anyMatch(e -> e.getAuditorium() != null && e.getAuditorium().equals(auditorium));
-            //Ограничение по вместимости аудитории
-            if (!occupied && auditorium.getCapacity() >= studentCount) {
-                System.out.println("Экзамен " + exam.getSection() + " назначен в аудитории " + auditorium.getNumber());
-                return auditorium;
+    private Set<DayOfWeek> weekends() {
+        Set<DayOfWeek> weekends = EnumSet.noneOf(DayOfWeek.class);
+        for (String day : gridWeekends) {
+            if (!day.isBlank()) {
+                weekends.add(DayOfWeek.valueOf(day.trim().toUpperCase()));
             }
         }
+        return weekends;
+    }
 
-        throw new RuntimeException("Нет доступных аудиторий с достаточной вместимостью для экзамена " + exam.getSection());
+    private Set<LocalDate> blackoutDates() {
+        Set<LocalDate> dates = new TreeSet<>();
+        for (String date : gridBlackoutDates) {
+            if (!date.isBlank()) {
+                dates.add(LocalDate.parse(date.trim()));
+            }
+        }
+        return dates;
     }
 
-    private LocalTime findAvailableTime(List<Exam> exams) {
-        LocalTime currentTime = START_TIME;
-        exams.sort(Comparator.comparing(Exam::getExamTime));
+    private static int minuteOfDay(String time) {
+        return LocalTime.parse(time.trim()).toSecondOfDay() / 60;
+    }
 
-        for (Exam exam : exams) {
-            if (exam.getExamTime() == null) continue;
-            LocalTime examEndTime = exam.getExamTime().plusMinutes(EXAM_DURATION_MINUTES);
-            //Ограничение по времени работы
-            if (currentTime.plusMinutes(EXAM_DURATION_MINUTES).isBefore(exam.getExamTime())) {
-                System.out.println("Назначено время: " + currentTime);
-                return currentTime;
-            }
-            currentTime = examEndTime;
+    private int examIndex(SchedulingModel model, Long examId) {
+        int e = examId == null ? -1 : model.examIndex(examId);
+        if (e < 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Экзамен не найден: " + examId);
         }
+        return e;
+    }
 
-        if (currentTime.plusMinutes(EXAM_DURATION_MINUTES).isAfter(END_TIME)) {
-            System.out.println("Превышено время работы, перенос на утро.");
-            return START_TIME;
+    private String pinConflictMessage(SchedulingModel model, ScheduleRepair.PinConflictException e) {
+        StringJoiner message = new StringJoiner("; ", "Переносы нельзя выполнить: ", "");
+        for (ScheduleRepair.PinConflict conflict : e.conflicts()) {
+            message.add("экзамен " + model.examId(conflict.exam()) + " - " + conflict.constraint());
         }
-        System.out.println("Назначено время: " + currentTime);
-        return currentTime;
+        return message.toString();
     }
 
-    private void updateLastExamDates(Exam exam, Map<String, LocalDate> lastStudentExamDate,
-                                     Map<String, LocalDate> lastInstructorExamDate,
-                                     Map<LocalDate, Set<String>> scheduledSections,
-                                     LocalDate date) {
-        for (Student student : studentsByExamCache.get(exam)) {
-            lastStudentExamDate.put(student.getName(), date);
+    private ScheduleSolver scheduleSolver(ScheduleObjective objective) {
+        ScheduleSolver solver = partitionEnabled
+                ? new PartitionedScheduler(parts -> partSolver(parts, objective), partitionMinSize,
+                        ForkJoinPool.commonPool())
+                : initialSolver(objective);
+        if (localSearchMillis <= 0) {
+            return solver;
         }
-        lastInstructorExamDate.put(exam.getInstructor(), date);
-        scheduledSections.computeIfAbsent(date, k -> new HashSet<>()).add(exam.getSection().getCode());
+        return (problem, progress) -> {
+            Schedule initial = solver.solve(problem, progress);
+            Schedule improved = LocalSearch.improve(problem, initial, localSearchMillis, parallelSeed, objective,
+                    progress);
+            log.info("Локальный поиск: {} -> {}", ScheduleScore.evaluate(problem, initial),
+                    ScheduleScore.evaluate(problem, improved));
+            log.info("Целевая функция: {} -> {}", objective.evaluate(problem, initial),
+                    objective.evaluate(problem, improved));
+            return improved;
+        };
     }
 
-    public void exportScheduleToExcel(Map<LocalDate, List<Exam>> schedule) {
-        System.out.println("Создание Excel-файла с расписанием экзаменов...");
-
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Расписание экзаменов");
-
-        // Форматирование заголовков
-        Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        CellStyle headerStyle = workbook.createCellStyle();
-        headerStyle.setFont(headerFont);
-
-        // Создание заголовка
-        Row headerRow = sheet.createRow(0);
-        String[] columns = {"Дата", "Время", "Аудитория", "Экзамен", "Инструктор", "Студенты"};
-        for (int i = 0; i < columns.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(columns[i]);
-            cell.setCellStyle(headerStyle);
-        }
-
-        // Форматтер для дат и времени
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-
-        int rowNum = 1;
-        for (Map.Entry<LocalDate, List<Exam>> entry : schedule.entrySet()) {
-            LocalDate date = entry.getKey();
-            for (Exam exam : entry.getValue()) {
-                Row row = sheet.createRow(rowNum++);
-
-                row.createCell(0).setCellValue(date.format(dateFormatter)); // Дата
-                row.createCell(1).setCellValue(exam.getExamTime().format(timeFormatter)); // Время
-                row.createCell(2).setCellValue(exam.getAuditorium().getNumber()); // Аудитория
-                row.createCell(3).setCellValue(exam.getSection().getCode()); // Название экзамена
-                row.createCell(4).setCellValue(exam.getInstructor()); // Инструктор
-
-                // Студенты через запятую
-                List<Student> students = studentsByExamCache.get(exam);
-                String studentNames = students.stream().map(Student::getName).reduce((a, b) -> a + ", " + b).orElse("");
-                row.createCell(5).setCellValue(studentNames);
-            }
+    private ScheduleSolver initialSolver(ScheduleObjective objective) {
+        if ("cpsat".equalsIgnoreCase(solverName)) {
+            return new CpSatScheduler(cpSatTimeLimitSeconds, cpSatWorkers);
+        }
+        if (parallelEnabled) {
+            return (problem, progress) -> {
+                MultiStartScheduler.Result best = solveParallel(problem, progress, objective);
+                log.info("Лучший порядок: {} ({}, штраф {})", best.strategy(), best.score(), best.penalty());
+                return best.schedule();
+            };
         }
+        // Сортируем экзамены по количеству студентов (сначала большие группы)
+        return (problem, progress) -> GreedyScheduler.run(problem, ExamOrderings.byStudentCount(problem), progress);
+    }
 
-        // Авторазмер колонок
-        for (int i = 0; i < columns.length; i++) {
-            sheet.autoSizeColumn(i);
+    // Решатель одной части при разбиении. Части уже идут параллельно на общем пуле, поэтому
+    // CP-SAT каждой части получает один поток, а лимит времени делится на число волн частей
+    // (одновременно решается не больше частей, чем потоков в пуле), чтобы уложиться в исходный
+    // лимит. Мультистарт части идет на том же общем пуле, а не создает свой. Студенты подзадачи
+    // перенумерованы, поэтому старты частей сравниваются по парам в соседние дни, а вся целевая
+    // функция учитывается локальным поиском после сведения (при одной части - сразу)
+    private ScheduleSolver partSolver(int parts, ScheduleObjective objective) {
+        if (parts < 2) {
+            return initialSolver(objective);
+        }
+        if ("cpsat".equalsIgnoreCase(solverName)) {
+            int parallelism = ForkJoinPool.commonPool().getParallelism();
+            int waves = (parts + parallelism - 1) / parallelism;
+            return new CpSatScheduler(cpSatTimeLimitSeconds / waves, 1);
         }
+        if (parallelEnabled) {
+            return (problem, progress) -> MultiStartScheduler.solve(problem, parallelStarts, parallelSeed,
+                    ForkJoinPool.commonPool(), progress).schedule();
+        }
+        return initialSolver(ScheduleObjective.backToBack());
+    }
 
-        // Сохранение файла
-        try (FileOutputStream fileOut = new FileOutputStream("exam_schedule.xlsx")) {
-            workbook.write(fileOut);
-            System.out.println("Файл exam_schedule.xlsx успешно создан!");
-        } catch (IOException e) {
-            System.out.println("Ошибка при сохранении файла: " + e.getMessage());
+    private MultiStartScheduler.Result solveParallel(ScheduleProblem problem, ScheduleProgress progress,
+                                                     ScheduleObjective objective) {
+        if (parallelThreads <= 0) {
+            return MultiStartScheduler.solve(problem, parallelStarts, parallelSeed, ForkJoinPool.commonPool(), progress,
+                    objective);
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelThreads);
+        try {
+            return MultiStartScheduler.solve(problem, parallelStarts, parallelSeed, pool, progress, objective);
         } finally {
-            try {
-                workbook.close();
-            } catch (IOException e) {
-                System.out.println("Ошибка при закрытии файла: " + e.getMessage());
+            pool.shutdown();
+        }
+    }
+
+    private ScheduleProblem buildProblem(SchedulingModel model, int dayCount) {
+        return model.problem(dayCount, MAX_EXAMS_PER_DAY, maxExamsPerStudentPerDay,
+                slotStarts(), minuteOfDay(gridDayEnd));
+    }
+
+    // Перенос решения в базу: назначения сравниваются с проекциями, прочитанными для планирования
+    // (они идут в том же порядке, что и экзамены модели), и пишутся пакетно только изменившиеся.
+    // Сущности не загружаются и не сливаются. Неназначенный экзамен остается без аудитории.
+    private int applySchedule(SchedulingData data, Schedule result, ExamCalendar calendar, boolean[] apply) {
+        SchedulingModel model = data.model;
+        ScheduleWriter.Session session = scheduleWriter.session();
+        for (int e = 0; e < model.examCount(); e++) {
+            if (!apply[e]) {
+                continue;
             }
+            ExamSlot slot = data.slots.get(e);
+            ScheduleWriter.Assignment current = new ScheduleWriter.Assignment(slot.getId(), slot.getExamDate(),
+                    slot.getExamTime(), slot.getAuditoriumId(), data.extraAuditoriums(slot.getId()));
+            if (!result.isScheduled(e)) {
+                log.debug("Не удалось назначить экзамен {}", slot.getId());
+                session.assign(current, new ScheduleWriter.Assignment(slot.getId(), slot.getExamDate(),
+                        slot.getExamTime(), null));
+                continue;
+            }
+            session.assign(current, new ScheduleWriter.Assignment(slot.getId(), calendar.date(result.day(e)),
+                    LocalTime.ofSecondOfDay(result.startMinute(e) * 60L), model.roomId(result.room(e)),
+                    extraAuditoriumIds(model, result.extraRooms(e))));
+        }
+        session.write();
+        return session.changedCount();
+    }
+
+    // Основная аудитория и дополнительные, еще существующие в модели
+    private static int[] roomIndexes(SchedulingModel model, int room, List<Long> extraAuditoriumIds) {
+        int[] rooms = new int[extraAuditoriumIds.size() + 1];
+        int count = 0;
+        rooms[count++] = room;
+        for (Long auditoriumId : extraAuditoriumIds) {
+            int extra = model.roomIndex(auditoriumId);
+            if (extra >= 0) {
+                rooms[count++] = extra;
+            }
+        }
+        return Arrays.copyOf(rooms, count);
+    }
+
+    private static List<Long> extraAuditoriumIds(SchedulingModel model, int[] extraRooms) {
+        if (extraRooms == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(extraRooms.length);
+        for (int room : extraRooms) {
+            ids.add(model.roomId(room));
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static boolean isAssigned(ExamSlot slot) {
+        return slot.getAuditoriumId() != null && slot.getExamDate() != null && slot.getExamTime() != null;
+    }
+
+    private static boolean isAssigned(Exam exam) {
+        return exam.getAuditorium() != null && exam.getExamDate() != null && exam.getExamTime() != null;
+    }
+
+    // Назначенные экзамены, сгруппированные по датам и отсортированные по времени
+    private Map<LocalDate, List<Exam>> groupByDate(List<Exam> exams) {
+        Map<LocalDate, List<Exam>> schedule = new TreeMap<>();
+        for (Exam exam : exams) {
+            if (isAssigned(exam)) {
+                schedule.computeIfAbsent(exam.getExamDate(), k -> new ArrayList<>()).add(exam);
+            }
+        }
+        schedule.values().forEach(day -> day.sort(Comparator.comparing(Exam::getExamTime)));
+        return schedule;
+    }
+
+    private static LocalDate min(LocalDate current, LocalDate candidate) {
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+
+    private static LocalDate max(LocalDate current, LocalDate candidate) {
+        return current == null || candidate.isAfter(current) ? candidate : current;
+    }
+
+    // Текущее расписание из базы в xlsx, сразу в выходной поток (без файла на диске)
+    @Transactional(readOnly = true)
+    public void exportSchedule(boolean perDay, boolean perStudent, OutputStream out) throws IOException {
+        Timer.Sample phase = metrics.start();
+        SchedulingModel model = loadSchedulingData().model;
+        Map<LocalDate, List<Exam>> schedule = groupByDate(examRepository.findAllWithSection());
+        ScheduleWorkbookWriter.write(schedule, model.enrollments(), perDay, perStudent, out);
+        metrics.stop(phase, ScheduleMetrics.EXPORT);
+    }
+
+    public void exportScheduleToExcel(Map<LocalDate, List<Exam>> schedule) {
+        log.info("Создание Excel-файла с расписанием экзаменов...");
+
+        Timer.Sample phase = metrics.start();
+        try (OutputStream fileOut = new FileOutputStream("exam_schedule.xlsx")) {
+            ScheduleWorkbookWriter.write(schedule, enrollments, false, false, fileOut);
+            log.info("Файл exam_schedule.xlsx успешно создан!");
+        } catch (IOException e) {
+            log.error("Ошибка при сохранении файла: {}", e.getMessage());
         }
+        metrics.stop(phase, ScheduleMetrics.EXPORT);
     }
 }
@@ -0,0 +1,63 @@
+package com.ai.hakaton.services;
+
+import com.ai.hakaton.models.ScheduleCacheEntry;
+import com.ai.hakaton.repositories.ScheduleCacheRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+// Кэш результата планирования. Само расписание уже лежит в таблице экзаменов, поэтому
+// хранится только отпечаток данных, по которым оно построено (в памяти и в schedule_cache).
+// Пока загрузки данных не было, расписание отдается без пересчета и даже без чтения данных;
+// после загрузки отпечаток сравнивается заново, так что повторная загрузка тех же файлов
+// и перезапуск приложения тоже не требуют пересчета.
+@Service
+public class ScheduleCache {
+    @Autowired
+    private ScheduleCacheRepository scheduleCacheRepository;
+
+    // Отпечаток, подтвержденный с последней загрузки данных; null - нужно сравнить заново
+    private volatile String validFingerprint;
+
+    public boolean isValid() {
+        return validFingerprint != null;
+    }
+
+    public boolean matches(String fingerprint) {
+        if (fingerprint.equals(validFingerprint)) {
+            return true;
+        }
+        boolean stored = scheduleCacheRepository.findById(ScheduleCacheEntry.SINGLETON_ID)
+                .map(entry -> fingerprint.equals(entry.getFingerprint()))
+                .orElse(false);
+        if (stored) {
+            validFingerprint = fingerprint;
+        }
+        return stored;
+    }
+
+    // versionId - версия, назначения которой сейчас лежат в таблице экзаменов
+    public void store(String fingerprint, Long versionId) {
+        scheduleCacheRepository.save(new ScheduleCacheEntry(ScheduleCacheEntry.SINGLETON_ID, fingerprint, versionId,
+                Instant.now()));
+        validFingerprint = fingerprint;
+    }
+
+    public Long activeVersionId() {
+        return scheduleCacheRepository.findById(ScheduleCacheEntry.SINGLETON_ID)
+                .map(ScheduleCacheEntry::getActiveVersionId)
+                .orElse(null);
+    }
+
+    // Данные изменились: следующий запрос сравнит отпечаток заново
+    public void invalidate() {
+        validFingerprint = null;
+    }
+
+    // База очищена: сохраненное расписание больше не существует
+    public void clear() {
+        validFingerprint = null;
+        scheduleCacheRepository.deleteAll();
+    }
+}
@@ -0,0 +1,14 @@
+package com.ai.hakaton.services;
+
+// Публикуется при сохранении расписания; слушатели получают его после коммита транзакции
+public class ScheduleCommittedEvent {
+    private final int examCount;
+
+    public ScheduleCommittedEvent(int examCount) {
+        this.examCount = examCount;
+    }
+
+    public int getExamCount() {
+        return examCount;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ai.hakaton.services;
+
+import com.ai.hakaton.services.scheduling.ScheduleProgress;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Фоновое задание планирования
+public class ScheduleJob {
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private final String id;
+    private final Instant createdAt = Instant.now();
+    private final ScheduleProgress progress = new ScheduleProgress();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    // Результат храним идентификаторами, сущности перечитываются при выдаче
+    private volatile Map<LocalDate, List<Long>> examIdsByDate;
+
+    public ScheduleJob(String id) {
+        this.id = id;
+    }
+
+    public boolean isActive() {
+        return status == Status.QUEUED || status == Status.RUNNING;
+    }
+
+    void running() {
+        status = Status.RUNNING;
+    }
+
+    void done(Map<LocalDate, List<Long>> examIdsByDate) {
+        this.examIdsByDate = examIdsByDate;
+        this.finishedAt = Instant.now();
+        this.status = Status.DONE;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public ScheduleProgress getProgress() {
+        return progress;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Map<LocalDate, List<Long>> getExamIdsByDate() {
+        return examIdsByDate;
+    }
+}
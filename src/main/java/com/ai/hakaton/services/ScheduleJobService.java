@@ -0,0 +1,103 @@
+package com.ai.hakaton.services;
+
+import com.ai.hakaton.models.Exam;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Фоновые задания планирования на ограниченном пуле потоков.
+// Все задания планируют один и тот же набор данных из БД, поэтому повторный запрос,
+// пока задание выполняется, возвращает уже запущенное задание.
+@Service
+public class ScheduleJobService {
+    private static final Logger log = LoggerFactory.getLogger(ScheduleJobService.class);
+
+    private static final int MAX_STORED_JOBS = 50;
+
+    private final ExamSchedulerService examSchedulerService;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ScheduleJob> jobs = new ConcurrentHashMap<>();
+    private ScheduleJob activeJob;
+
+    public ScheduleJobService(ExamSchedulerService examSchedulerService,
+                              @Value("${scheduler.jobs.threads:1}") int threads,
+                              @Value("${scheduler.jobs.queue-capacity:4}") int queueCapacity) {
+        this.examSchedulerService = examSchedulerService;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "schedule-job-" + threadNumber.incrementAndGet()));
+    }
+
+    public synchronized ScheduleJob submit() {
+        if (activeJob != null && activeJob.isActive()) {
+            return activeJob;
+        }
+        ScheduleJob job = new ScheduleJob(UUID.randomUUID().toString());
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Очередь заданий планирования заполнена");
+        }
+        jobs.put(job.getId(), job);
+        activeJob = job;
+        evictFinishedJobs();
+        return job;
+    }
+
+    public ScheduleJob getJob(String jobId) {
+        ScheduleJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Задание не найдено: " + jobId);
+        }
+        return job;
+    }
+
+    public Map<LocalDate, List<Exam>> getResult(String jobId) {
+        ScheduleJob job = getJob(jobId);
+        if (job.getStatus() != ScheduleJob.Status.DONE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Задание еще не завершено: " + job.getStatus());
+        }
+        return examSchedulerService.loadSchedule(job.getExamIdsByDate());
+    }
+
+    private void run(ScheduleJob job) {
+        job.running();
+        try {
+            Map<LocalDate, List<Exam>> schedule = examSchedulerService.scheduleExams(job.getProgress());
+            Map<LocalDate, List<Long>> examIdsByDate = new TreeMap<>();
+            schedule.forEach((date, exams) -> examIdsByDate.put(date, exams.stream().map(Exam::getId).toList()));
+            job.done(examIdsByDate);
+        } catch (Exception e) {
+            log.error("Ошибка задания планирования {}", job.getId(), e);
+            job.failed(e.getMessage());
+        }
+    }
+
+    // Храним ограниченное число заданий, сначала удаляются самые старые завершенные
+    private void evictFinishedJobs() {
+        if (jobs.size() <= MAX_STORED_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> !job.isActive())
+                .sorted(Comparator.comparing(ScheduleJob::getCreatedAt))
+                .limit(jobs.size() - MAX_STORED_JOBS)
+                .toList()
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,111 @@
+package com.ai.hakaton.services;
+
+import com.ai.hakaton.services.scheduling.Schedule;
+import com.ai.hakaton.services.scheduling.ScheduleProblem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Метрики планирования (Actuator: /actuator/metrics, /actuator/prometheus):
+// scheduler.phase - время этапов (load, conflict_graph, placement, persistence, export);
+// scheduler.runs - запуски, пересчитанные и взятые из кэша;
+// scheduler.feasibility.checks - гистограмма числа проверок допустимости на экзамен;
+// scheduler.exams.unscheduled и scheduler.rooms.utilisation - по последнему расписанию.
+@Component
+public class ScheduleMetrics {
+    public static final String LOAD = "load";
+    public static final String CONFLICT_GRAPH = "conflict_graph";
+    public static final String PLACEMENT = "placement";
+    public static final String PERSISTENCE = "persistence";
+    public static final String EXPORT = "export";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> phaseTimers = new ConcurrentHashMap<>();
+    private final Counter computedRuns;
+    private final Counter cachedRuns;
+    private final DistributionSummary feasibilityChecks;
+    private volatile int unscheduled;
+    private volatile double timeUtilisation;
+    private volatile double seatUtilisation;
+
+    public ScheduleMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.computedRuns = Counter.builder("scheduler.runs")
+                .description("Запуски планирования")
+                .tag("result", "computed")
+                .register(registry);
+        this.cachedRuns = Counter.builder("scheduler.runs")
+                .description("Запуски планирования")
+                .tag("result", "cached")
+                .register(registry);
+        this.feasibilityChecks = DistributionSummary.builder("scheduler.feasibility.checks")
+                .description("Проверки (день, время) до постановки экзамена")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("scheduler.exams.unscheduled", this, metrics -> metrics.unscheduled)
+                .description("Экзамены без назначения в последнем расписании")
+                .register(registry);
+        Gauge.builder("scheduler.rooms.utilisation", this, metrics -> metrics.timeUtilisation)
+                .description("Доля занятого времени аудиторий в периоде планирования")
+                .tag("kind", "time")
+                .register(registry);
+        Gauge.builder("scheduler.rooms.utilisation", this, metrics -> metrics.seatUtilisation)
+                .description("Доля занятых мест в назначенных аудиториях")
+                .tag("kind", "seats")
+                .register(registry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, String phase) {
+        sample.stop(phaseTimers.computeIfAbsent(phase, name -> Timer.builder("scheduler.phase")
+                .description("Время этапа планирования")
+                .tag("phase", name)
+                .register(registry)));
+    }
+
+    public void recordFeasibilityChecks(int checks) {
+        feasibilityChecks.record(checks);
+    }
+
+    public void computedRun() {
+        computedRuns.increment();
+    }
+
+    public void cachedRun() {
+        cachedRuns.increment();
+    }
+
+    // Показатели нового расписания
+    public void recordSchedule(ScheduleProblem problem, Schedule schedule) {
+        int unassigned = 0;
+        long seats = 0;
+        long capacity = 0;
+        long busyMinutes = 0;
+        for (int e = 0; e < problem.examCount(); e++) {
+            if (!schedule.isScheduled(e)) {
+                unassigned++;
+                continue;
+            }
+            seats += problem.studentCount(e);
+            int[] rooms = schedule.rooms(e);
+            for (int room : rooms) {
+                capacity += problem.roomCapacity(room);
+            }
+            busyMinutes += (long) problem.duration(e) * rooms.length;
+        }
+        long roomMinutes = (long) problem.roomCount() * problem.dayCount()
+                * (problem.dayEndMinute() - problem.dayStartMinute());
+        unscheduled = unassigned;
+        timeUtilisation = roomMinutes == 0 ? 0 : (double) busyMinutes / roomMinutes;
+        seatUtilisation = capacity == 0 ? 0 : (double) seats / capacity;
+    }
+}
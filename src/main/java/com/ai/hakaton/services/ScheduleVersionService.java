@@ -0,0 +1,205 @@
+package com.ai.hakaton.services;
+
+import com.ai.hakaton.dto.ScheduleVersionChange;
+import com.ai.hakaton.dto.ScheduleVersionInfo;
+import com.ai.hakaton.models.ScheduleVersion;
+import com.ai.hakaton.repositories.ScheduleVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Версии расписания. Каждый сохраненный расчет или перепланировка записывается неизменяемым
+// снимком назначений (version_id, exam_id, дата, начало, аудитории) одним INSERT ... SELECT
+// из таблицы экзаменов. Активная версия - указатель в schedule_cache. Активация - не только
+// переключение указателя: все чтения расписания идут из таблицы экзаменов, поэтому она приводится
+// к версии одним UPDATE ... FROM по отличающимся строкам. Стоимость активации растет с числом
+// экзаменов, назначение которых в версиях различается.
+// Дополнительные аудитории разделенных экзаменов приводятся к версии так же: удаляются и добавляются
+// только несовпадающие пары.
+@Service
+public class ScheduleVersionService {
+    private static final Logger log = LoggerFactory.getLogger(ScheduleVersionService.class);
+
+    private static final String INSERT_SNAPSHOT =
+            "INSERT INTO schedule_assignments " +
+            "(version_id, exam_id, exam_date, start_minute, auditorium_id, extra_auditoriums) " +
+            "SELECT ?, id, exam_date, EXTRACT(HOUR FROM exam_time) * 60 + EXTRACT(MINUTE FROM exam_time), " +
+            "auditorium_id, (SELECT string_agg(x.auditorium_id::text, ',' ORDER BY x.auditorium_id) " +
+            "FROM exam_extra_auditoriums x WHERE x.exam_id = exams.id) FROM exams " +
+            "WHERE auditorium_id IS NOT NULL AND exam_date IS NOT NULL AND exam_time IS NOT NULL";
+    // Аудитории, удаленные после сохранения версии, не восстанавливаются: такие экзамены снимаются
+    private static final String APPLY_ASSIGNED =
+            "UPDATE exams e SET exam_date = a.exam_date, " +
+            "exam_time = make_time(a.start_minute / 60, a.start_minute % 60, 0), auditorium_id = a.auditorium_id " +
+            "FROM schedule_assignments a JOIN auditoriums r ON r.id = a.auditorium_id " +
+            "WHERE a.version_id = ? AND a.exam_id = e.id " +
+            "AND (e.exam_date, e.exam_time, e.auditorium_id) IS DISTINCT FROM " +
+            "(a.exam_date, make_time(a.start_minute / 60, a.start_minute % 60, 0), a.auditorium_id)";
+    private static final String APPLY_UNASSIGNED =
+            "UPDATE exams e SET auditorium_id = NULL WHERE e.auditorium_id IS NOT NULL AND NOT EXISTS (" +
+            "SELECT 1 FROM schedule_assignments a JOIN auditoriums r ON r.id = a.auditorium_id " +
+            "WHERE a.version_id = ? AND a.exam_id = e.id)";
+    private static final String APPLY_EXTRA_REMOVED =
+            "DELETE FROM exam_extra_auditoriums x WHERE NOT EXISTS (" +
+            "SELECT 1 FROM schedule_assignments a JOIN auditoriums r ON r.id = a.auditorium_id " +
+            "WHERE a.version_id = ? AND a.exam_id = x.exam_id " +
+            "AND x.auditorium_id = ANY(string_to_array(a.extra_auditoriums, ',')::bigint[]))";
+    private static final String APPLY_EXTRA_ADDED =
+            "INSERT INTO exam_extra_auditoriums (exam_id, auditorium_id) " +
+            "SELECT a.exam_id, x.id FROM schedule_assignments a " +
+            "JOIN exams e ON e.id = a.exam_id JOIN auditoriums r ON r.id = a.auditorium_id " +
+            "CROSS JOIN LATERAL unnest(string_to_array(a.extra_auditoriums, ',')::bigint[]) AS x(id) " +
+            "JOIN auditoriums xr ON xr.id = x.id " +
+            "WHERE a.version_id = ? AND NOT EXISTS (" +
+            "SELECT 1 FROM exam_extra_auditoriums y WHERE y.exam_id = a.exam_id AND y.auditorium_id = x.id)";
+    private static final String DIFF =
+            "SELECT COALESCE(a.exam_id, b.exam_id) AS exam_id, " +
+            "a.exam_date AS from_date, a.start_minute AS from_start, a.auditorium_id AS from_auditorium, " +
+            "a.extra_auditoriums AS from_extra, " +
+            "b.exam_date AS to_date, b.start_minute AS to_start, b.auditorium_id AS to_auditorium, " +
+            "b.extra_auditoriums AS to_extra " +
+            "FROM (SELECT * FROM schedule_assignments WHERE version_id = ?) a " +
+            "FULL JOIN (SELECT * FROM schedule_assignments WHERE version_id = ?) b ON b.exam_id = a.exam_id " +
+            "WHERE (a.exam_date, a.start_minute, a.auditorium_id, a.extra_auditoriums) IS DISTINCT FROM " +
+            "(b.exam_date, b.start_minute, b.auditorium_id, b.extra_auditoriums) " +
+            "ORDER BY 1";
+
+    @Autowired
+    private ScheduleVersionRepository versionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ScheduleCache scheduleCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Сколько последних версий хранить; новая версия сразу становится активной
+    @Value("${scheduler.versions.keep:20}")
+    private int keep;
+
+    // Снимок только что сохраненного расписания; вызывается в транзакции сохранения
+    @Transactional
+    public ScheduleVersion record(String source, String fingerprint) {
+        ScheduleVersion version = versionRepository.save(new ScheduleVersion(source, fingerprint, Instant.now()));
+        version.setAssignedCount(jdbcTemplate.update(INSERT_SNAPSHOT, version.getId()));
+        scheduleCache.store(fingerprint, version.getId());
+        prune();
+        return version;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ScheduleVersionInfo> list() {
+        Long active = scheduleCache.activeVersionId();
+        List<ScheduleVersionInfo> versions = new ArrayList<>();
+        for (ScheduleVersion version : versionRepository.findAllByOrderByIdDesc()) {
+            versions.add(new ScheduleVersionInfo(version.getId(), version.getSource(), version.getAssignedCount(),
+                    version.getCreatedAt(), version.getId().equals(active)));
+        }
+        return versions;
+    }
+
+    // Экзамены, у которых назначение в версии to отличается от версии from; to == null - активная версия
+    @Transactional(readOnly = true)
+    public List<ScheduleVersionChange> diff(long from, Long to) {
+        long target = to != null ? to : requireActive();
+        find(from);
+        find(target);
+        return jdbcTemplate.query(DIFF, (rs, rowNum) -> new ScheduleVersionChange(
+                rs.getLong("exam_id"),
+                rs.getObject("from_date", LocalDate.class),
+                time(rs.getObject("from_start", Integer.class)),
+                rs.getObject("from_auditorium", Long.class),
+                ids(rs.getString("from_extra")),
+                rs.getObject("to_date", LocalDate.class),
+                time(rs.getObject("to_start", Integer.class)),
+                rs.getObject("to_auditorium", Long.class),
+                ids(rs.getString("to_extra"))), from, target);
+    }
+
+    // Делает версию активной; возвращает число экзаменов, назначение которых изменилось.
+    // currentFingerprint - отпечаток текущих данных: версию, построенную по другим данным, активировать
+    // нельзя - следующий запрос пересчитал бы расписание и откат потерялся бы
+    @Transactional
+    public int activate(long versionId, String currentFingerprint) {
+        ScheduleVersion version = find(versionId);
+        if (!Objects.equals(version.getFingerprint(), currentFingerprint)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Версия расписания " + versionId + " построена по другим данным, пересчитайте расписание");
+        }
+        if (Objects.equals(scheduleCache.activeVersionId(), versionId)) {
+            return 0;
+        }
+        int changed = jdbcTemplate.update(APPLY_ASSIGNED, versionId) + jdbcTemplate.update(APPLY_UNASSIGNED, versionId);
+        jdbcTemplate.update(APPLY_EXTRA_REMOVED, versionId);
+        jdbcTemplate.update(APPLY_EXTRA_ADDED, versionId);
+        scheduleCache.store(version.getFingerprint(), versionId);
+        eventPublisher.publishEvent(new ScheduleCommittedEvent(changed));
+        log.info("Активна версия расписания {}, изменено экзаменов: {}", versionId, changed);
+        return changed;
+    }
+
+    // База очищена: версии ссылаются на удаленные экзамены
+    @Transactional
+    public void clear() {
+        jdbcTemplate.update("DELETE FROM schedule_assignments");
+        versionRepository.deleteAllInBatch();
+    }
+
+    private void prune() {
+        List<ScheduleVersion> versions = versionRepository.findAllByOrderByIdDesc();
+        List<Long> stale = new ArrayList<>();
+        for (int i = Math.max(1, keep); i < versions.size(); i++) {
+            stale.add(versions.get(i).getId());
+        }
+        if (stale.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM schedule_assignments WHERE version_id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", stale.toArray())));
+        versionRepository.deleteAllByIdInBatch(stale);
+    }
+
+    private ScheduleVersion find(long versionId) {
+        return versionRepository.findById(versionId).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.NOT_FOUND, "Версия расписания не найдена: " + versionId));
+    }
+
+    private long requireActive() {
+        Long active = scheduleCache.activeVersionId();
+        if (active == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Нет активной версии расписания");
+        }
+        return active;
+    }
+
+    private static LocalTime time(Integer startMinute) {
+        return startMinute == null ? null : LocalTime.ofSecondOfDay(startMinute * 60L);
+    }
+
+    private static List<Long> ids(String commaSeparated) {
+        List<Long> ids = new ArrayList<>();
+        if (commaSeparated != null) {
+            for (String id : commaSeparated.split(",")) {
+                ids.add(Long.parseLong(id));
+            }
+        }
+        return ids;
+    }
+}
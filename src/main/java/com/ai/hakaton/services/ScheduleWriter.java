@@ -0,0 +1,161 @@
+package com.ai.hakaton.services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Сохранение расписания без сущностей: пишутся только изменившиеся назначения экзаменов
+// (дата, время, аудитория) пакетными UPDATE через JDBC; дополнительные аудитории разделенных экзаменов
+// перезаписываются только у тех экзаменов, где они были или появились. Каскады Exam/Section/Student
+// не участвуют, поэтому время записи зависит от числа изменений, а не от размера графа сущностей.
+// Должен вызываться внутри транзакции вызывающего сервиса.
+@Component
+public class ScheduleWriter {
+    private static final int BATCH_SIZE = 1000;
+    private static final String UPDATE_ASSIGNMENT =
+            "UPDATE exams SET exam_date = ?, exam_time = ?, auditorium_id = ? WHERE id = ?";
+    private static final String DELETE_EXTRA_AUDITORIUMS =
+            "DELETE FROM exam_extra_auditoriums WHERE exam_id = ANY(?)";
+    private static final String INSERT_EXTRA_AUDITORIUM =
+            "INSERT INTO exam_extra_auditoriums (exam_id, auditorium_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduleWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Назначение экзамена; auditoriumId == null - экзамен не назначен.
+    // extraAuditoriumIds - дополнительные аудитории по возрастанию id, пустой список - экзамен в одной аудитории
+    public static final class Assignment {
+        private final long examId;
+        private final LocalDate date;
+        private final LocalTime time;
+        private final Long auditoriumId;
+        private final List<Long> extraAuditoriumIds;
+
+        public Assignment(long examId, LocalDate date, LocalTime time, Long auditoriumId) {
+            this(examId, date, time, auditoriumId, List.of());
+        }
+
+        public Assignment(long examId, LocalDate date, LocalTime time, Long auditoriumId,
+                          List<Long> extraAuditoriumIds) {
+            this.examId = examId;
+            this.date = date;
+            this.time = time;
+            this.auditoriumId = auditoriumId;
+            this.extraAuditoriumIds = extraAuditoriumIds;
+        }
+
+        public long getExamId() {
+            return examId;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public LocalTime getTime() {
+            return time;
+        }
+
+        public Long getAuditoriumId() {
+            return auditoriumId;
+        }
+
+        public List<Long> getExtraAuditoriumIds() {
+            return extraAuditoriumIds;
+        }
+    }
+
+    // Одно сохранение: изменения копятся в сеансе и пишутся при write(), совпадающие с базой отбрасываются сразу
+    public Session session() {
+        return new Session();
+    }
+
+    public final class Session {
+        private final List<Assignment> changes = new ArrayList<>();
+        // Изменения, у которых до или после есть дополнительные аудитории
+        private final List<Assignment> extraChanges = new ArrayList<>();
+
+        private Session() {
+        }
+
+        // current - назначение, которое сейчас лежит в базе
+        public void assign(Assignment current, Assignment next) {
+            if (!same(current, next)) {
+                changes.add(next);
+                if (!current.getExtraAuditoriumIds().isEmpty() || !next.getExtraAuditoriumIds().isEmpty()) {
+                    extraChanges.add(next);
+                }
+            }
+        }
+
+        public int changedCount() {
+            return changes.size();
+        }
+
+        public List<Assignment> changes() {
+            return changes;
+        }
+
+        public void write() {
+            if (changes.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(UPDATE_ASSIGNMENT, changes, BATCH_SIZE, (ps, assignment) -> {
+                if (assignment.getDate() == null) {
+                    ps.setNull(1, Types.DATE);
+                } else {
+                    ps.setDate(1, Date.valueOf(assignment.getDate()));
+                }
+                if (assignment.getTime() == null) {
+                    ps.setNull(2, Types.TIME);
+                } else {
+                    ps.setTime(2, Time.valueOf(assignment.getTime()));
+                }
+                if (assignment.getAuditoriumId() == null) {
+                    ps.setNull(3, Types.BIGINT);
+                } else {
+                    ps.setLong(3, assignment.getAuditoriumId());
+                }
+                ps.setLong(4, assignment.getExamId());
+            });
+            writeExtraAuditoriums();
+        }
+
+        private void writeExtraAuditoriums() {
+            if (extraChanges.isEmpty()) {
+                return;
+            }
+            Object[] examIds = extraChanges.stream().map(Assignment::getExamId).toArray();
+            jdbcTemplate.update(DELETE_EXTRA_AUDITORIUMS,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", examIds)));
+            List<long[]> rows = new ArrayList<>();
+            for (Assignment assignment : extraChanges) {
+                for (Long auditoriumId : assignment.getExtraAuditoriumIds()) {
+                    rows.add(new long[]{assignment.getExamId(), auditoriumId});
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_EXTRA_AUDITORIUM, rows, BATCH_SIZE, (ps, row) -> {
+                ps.setLong(1, row[0]);
+                ps.setLong(2, row[1]);
+            });
+        }
+
+        private boolean same(Assignment current, Assignment next) {
+            return Objects.equals(current.getDate(), next.getDate())
+                    && Objects.equals(current.getTime(), next.getTime())
+                    && Objects.equals(current.getAuditoriumId(), next.getAuditoriumId())
+                    && current.getExtraAuditoriumIds().equals(next.getExtraAuditoriumIds());
+        }
+    }
+}
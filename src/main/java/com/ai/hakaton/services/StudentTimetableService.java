@@ -0,0 +1,145 @@
+package com.ai.hakaton.services;
+
+import com.ai.hakaton.dto.StudentExamSlot;
+import com.ai.hakaton.dto.StudentTimetable;
+import com.ai.hakaton.models.Exam;
+import com.ai.hakaton.repositories.ExamEnrollment;
+import com.ai.hakaton.repositories.ExamRepository;
+import com.ai.hakaton.services.scheduling.Fingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+// Личные расписания студентов в памяти: fake_id -> экзамены по дате и времени.
+// Индекс неизменяемый и целиком заменяется после каждого сохранения расписания и каждого
+// изменения записей студентов, поэтому чтение не обращается к базе и не требует блокировок.
+@Service
+public class StudentTimetableService {
+    private static final Logger log = LoggerFactory.getLogger(StudentTimetableService.class);
+
+    private final ExamRepository examRepository;
+    private final TransactionTemplate readTransaction;
+    private volatile Map<String, Entry> timetables = Map.of();
+
+    public StudentTimetableService(ExamRepository examRepository, PlatformTransactionManager transactionManager) {
+        this.examRepository = examRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        // Слушатель вызывается после коммита, когда старая транзакция еще привязана к потоку
+        readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readTransaction.setReadOnly(true);
+    }
+
+    // Готовый ответ и его ETag
+    public static final class Entry {
+        private final StudentTimetable timetable;
+        private final String etag;
+
+        private Entry(StudentTimetable timetable, String etag) {
+            this.timetable = timetable;
+            this.etag = etag;
+        }
+
+        public StudentTimetable getTimetable() {
+            return timetable;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+
+    public Entry getTimetable(String studentId) {
+        Entry entry = timetables.get(studentId);
+        if (entry == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Студент не найден: " + studentId);
+        }
+        return entry;
+    }
+
+    @TransactionalEventListener
+    public void onScheduleCommitted(ScheduleCommittedEvent event) {
+        rebuild();
+    }
+
+    @TransactionalEventListener
+    public void onEnrollmentsChanged(EnrollmentsChangedEvent event) {
+        rebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Не удалось построить личные расписания", e);
+        }
+    }
+
+    public void rebuild() {
+        Map<String, Entry> rebuilt = readTransaction.execute(status -> build());
+        timetables = rebuilt;
+        log.info("Личные расписания обновлены: {} студентов", rebuilt.size());
+    }
+
+    private Map<String, Entry> build() {
+        // Один слот на экзамен, общий для всех его студентов
+        Map<Long, StudentExamSlot> slots = new HashMap<>();
+        for (Exam exam : examRepository.findAllScheduled()) {
+            slots.put(exam.getId(), new StudentExamSlot(exam.getId(), exam.getSubject(), exam.getSection().getCode(),
+                    exam.getInstructor(), exam.getExamDate(), exam.getExamTime(), exam.getDuration(),
+                    exam.auditoriumNumbers()));
+        }
+
+        Map<String, String> names = new HashMap<>();
+        Map<String, List<StudentExamSlot>> byStudent = new HashMap<>();
+        try (Stream<ExamEnrollment> rows = examRepository.streamEnrollments()) {
+            rows.forEach(row -> {
+                names.putIfAbsent(row.getStudentId(), row.getStudentName());
+                List<StudentExamSlot> exams = byStudent.computeIfAbsent(row.getStudentId(), k -> new ArrayList<>());
+                StudentExamSlot slot = slots.get(row.getExamId());
+                if (slot != null) {
+                    exams.add(slot);
+                }
+            });
+        }
+
+        Comparator<StudentExamSlot> byTime = Comparator.comparing(StudentExamSlot::getDate)
+                .thenComparing(StudentExamSlot::getTime)
+                .thenComparing(StudentExamSlot::getExamId);
+        Map<String, Entry> result = new HashMap<>(byStudent.size() * 2);
+        byStudent.forEach((studentId, exams) -> {
+            exams.sort(byTime);
+            StudentTimetable timetable = new StudentTimetable(studentId, names.get(studentId), List.copyOf(exams));
+            result.put(studentId, new Entry(timetable, etag(timetable)));
+        });
+        return Collections.unmodifiableMap(result);
+    }
+
+    // ETag зависит только от содержимого: если расписание студента не изменилось
+    // при перепланировке, клиент продолжает получать 304
+    private static String etag(StudentTimetable timetable) {
+        Fingerprint fingerprint = new Fingerprint().add(timetable.getName());
+        for (StudentExamSlot slot : timetable.getExams()) {
+            fingerprint.add(slot.getExamId())
+                    .add(slot.getSubject())
+                    .add(slot.getSection())
+                    .add(slot.getInstructor())
+                    .add(slot.getDate().toEpochDay())
+                    .add(slot.getTime().toSecondOfDay())
+                    .add(slot.getDuration())
+                    .add(slot.getAuditorium());
+        }
+        return "\"" + fingerprint.value() + "\"";
+    }
+}
@@ -0,0 +1,193 @@
+package com.ai.hakaton.services.export;
+
+import com.ai.hakaton.models.Exam;
+import com.ai.hakaton.services.scheduling.EnrollmentIndex;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.DeferredSXSSFSheet;
+import org.apache.poi.xssf.streaming.DeferredSXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+// Потоковая запись расписания в xlsx. DeferredSXSSFWorkbook (вариант SXSSF) генерирует строки
+// листа прямо во время write(): в памяти только окно строк, временных файлов нет.
+// Основной лист - все экзамены; по желанию - лист на каждый день и лист по студентам.
+public final class ScheduleWorkbookWriter {
+    private static final int ROW_WINDOW = 200;
+    private static final int MAX_CELL_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+    private static final String[] EXAM_COLUMNS = {"Дата", "Время", "Аудитория", "Экзамен", "Инструктор", "Студенты"};
+    private static final int[] EXAM_WIDTHS = {12, 8, 12, 20, 30, 100};
+    private static final String[] STUDENT_COLUMNS = {"Студент", "Дата", "Время", "Аудитория", "Экзамен", "Инструктор"};
+    private static final int[] STUDENT_WIDTHS = {30, 12, 8, 12, 20, 30};
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private ScheduleWorkbookWriter() {
+    }
+
+    // enrollments может быть null - тогда колонка студентов и лист по студентам пустые
+    public static void write(Map<LocalDate, List<Exam>> schedule, EnrollmentIndex enrollments,
+                             boolean perDay, boolean perStudent, OutputStream out) throws IOException {
+        DeferredSXSSFWorkbook workbook = new DeferredSXSSFWorkbook(ROW_WINDOW);
+        try {
+            CellStyle headerStyle = headerStyle(workbook);
+
+            createSheet(workbook, "Расписание экзаменов", EXAM_COLUMNS, EXAM_WIDTHS, headerStyle, sheet -> {
+                int rowNum = 1;
+                for (Map.Entry<LocalDate, List<Exam>> entry : schedule.entrySet()) {
+                    for (Exam exam : entry.getValue()) {
+                        writeExamRow(sheet.createRow(rowNum++), entry.getKey(), exam, enrollments);
+                    }
+                }
+            });
+
+            if (perDay) {
+                for (Map.Entry<LocalDate, List<Exam>> entry : schedule.entrySet()) {
+                    createSheet(workbook, entry.getKey().format(DATE_FORMAT), EXAM_COLUMNS, EXAM_WIDTHS, headerStyle,
+                            sheet -> {
+                                int rowNum = 1;
+                                for (Exam exam : entry.getValue()) {
+                                    writeExamRow(sheet.createRow(rowNum++), entry.getKey(), exam, enrollments);
+                                }
+                            });
+                }
+            }
+
+            if (perStudent && enrollments != null) {
+                createSheet(workbook, "По студентам", STUDENT_COLUMNS, STUDENT_WIDTHS, headerStyle,
+                        sheet -> writeStudentRows(sheet, schedule, enrollments));
+            }
+
+            workbook.write(out);
+        } finally {
+            workbook.close();
+        }
+    }
+
+    private interface RowWriter {
+        void writeRows(SXSSFSheet sheet);
+    }
+
+    private static CellStyle headerStyle(DeferredSXSSFWorkbook workbook) {
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        CellStyle headerStyle = workbook.createCellStyle();
+        headerStyle.setFont(headerFont);
+        return headerStyle;
+    }
+
+    // Строки листа (заголовок и rows) создаются во время записи книги.
+    // autoSizeColumn на потоковом листе требует хранить все строки, поэтому ширины фиксированные.
+    private static void createSheet(DeferredSXSSFWorkbook workbook, String name, String[] columns, int[] widths,
+                                    CellStyle headerStyle, RowWriter rows) {
+        DeferredSXSSFSheet sheet = workbook.createSheet(WorkbookUtil.createSafeSheetName(name));
+        for (int i = 0; i < columns.length; i++) {
+            sheet.setColumnWidth(i, widths[i] * 256);
+        }
+        sheet.setRowGenerator(generated -> {
+            Row headerRow = generated.createRow(0);
+            for (int i = 0; i < columns.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(columns[i]);
+                cell.setCellStyle(headerStyle);
+            }
+            rows.writeRows(generated);
+        });
+    }
+
+    private static void writeExamRow(Row row, LocalDate date, Exam exam, EnrollmentIndex enrollments) {
+        row.createCell(0).setCellValue(date.format(DATE_FORMAT)); // Дата
+        row.createCell(1).setCellValue(exam.getExamTime().format(TIME_FORMAT)); // Время
+        row.createCell(2).setCellValue(exam.auditoriumNumbers()); // Аудитория
+        row.createCell(3).setCellValue(exam.getSection().getCode()); // Название экзамена
+        row.createCell(4).setCellValue(exam.getInstructor()); // Инструктор
+        row.createCell(5).setCellValue(studentNames(exam, enrollments)); // Студенты через запятую
+    }
+
+    // Список через запятую в одном StringBuilder; Excel не принимает ячейки длиннее 32767 символов
+    private static String studentNames(Exam exam, EnrollmentIndex enrollments) {
+        int examIndex = enrollments == null ? -1 : enrollments.indexOf(exam.getId());
+        if (examIndex < 0) {
+            return "";
+        }
+        StringBuilder names = new StringBuilder();
+        for (int student : enrollments.students(examIndex)) {
+            String name = enrollments.studentName(student);
+            if (names.length() > 0) {
+                names.append(", ");
+            }
+            if (names.length() + name.length() > MAX_CELL_LENGTH - 1) {
+                names.setLength(Math.min(names.length(), MAX_CELL_LENGTH - 1));
+                names.append('…');
+                break;
+            }
+            names.append(name);
+        }
+        return names.toString();
+    }
+
+    // Лист по студентам: у каждого студента его экзамены в порядке даты и времени
+    private static void writeStudentRows(SXSSFSheet sheet, Map<LocalDate, List<Exam>> schedule,
+                                         EnrollmentIndex enrollments) {
+        List<Exam> ordered = new ArrayList<>();
+        schedule.values().forEach(ordered::addAll);
+
+        // Обратный индекс студент -> позиции в ordered, собирается подсчетом за два прохода
+        int[] counts = new int[enrollments.studentCount() + 1];
+        int[] examIndexes = new int[ordered.size()];
+        for (int i = 0; i < ordered.size(); i++) {
+            examIndexes[i] = enrollments.indexOf(ordered.get(i).getId());
+            if (examIndexes[i] >= 0) {
+                for (int student : enrollments.students(examIndexes[i])) {
+                    counts[student + 1]++;
+                }
+            }
+        }
+        for (int s = 0; s < enrollments.studentCount(); s++) {
+            counts[s + 1] += counts[s];
+        }
+        int[] positions = new int[counts[enrollments.studentCount()]];
+        int[] cursor = Arrays.copyOf(counts, enrollments.studentCount());
+        for (int i = 0; i < ordered.size(); i++) {
+            if (examIndexes[i] >= 0) {
+                for (int student : enrollments.students(examIndexes[i])) {
+                    positions[cursor[student]++] = i;
+                }
+            }
+        }
+
+        Integer[] students = new Integer[enrollments.studentCount()];
+        for (int s = 0; s < students.length; s++) {
+            students[s] = s;
+        }
+        Arrays.sort(students, Comparator.comparing(enrollments::studentName, Comparator.nullsFirst(String::compareTo)));
+
+        int rowNum = 1;
+        for (int student : students) {
+            for (int p = counts[student]; p < counts[student + 1]; p++) {
+                Exam exam = ordered.get(positions[p]);
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue(enrollments.studentName(student));
+                row.createCell(1).setCellValue(exam.getExamDate().format(DATE_FORMAT));
+                row.createCell(2).setCellValue(exam.getExamTime().format(TIME_FORMAT));
+                row.createCell(3).setCellValue(exam.auditoriumNumbers());
+                row.createCell(4).setCellValue(exam.getSection().getCode());
+                row.createCell(5).setCellValue(exam.getInstructor());
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.ai.hakaton.services.ingest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Пакетная запись записей студентов напрямую через JDBC.
+// Секции и экзамены вставляются одним INSERT ... ON CONFLICT ... RETURNING на порцию,
+// студенты - пакетными INSERT ... ON CONFLICT DO UPDATE (имя, программа, год и курс берутся из файла),
+// связующие таблицы - пакетными INSERT ... ON CONFLICT DO NOTHING.
+// Уникальные ключи секций и экзаменов на старой базе готовит EnrollmentKeyMigration.
+// Должен вызываться внутри транзакции вызывающего сервиса.
+@Component
+public class BulkEnrollmentWriter {
+    // Значения по умолчанию для новых экзаменов; длительность - если в файле она не указана
+    static final LocalDate DEFAULT_EXAM_DATE = LocalDate.parse("2025-02-24");
+    static final LocalTime DEFAULT_EXAM_TIME = LocalTime.parse("09:00");
+    static final int DEFAULT_DURATION = 180;
+
+    private static final String UPSERT_SECTIONS =
+            "INSERT INTO sections (code) SELECT unnest(?::text[]) " +
+            "ON CONFLICT (code) DO UPDATE SET code = EXCLUDED.code " +
+            "RETURNING id, code";
+    private static final String UPSERT_EXAMS =
+            "INSERT INTO exams (section_id, subject, instructor, exam_date, exam_time, duration) " +
+            "SELECT t.section_id, t.subject, t.instructor, ?, ?, COALESCE(NULLIF(t.duration, 0), ?) " +
+            "FROM unnest(?::bigint[], ?::text[], ?::text[], ?::int[]) AS t(section_id, subject, instructor, duration) " +
+            "ON CONFLICT (section_id, subject, instructor) DO UPDATE SET subject = EXCLUDED.subject " +
+            "RETURNING id, section_id, subject, instructor";
+    private static final String INSERT_STUDENT =
+            "INSERT INTO students (id, name, edu_program, year_of_study, course) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, edu_program = EXCLUDED.edu_program, " +
+            "year_of_study = EXCLUDED.year_of_study, course = EXCLUDED.course";
+    private static final String INSERT_STUDENT_SECTION =
+            "INSERT INTO student_section (student_id, section_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_STUDENT_EXAM =
+            "INSERT INTO student_exam (student_id, exam_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BulkEnrollmentWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Одна загрузка файла: кэширует id секций и экзаменов между порциями
+    public Session session() {
+        return new Session();
+    }
+
+    private static String examKey(long sectionId, String subject, String instructor) {
+        return sectionId + "\u0000" + subject + "\u0000" + instructor;
+    }
+
+    public final class Session {
+        private final Map<String, Long> sectionIds = new HashMap<>();
+        private final Map<String, Long> examIds = new HashMap<>();
+        private final Set<String> studentIds = new HashSet<>();
+
+        public void write(List<EnrollmentRow> rows) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            upsertSections(rows);
+            insertStudents(rows);
+            upsertExams(rows);
+
+            Set<List<Object>> studentSections = new LinkedHashSet<>();
+            Set<List<Object>> studentExams = new LinkedHashSet<>();
+            for (EnrollmentRow row : rows) {
+                long sectionId = sectionIds.get(row.getSectionCode());
+                long examId = examIds.get(examKey(sectionId, row.getSubject(), row.getInstructor()));
+                studentSections.add(List.of(row.getStudentId(), sectionId));
+                studentExams.add(List.of(row.getStudentId(), examId));
+            }
+            jdbcTemplate.batchUpdate(INSERT_STUDENT_SECTION, toBatchArgs(studentSections));
+            jdbcTemplate.batchUpdate(INSERT_STUDENT_EXAM, toBatchArgs(studentExams));
+        }
+
+        private void upsertSections(List<EnrollmentRow> rows) {
+            Set<String> codes = new LinkedHashSet<>();
+            for (EnrollmentRow row : rows) {
+                if (!sectionIds.containsKey(row.getSectionCode())) {
+                    codes.add(row.getSectionCode());
+                }
+            }
+            if (codes.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.query(UPSERT_SECTIONS,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", codes.toArray())),
+                    (RowCallbackHandler) rs -> {
+                        sectionIds.put(rs.getString("code"), rs.getLong("id"));
+                    });
+        }
+
+        private void insertStudents(List<EnrollmentRow> rows) {
+            Map<String, Object[]> newStudents = new LinkedHashMap<>();
+            for (EnrollmentRow row : rows) {
+                if (!studentIds.contains(row.getStudentId())) {
+                    newStudents.putIfAbsent(row.getStudentId(), new Object[]{
+                            row.getStudentId(), row.getStudentName(), row.getEduProgram(),
+                            row.getYearOfStudy(), row.getCourse()});
+                }
+            }
+            if (newStudents.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(INSERT_STUDENT, new ArrayList<>(newStudents.values()));
+            studentIds.addAll(newStudents.keySet());
+        }
+
+        private void upsertExams(List<EnrollmentRow> rows) {
+            Map<String, EnrollmentRow> newExams = new LinkedHashMap<>();
+            for (EnrollmentRow row : rows) {
+                long sectionId = sectionIds.get(row.getSectionCode());
+                String key = examKey(sectionId, row.getSubject(), row.getInstructor());
+                if (!examIds.containsKey(key)) {
+                    newExams.putIfAbsent(key, row);
+                }
+            }
+            if (newExams.isEmpty()) {
+                return;
+            }
+            Long[] sections = new Long[newExams.size()];
+            String[] subjects = new String[newExams.size()];
+            String[] instructors = new String[newExams.size()];
+            Integer[] durations = new Integer[newExams.size()];
+            int i = 0;
+            for (EnrollmentRow row : newExams.values()) {
+                sections[i] = sectionIds.get(row.getSectionCode());
+                subjects[i] = row.getSubject();
+                instructors[i] = row.getInstructor();
+                durations[i] = row.getDuration();
+                i++;
+            }
+            jdbcTemplate.query(UPSERT_EXAMS,
+                    ps -> {
+                        ps.setObject(1, DEFAULT_EXAM_DATE);
+                        ps.setObject(2, DEFAULT_EXAM_TIME);
+                        ps.setInt(3, DEFAULT_DURATION);
+                        ps.setArray(4, ps.getConnection().createArrayOf("bigint", sections));
+                        ps.setArray(5, ps.getConnection().createArrayOf("text", subjects));
+                        ps.setArray(6, ps.getConnection().createArrayOf("text", instructors));
+                        ps.setArray(7, ps.getConnection().createArrayOf("integer", durations));
+                    },
+                    (RowCallbackHandler) rs -> {
+                        examIds.put(examKey(rs.getLong("section_id"), rs.getString("subject"),
+                                rs.getString("instructor")), rs.getLong("id"));
+                    });
+        }
+
+        private List<Object[]> toBatchArgs(Set<List<Object>> pairs) {
+            List<Object[]> args = new ArrayList<>(pairs.size());
+            for (List<Object> pair : pairs) {
+                args.add(pair.toArray());
+            }
+            return args;
+        }
+
+        public int examCount() {
+            return examIds.size();
+        }
+
+        public int studentCount() {
+            return studentIds.size();
+        }
+
+        public int sectionCount() {
+            return sectionIds.size();
+        }
+    }
+}
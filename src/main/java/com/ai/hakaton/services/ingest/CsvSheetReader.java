@@ -0,0 +1,229 @@
+package com.ai.hakaton.services.ingest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Чтение CSV (UTF-8, RFC 4180) через отображение файла в память: байты разбираются прямо
+// из MappedByteBuffer, строки создаются только для значений ячеек. Разделитель (',', ';' или
+// табуляция) определяется по строке заголовков. Колонки те же, что в xlsx, строки отдаются
+// порциями SheetRow, как в StreamingSheetReader; первая строка (заголовки) пропускается.
+public final class CsvSheetReader {
+    // Файл отображается окнами; строка, пересекающая границу окна, читается из следующего
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private CsvSheetReader() {
+    }
+
+    // Возвращает количество прочитанных строк данных
+    public static int read(File file, int chunkSize, Consumer<List<SheetRow>> chunkConsumer) throws IOException {
+        return read(file, chunkSize, WINDOW_SIZE, chunkConsumer);
+    }
+
+    // Размер окна задается в тестах, чтобы границы окон попадали внутрь строк небольшого файла
+    static int read(File file, int chunkSize, int windowSize, Consumer<List<SheetRow>> chunkConsumer)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Tokenizer tokenizer = new Tokenizer(channel, chunkSize, windowSize, chunkConsumer);
+            tokenizer.run();
+            return tokenizer.rowCount;
+        }
+    }
+
+    // Загруженный файл сначала копируется во временный: отображать в память можно только файл
+    public static int read(InputStream input, int chunkSize, Consumer<List<SheetRow>> chunkConsumer) throws IOException {
+        Path temp = Files.createTempFile("upload-", ".csv");
+        try {
+            Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+            return read(temp.toFile(), chunkSize, chunkConsumer);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static final class Tokenizer {
+        private final FileChannel channel;
+        private final long size;
+        private final int windowSize;
+        private final int chunkSize;
+        private final Consumer<List<SheetRow>> chunkConsumer;
+        private List<SheetRow> chunk;
+        private String[] cells = new String[16];
+        private int cellCount;
+        // Буфер для значения ячейки; в кавычках "" заменяется на "
+        private byte[] value = new byte[256];
+        private byte delimiter;
+        private int rowNumber;
+        private int rowCount;
+
+        private Tokenizer(FileChannel channel, int chunkSize, int windowSize, Consumer<List<SheetRow>> chunkConsumer)
+                throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.windowSize = windowSize;
+            this.chunkSize = chunkSize;
+            this.chunkConsumer = chunkConsumer;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        private void run() throws IOException {
+            long base = 0;
+            while (base < size) {
+                int length = (int) Math.min(windowSize, size - base);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, base, length);
+                boolean last = base + length == size;
+                int position = 0;
+                if (base == 0) {
+                    position = skipBom(window);
+                    delimiter = detectDelimiter(window, position);
+                }
+                while (position < length) {
+                    int next = parseRow(window, position, length, last);
+                    if (next < 0) {
+                        break;
+                    }
+                    position = next;
+                }
+                if (position == 0 && !last) {
+                    throw new IOException("Строка " + rowNumber + " длиннее " + windowSize + " байт");
+                }
+                base += position;
+            }
+            flush();
+        }
+
+        // Разбирает строку с позиции start; возвращает начало следующей строки
+        // или -1, если строка не закончилась в этом окне и нужно следующее
+        private int parseRow(MappedByteBuffer buffer, int start, int limit, boolean last) {
+            cellCount = 0;
+            int position = start;
+            while (true) {
+                int length = 0;
+                if (position < limit && buffer.get(position) == '"') {
+                    position++;
+                    while (true) {
+                        if (position >= limit) {
+                            return last ? endRow(limit, length) : -1;
+                        }
+                        byte b = buffer.get(position++);
+                        if (b == '"') {
+                            if (position < limit && buffer.get(position) == '"') {
+                                position++;
+                            } else {
+                                break;
+                            }
+                        }
+                        length = append(length, b);
+                    }
+                }
+                while (position < limit) {
+                    byte b = buffer.get(position);
+                    if (b == delimiter || b == '\n' || b == '\r') {
+                        break;
+                    }
+                    length = append(length, b);
+                    position++;
+                }
+                if (position >= limit && !last) {
+                    return -1;
+                }
+                addCell(length);
+                if (position >= limit) {
+                    return endRow(limit, -1);
+                }
+                byte b = buffer.get(position++);
+                if (b == delimiter) {
+                    continue;
+                }
+                if (b == '\r' && position < limit && buffer.get(position) == '\n') {
+                    position++;
+                } else if (b == '\r' && position >= limit && !last) {
+                    return -1;
+                }
+                return endRow(position, -1);
+            }
+        }
+
+        // pendingLength >= 0 - незакрытая кавычка в конце файла, значение берется как есть
+        private int endRow(int next, int pendingLength) {
+            if (pendingLength >= 0) {
+                addCell(pendingLength);
+            }
+            int number = rowNumber++;
+            boolean empty = cellCount == 1 && cells[0].isEmpty();
+            if (number > 0 && !empty) {
+                chunk.add(new SheetRow(number, Arrays.copyOf(cells, cellCount)));
+                rowCount++;
+                if (chunk.size() >= chunkSize) {
+                    flush();
+                }
+            }
+            return next;
+        }
+
+        private int append(int length, byte b) {
+            if (length == value.length) {
+                value = Arrays.copyOf(value, length * 2);
+            }
+            value[length] = b;
+            return length + 1;
+        }
+
+        private void addCell(int length) {
+            if (cellCount == cells.length) {
+                cells = Arrays.copyOf(cells, cells.length * 2);
+            }
+            cells[cellCount++] = new String(value, 0, length, StandardCharsets.UTF_8).trim();
+        }
+
+        private void flush() {
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+
+        private static int skipBom(MappedByteBuffer buffer) {
+            if (buffer.limit() >= 3 && (buffer.get(0) & 0xFF) == 0xEF
+                    && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF) {
+                return 3;
+            }
+            return 0;
+        }
+
+        // Самый частый из ',', ';' и табуляции в строке заголовков (Excel в русской локали пишет ';')
+        private static byte detectDelimiter(MappedByteBuffer buffer, int start) {
+            int commas = 0;
+            int semicolons = 0;
+            int tabs = 0;
+            for (int i = start; i < buffer.limit(); i++) {
+                byte b = buffer.get(i);
+                if (b == '\n' || b == '\r') {
+                    break;
+                }
+                if (b == ',') {
+                    commas++;
+                } else if (b == ';') {
+                    semicolons++;
+                } else if (b == '\t') {
+                    tabs++;
+                }
+            }
+            if (semicolons > commas && semicolons >= tabs) {
+                return ';';
+            }
+            return tabs > commas ? (byte) '\t' : (byte) ',';
+        }
+    }
+}
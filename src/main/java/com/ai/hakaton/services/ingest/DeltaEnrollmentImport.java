@@ -0,0 +1,317 @@
+package com.ai.hakaton.services.ingest;
+
+import com.ai.hakaton.services.scheduling.Fingerprint;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Разностная загрузка файла записей. Файл описывает полное состояние: секции, экзамены,
+// студенты и их связи. Текущее состояние базы читается одним запросом на таблицу в индекс
+// ключей, у студентов и экзаменов - с отпечатком остальных полей. Затем применяются только
+// вставки, изменения и удаления, поэтому повторная загрузка того же файла ничего не меняет.
+// Назначения (дата, время, аудитория) у сохранившихся экзаменов не трогаются.
+// Должна вызываться внутри транзакции вызывающего сервиса.
+@Component
+public class DeltaEnrollmentImport {
+    private static final String INSERT_SECTIONS =
+            "INSERT INTO sections (code) SELECT unnest(?::text[]) RETURNING id, code";
+    private static final String INSERT_EXAMS =
+            "INSERT INTO exams (section_id, subject, instructor, exam_date, exam_time, duration) " +
+            "SELECT t.section_id, t.subject, t.instructor, ?, ?, t.duration " +
+            "FROM unnest(?::bigint[], ?::text[], ?::text[], ?::int[]) AS t(section_id, subject, instructor, duration) " +
+            "RETURNING id, section_id, subject, instructor";
+    private static final String INSERT_STUDENT =
+            "INSERT INTO students (id, name, edu_program, year_of_study, course) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_STUDENT =
+            "UPDATE students SET name = ?, edu_program = ?, year_of_study = ?, course = ? WHERE id = ?";
+    private static final String UPDATE_EXAM_DURATION = "UPDATE exams SET duration = ? WHERE id = ?";
+    private static final String INSERT_STUDENT_SECTION =
+            "INSERT INTO student_section (student_id, section_id) VALUES (?, ?)";
+    private static final String DELETE_STUDENT_SECTION =
+            "DELETE FROM student_section WHERE student_id = ? AND section_id = ?";
+    private static final String INSERT_STUDENT_EXAM = "INSERT INTO student_exam (student_id, exam_id) VALUES (?, ?)";
+    private static final String DELETE_STUDENT_EXAM = "DELETE FROM student_exam WHERE student_id = ? AND exam_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeltaEnrollmentImport(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Целевое состояние из файла; строки добавляются порциями, как в BulkEnrollmentWriter.Session
+    public Target target() {
+        return new Target();
+    }
+
+    private static String key(Object first, Object second) {
+        return first + "\u0000" + second;
+    }
+
+    private static String examKey(String sectionCode, String subject, String instructor) {
+        return sectionCode + "\u0000" + subject + "\u0000" + instructor;
+    }
+
+    private static String studentFingerprint(String name, String eduProgram, String yearOfStudy, int course) {
+        return new Fingerprint().add(name).add(eduProgram).add(yearOfStudy).add(course).value();
+    }
+
+    // Для повторяющихся студентов и экзаменов берется первая строка, как при обычной загрузке
+    public static final class Target implements Consumer<List<EnrollmentRow>> {
+        private final Set<String> sections = new LinkedHashSet<>();
+        private final Map<String, EnrollmentRow> students = new LinkedHashMap<>();
+        private final Map<String, EnrollmentRow> exams = new LinkedHashMap<>();
+        private final Set<String> studentSections = new LinkedHashSet<>();
+        private final Set<String> studentExams = new LinkedHashSet<>();
+
+        private Target() {
+        }
+
+        @Override
+        public void accept(List<EnrollmentRow> rows) {
+            for (EnrollmentRow row : rows) {
+                String examKey = examKey(row.getSectionCode(), row.getSubject(), row.getInstructor());
+                sections.add(row.getSectionCode());
+                students.putIfAbsent(row.getStudentId(), row);
+                exams.putIfAbsent(examKey, row);
+                studentSections.add(key(row.getStudentId(), row.getSectionCode()));
+                studentExams.add(key(row.getStudentId(), examKey));
+            }
+        }
+    }
+
+    // Итог применения: сколько строк вставлено, изменено и удалено
+    public static final class Delta {
+        private int sectionsInserted;
+        private int sectionsDeleted;
+        private int studentsInserted;
+        private int studentsUpdated;
+        private int studentsDeleted;
+        private int examsInserted;
+        private int examsUpdated;
+        private int examsDeleted;
+        private int linksInserted;
+        private int linksDeleted;
+
+        // Изменилось ли что-то, влияющее на расписание
+        public boolean affectsSchedule() {
+            return sectionsInserted + sectionsDeleted + examsInserted + examsUpdated + examsDeleted
+                    + linksInserted + linksDeleted > 0;
+        }
+
+        public boolean isEmpty() {
+            return !affectsSchedule() && studentsInserted + studentsUpdated + studentsDeleted == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Секции: +" + sectionsInserted + " -" + sectionsDeleted
+                    + "\nСтуденты: +" + studentsInserted + " ~" + studentsUpdated + " -" + studentsDeleted
+                    + "\nЭкзамены: +" + examsInserted + " ~" + examsUpdated + " -" + examsDeleted
+                    + "\nЗаписи: +" + linksInserted + " -" + linksDeleted;
+        }
+    }
+
+    public Delta apply(Target target) {
+        Delta delta = new Delta();
+
+        // 1. Индекс ключей базы
+        Map<String, Long> sectionIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, code FROM sections", (RowCallbackHandler) rs -> {
+            sectionIds.put(rs.getString("code"), rs.getLong("id"));
+        });
+        Map<String, String> studentFingerprints = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name, edu_program, year_of_study, course FROM students", (RowCallbackHandler) rs -> {
+            studentFingerprints.put(rs.getString("id"), studentFingerprint(rs.getString("name"),
+                    rs.getString("edu_program"), rs.getString("year_of_study"), rs.getInt("course")));
+        });
+        Map<String, Long> examIds = new HashMap<>();
+        Map<Long, String> examKeys = new HashMap<>();
+        Map<Long, Integer> examDurations = new HashMap<>();
+        jdbcTemplate.query("SELECT e.id, s.code, e.subject, e.instructor, e.duration " +
+                "FROM exams e LEFT JOIN sections s ON s.id = e.section_id", (RowCallbackHandler) rs -> {
+            long id = rs.getLong("id");
+            String key = examKey(rs.getString("code"), rs.getString("subject"), rs.getString("instructor"));
+            examIds.put(key, id);
+            examKeys.put(id, key);
+            examDurations.put(id, rs.getInt("duration"));
+        });
+        Set<String> studentSections = new HashSet<>();
+        jdbcTemplate.query("SELECT ss.student_id, s.code FROM student_section ss JOIN sections s ON s.id = ss.section_id",
+                (RowCallbackHandler) rs -> {
+                    studentSections.add(key(rs.getString("student_id"), rs.getString("code")));
+                });
+        Set<String> studentExams = new HashSet<>();
+        jdbcTemplate.query("SELECT student_id, exam_id FROM student_exam", (RowCallbackHandler) rs -> {
+            studentExams.add(key(rs.getString("student_id"), examKeys.get(rs.getLong("exam_id"))));
+        });
+
+        // 2. Вставки и изменения: секции, студенты, экзамены
+        List<String> newSections = new ArrayList<>();
+        for (String code : target.sections) {
+            if (!sectionIds.containsKey(code)) {
+                newSections.add(code);
+            }
+        }
+        if (!newSections.isEmpty()) {
+            jdbcTemplate.query(INSERT_SECTIONS,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", newSections.toArray())),
+                    (RowCallbackHandler) rs -> {
+                        sectionIds.put(rs.getString("code"), rs.getLong("id"));
+                    });
+            delta.sectionsInserted = newSections.size();
+        }
+
+        List<Object[]> insertedStudents = new ArrayList<>();
+        List<Object[]> updatedStudents = new ArrayList<>();
+        for (EnrollmentRow row : target.students.values()) {
+            String existing = studentFingerprints.get(row.getStudentId());
+            if (existing == null) {
+                insertedStudents.add(new Object[]{row.getStudentId(), row.getStudentName(), row.getEduProgram(),
+                        row.getYearOfStudy(), row.getCourse()});
+            } else if (!existing.equals(studentFingerprint(row.getStudentName(), row.getEduProgram(),
+                    row.getYearOfStudy(), row.getCourse()))) {
+                updatedStudents.add(new Object[]{row.getStudentName(), row.getEduProgram(), row.getYearOfStudy(),
+                        row.getCourse(), row.getStudentId()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_STUDENT, insertedStudents);
+        jdbcTemplate.batchUpdate(UPDATE_STUDENT, updatedStudents);
+        delta.studentsInserted = insertedStudents.size();
+        delta.studentsUpdated = updatedStudents.size();
+
+        // Длительность меняется, только если она указана в файле
+        List<EnrollmentRow> newExams = new ArrayList<>();
+        List<Object[]> updatedExams = new ArrayList<>();
+        for (Map.Entry<String, EnrollmentRow> entry : target.exams.entrySet()) {
+            EnrollmentRow row = entry.getValue();
+            Long id = examIds.get(entry.getKey());
+            if (id == null) {
+                newExams.add(row);
+            } else if (row.getDuration() > 0 && row.getDuration() != examDurations.get(id)) {
+                updatedExams.add(new Object[]{row.getDuration(), id});
+            }
+        }
+        insertExams(newExams, sectionIds, examIds, examKeys);
+        jdbcTemplate.batchUpdate(UPDATE_EXAM_DURATION, updatedExams);
+        delta.examsInserted = newExams.size();
+        delta.examsUpdated = updatedExams.size();
+
+        // 3. Связи студентов с секциями и экзаменами: сначала удаления, потом вставки
+        List<Object[]> removedSections = new ArrayList<>();
+        for (String link : studentSections) {
+            if (!target.studentSections.contains(link)) {
+                String[] parts = link.split("\u0000", 2);
+                removedSections.add(new Object[]{parts[0], sectionIds.get(parts[1])});
+            }
+        }
+        List<Object[]> addedSections = new ArrayList<>();
+        for (String link : target.studentSections) {
+            if (!studentSections.contains(link)) {
+                String[] parts = link.split("\u0000", 2);
+                addedSections.add(new Object[]{parts[0], sectionIds.get(parts[1])});
+            }
+        }
+        List<Object[]> removedExams = new ArrayList<>();
+        for (String link : studentExams) {
+            if (!target.studentExams.contains(link)) {
+                String[] parts = link.split("\u0000", 2);
+                removedExams.add(new Object[]{parts[0], examIds.get(parts[1])});
+            }
+        }
+        List<Object[]> addedExams = new ArrayList<>();
+        for (String link : target.studentExams) {
+            if (!studentExams.contains(link)) {
+                String[] parts = link.split("\u0000", 2);
+                addedExams.add(new Object[]{parts[0], examIds.get(parts[1])});
+            }
+        }
+        jdbcTemplate.batchUpdate(DELETE_STUDENT_SECTION, removedSections);
+        jdbcTemplate.batchUpdate(DELETE_STUDENT_EXAM, removedExams);
+        jdbcTemplate.batchUpdate(INSERT_STUDENT_SECTION, addedSections);
+        jdbcTemplate.batchUpdate(INSERT_STUDENT_EXAM, addedExams);
+        delta.linksInserted = addedSections.size() + addedExams.size();
+        delta.linksDeleted = removedSections.size() + removedExams.size();
+
+        // 4. Удаления: экзамены, студенты и секции, которых больше нет в файле (их связи уже удалены)
+        List<Long> staleExams = new ArrayList<>();
+        examIds.forEach((key, id) -> {
+            if (!target.exams.containsKey(key)) {
+                staleExams.add(id);
+            }
+        });
+        List<String> staleStudents = new ArrayList<>();
+        for (String id : studentFingerprints.keySet()) {
+            if (!target.students.containsKey(id)) {
+                staleStudents.add(id);
+            }
+        }
+        List<Long> staleSections = new ArrayList<>();
+        sectionIds.forEach((code, id) -> {
+            if (!target.sections.contains(code)) {
+                staleSections.add(id);
+            }
+        });
+        deleteAll("exam_extra_auditoriums", "exam_id", "bigint", staleExams.toArray());
+        delta.examsDeleted = deleteAll("exams", "bigint", staleExams.toArray());
+        delta.studentsDeleted = deleteAll("students", "text", staleStudents.toArray());
+        delta.sectionsDeleted = deleteAll("sections", "bigint", staleSections.toArray());
+        return delta;
+    }
+
+    private void insertExams(List<EnrollmentRow> exams, Map<String, Long> sectionIds, Map<String, Long> examIds,
+                             Map<Long, String> examKeys) {
+        if (exams.isEmpty()) {
+            return;
+        }
+        Long[] sections = new Long[exams.size()];
+        String[] subjects = new String[exams.size()];
+        String[] instructors = new String[exams.size()];
+        Integer[] durations = new Integer[exams.size()];
+        Map<Long, String> codes = new HashMap<>();
+        for (int i = 0; i < exams.size(); i++) {
+            EnrollmentRow row = exams.get(i);
+            sections[i] = sectionIds.get(row.getSectionCode());
+            subjects[i] = row.getSubject();
+            instructors[i] = row.getInstructor();
+            durations[i] = row.getDuration() > 0 ? row.getDuration() : BulkEnrollmentWriter.DEFAULT_DURATION;
+            codes.put(sections[i], row.getSectionCode());
+        }
+        jdbcTemplate.query(INSERT_EXAMS,
+                ps -> {
+                    ps.setObject(1, BulkEnrollmentWriter.DEFAULT_EXAM_DATE);
+                    ps.setObject(2, BulkEnrollmentWriter.DEFAULT_EXAM_TIME);
+                    ps.setArray(3, ps.getConnection().createArrayOf("bigint", sections));
+                    ps.setArray(4, ps.getConnection().createArrayOf("text", subjects));
+                    ps.setArray(5, ps.getConnection().createArrayOf("text", instructors));
+                    ps.setArray(6, ps.getConnection().createArrayOf("integer", durations));
+                },
+                (RowCallbackHandler) rs -> {
+                    String key = examKey(codes.get(rs.getLong("section_id")), rs.getString("subject"),
+                            rs.getString("instructor"));
+                    examIds.put(key, rs.getLong("id"));
+                    examKeys.put(rs.getLong("id"), key);
+                });
+    }
+
+    private int deleteAll(String table, String idType, Object[] ids) {
+        return deleteAll(table, "id", idType, ids);
+    }
+
+    private int deleteAll(String table, String column, String idType, Object[] ids) {
+        if (ids.length == 0) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM " + table + " WHERE " + column + " = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf(idType, ids)));
+    }
+}
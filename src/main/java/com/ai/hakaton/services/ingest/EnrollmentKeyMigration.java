@@ -0,0 +1,104 @@
+package com.ai.hakaton.services.ingest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+// Подготовка старой базы к уникальным ключам sections(code) и exams(section_id, subject, instructor),
+// на которые опираются INSERT ... ON CONFLICT в BulkEnrollmentWriter. Раньше загрузка могла создавать
+// дубликаты, и тогда Hibernate (ddl-auto=update) не может добавить ограничения. Выполняется при старте
+// до создания EntityManagerFactory, то есть до обновления схемы: дубликаты сливаются в строку
+// с наименьшим id, записи студентов переносятся на нее, дополнительные аудитории дубликатов удаляются.
+// На чистой базе или без дубликатов ничего не меняет; повторный запуск безопасен.
+@Component
+public class EnrollmentKeyMigration {
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentKeyMigration.class);
+    private static final String DUPLICATE_SECTIONS =
+            "(SELECT id, keep FROM (SELECT id, min(id) OVER (PARTITION BY code) AS keep FROM sections) t " +
+            "WHERE id <> keep)";
+    private static final String DUPLICATE_EXAMS =
+            "(SELECT id, keep FROM (SELECT id, min(id) OVER (PARTITION BY section_id, subject, instructor) AS keep " +
+            "FROM exams) t WHERE id <> keep)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Собственный менеджер транзакций: JPA в этот момент еще не создана
+    public EnrollmentKeyMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            mergeSections();
+            mergeExams();
+        });
+    }
+
+    private void mergeSections() {
+        if (!tableExists("sections")) {
+            return;
+        }
+        int merged = count(DUPLICATE_SECTIONS);
+        if (merged == 0) {
+            return;
+        }
+        if (tableExists("student_section")) {
+            jdbcTemplate.update("INSERT INTO student_section (student_id, section_id) " +
+                    "SELECT DISTINCT ss.student_id, d.keep FROM student_section ss JOIN " + DUPLICATE_SECTIONS +
+                    " d ON ss.section_id = d.id ON CONFLICT DO NOTHING");
+            jdbcTemplate.update("DELETE FROM student_section ss USING " + DUPLICATE_SECTIONS +
+                    " d WHERE ss.section_id = d.id");
+        }
+        if (tableExists("exams")) {
+            jdbcTemplate.update("UPDATE exams e SET section_id = d.keep FROM " + DUPLICATE_SECTIONS +
+                    " d WHERE e.section_id = d.id");
+        }
+        jdbcTemplate.update("DELETE FROM sections s USING " + DUPLICATE_SECTIONS + " d WHERE s.id = d.id");
+        log.info("Объединено дублирующихся секций: {}", merged);
+    }
+
+    // После слияния секций экзамены разных дубликатов секции тоже могут совпасть
+    private void mergeExams() {
+        if (!tableExists("exams")) {
+            return;
+        }
+        int merged = count(DUPLICATE_EXAMS);
+        if (merged == 0) {
+            return;
+        }
+        if (tableExists("student_exam")) {
+            jdbcTemplate.update("INSERT INTO student_exam (student_id, exam_id) " +
+                    "SELECT DISTINCT se.student_id, d.keep FROM student_exam se JOIN " + DUPLICATE_EXAMS +
+                    " d ON se.exam_id = d.id ON CONFLICT DO NOTHING");
+            jdbcTemplate.update("DELETE FROM student_exam se USING " + DUPLICATE_EXAMS + " d WHERE se.exam_id = d.id");
+        }
+        if (tableExists("exam_extra_auditoriums")) {
+            jdbcTemplate.update("DELETE FROM exam_extra_auditoriums x USING " + DUPLICATE_EXAMS +
+                    " d WHERE x.exam_id = d.id");
+        }
+        jdbcTemplate.update("DELETE FROM exams e USING " + DUPLICATE_EXAMS + " d WHERE e.id = d.id");
+        log.info("Объединено дублирующихся экзаменов: {}", merged);
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                table));
+    }
+
+    private int count(String duplicates) {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM " + duplicates + " d", Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    // Схема обновляется только после слияния дубликатов
+    @Configuration(proxyBeanMethods = false)
+    static class JpaDependency extends EntityManagerFactoryDependsOnPostProcessor {
+        JpaDependency() {
+            super(EnrollmentKeyMigration.class);
+        }
+    }
+}
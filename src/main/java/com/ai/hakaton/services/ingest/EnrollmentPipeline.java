@@ -0,0 +1,178 @@
+package com.ai.hakaton.services.ingest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// Конвейер загрузки записей в три стадии:
+// 1. поток чтения разбирает лист (SAX) и отдает порции сырых строк;
+// 2. пул разбирает порции в EnrollmentRow параллельно, повторяющиеся строки (секции, предметы,
+//    преподаватели, студенты) заменяются одним экземпляром через общий ConcurrentHashMap;
+// 3. вызывающий поток принимает разобранные порции в исходном порядке и пишет их.
+// Запись остается в вызывающем потоке, потому что BulkEnrollmentWriter работает в его транзакции.
+// Очередь ограничена, поэтому чтение и разбор не уходят далеко вперед записи.
+public final class EnrollmentPipeline {
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentPipeline.class);
+
+    private static final Future<ParsedChunk> END = CompletableFuture.completedFuture(null);
+
+    private final int parseThreads;
+    private final int queueCapacity;
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+
+    // parseThreads <= 0 - по числу ядер
+    public EnrollmentPipeline(int parseThreads, int queueCapacity) {
+        this.parseThreads = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    // Источник порций строк, например StreamingSheetReader.read; возвращает число строк
+    @FunctionalInterface
+    public interface Source {
+        int read(Consumer<List<SheetRow>> chunkConsumer) throws IOException;
+    }
+
+    // Итог загрузки: разобранные строки и строки с ошибками
+    public static final class Result {
+        private final int rows;
+        private final int failed;
+
+        private Result(int rows, int failed) {
+            this.rows = rows;
+            this.failed = failed;
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public int failed() {
+            return failed;
+        }
+    }
+
+    private static final class ParsedChunk {
+        private final List<EnrollmentRow> rows;
+        private final List<String> errors;
+
+        private ParsedChunk(List<EnrollmentRow> rows, List<String> errors) {
+            this.rows = rows;
+            this.errors = errors;
+        }
+    }
+
+    public Result run(Source source, Consumer<List<EnrollmentRow>> writer) throws IOException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService parsers = Executors.newFixedThreadPool(parseThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ingest-parse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Задачи разбора в порядке чтения: порядок записи не зависит от того, какой поток успел первым
+        BlockingQueue<Future<ParsedChunk>> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicBoolean aborted = new AtomicBoolean();
+        AtomicReference<Throwable> readError = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            try {
+                source.read(chunk -> enqueue(parsed, parsers.submit(() -> parse(chunk))));
+            } catch (Throwable e) {
+                readError.set(e);
+            } finally {
+                if (!aborted.get()) {
+                    try {
+                        parsed.put(END);
+                    } catch (InterruptedException ignored) {
+                        // Запись уже прервана, конец очереди никто не ждет
+                    }
+                }
+            }
+        }, "ingest-read");
+        reader.setDaemon(true);
+        reader.start();
+
+        int rows = 0;
+        int failed = 0;
+        boolean completed = false;
+        try {
+            for (Future<ParsedChunk> next = parsed.take(); next != END; next = parsed.take()) {
+                ParsedChunk chunk = next.get();
+                // Каждая ошибочная строка - на уровне DEBUG, в INFO-журнал попадает сводка по порции
+                if (!chunk.errors.isEmpty()) {
+                    log.warn("Строк с ошибками в порции: {}, первая: {}", chunk.errors.size(), chunk.errors.get(0));
+                    chunk.errors.forEach(log::debug);
+                }
+                failed += chunk.errors.size();
+                rows += chunk.rows.size();
+                writer.accept(chunk.rows);
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Загрузка прервана", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Ошибка разбора строк: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (!completed) {
+                aborted.set(true);
+                reader.interrupt();
+            }
+            parsers.shutdownNow();
+            strings.clear();
+        }
+
+        Throwable error = readError.get();
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error != null) {
+            throw new IOException("Ошибка чтения файла: " + error.getMessage(), error);
+        }
+        return new Result(rows, failed);
+    }
+
+    private static void enqueue(BlockingQueue<Future<ParsedChunk>> parsed, Future<ParsedChunk> chunk) {
+        try {
+            parsed.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Чтение прервано", e);
+        }
+    }
+
+    private ParsedChunk parse(List<SheetRow> chunk) {
+        List<EnrollmentRow> rows = new ArrayList<>(chunk.size());
+        List<String> errors = new ArrayList<>();
+        for (SheetRow row : chunk) {
+            try {
+                rows.add(EnrollmentRow.fromSheetRow(row, this::canonical));
+            } catch (Exception e) {
+                errors.add("Ошибка при обработке строки " + row.getRowNumber() + ": " + e.getMessage());
+            }
+        }
+        return new ParsedChunk(rows, errors);
+    }
+
+    private String canonical(String value) {
+        String existing = strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+}
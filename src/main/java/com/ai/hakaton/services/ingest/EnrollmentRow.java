@@ -0,0 +1,91 @@
+package com.ai.hakaton.services.ingest;
+
+import java.util.function.UnaryOperator;
+
+// Разобранная строка файла записей: студент записан в секцию на экзамен
+// Колонки: Subject, Instructor, Course, EduProgram, YearsOfStudy, fake_name, fake_id, Section
+// и необязательная Duration (минуты; 0 - не указана, берется длительность по умолчанию)
+public final class EnrollmentRow {
+    private final String subject;
+    private final String instructor;
+    private final int course;
+    private final String eduProgram;
+    private final String yearOfStudy;
+    private final String studentName;
+    private final String studentId;
+    private final String sectionCode;
+    private final int duration;
+
+    public EnrollmentRow(String subject, String instructor, int course, String eduProgram, String yearOfStudy,
+                         String studentName, String studentId, String sectionCode, int duration) {
+        this.subject = subject;
+        this.instructor = instructor;
+        this.course = course;
+        this.eduProgram = eduProgram;
+        this.yearOfStudy = yearOfStudy;
+        this.studentName = studentName;
+        this.studentId = studentId;
+        this.sectionCode = sectionCode;
+        this.duration = duration;
+    }
+
+    public static EnrollmentRow fromSheetRow(SheetRow row) {
+        return fromSheetRow(row, UnaryOperator.identity());
+    }
+
+    // canonical - замена повторяющихся строк общим экземпляром (см. EnrollmentPipeline)
+    public static EnrollmentRow fromSheetRow(SheetRow row, UnaryOperator<String> canonical) {
+        String studentId = canonical.apply(row.getCell(8));
+        String sectionCode = canonical.apply(row.getCell(9));
+        if (studentId.isEmpty() || sectionCode.isEmpty()) {
+            throw new IllegalArgumentException("не заполнены fake_id или Section");
+        }
+        String duration = row.getCell(10);
+        return new EnrollmentRow(
+                canonical.apply(row.getCell(1)),
+                canonical.apply(row.getCell(2)),
+                Integer.parseInt(row.getCell(3)),
+                canonical.apply(row.getCell(4)),
+                canonical.apply(row.getCell(5)),
+                canonical.apply(row.getCell(7)),
+                studentId,
+                sectionCode,
+                duration.isEmpty() ? 0 : Integer.parseInt(duration));
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getInstructor() {
+        return instructor;
+    }
+
+    public int getCourse() {
+        return course;
+    }
+
+    public String getEduProgram() {
+        return eduProgram;
+    }
+
+    public String getYearOfStudy() {
+        return yearOfStudy;
+    }
+
+    public String getStudentName() {
+        return studentName;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getSectionCode() {
+        return sectionCode;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+}
@@ -0,0 +1,171 @@
+package com.ai.hakaton.services.ingest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Компактный двоичный снимок файла записей с теми же полями, что EnrollmentRow.
+// Формат: "EXSN", версия, затем записи: байт 1 и поля записи; байт 0 - конец снимка.
+// Строки пишутся через словарь: varint 0 - новая строка (длина varint + UTF-8),
+// иначе номер уже встречавшейся строки + 1, поэтому повторяющиеся предметы, секции
+// и студенты занимают 1-3 байта. Числа (Course, Duration) - varint.
+// Чтение не разбирает текст и сразу отдает готовые EnrollmentRow.
+public final class EnrollmentSnapshot {
+    private static final int MAGIC = 0x4558534E; // "EXSN"
+    private static final int VERSION = 1;
+    private static final int ROW = 1;
+    private static final int END = 0;
+
+    private EnrollmentSnapshot() {
+    }
+
+    public static Writer writer(OutputStream out) throws IOException {
+        return new Writer(out);
+    }
+
+    // Запись снимка; close() дописывает признак конца, выходной поток не закрывает
+    public static final class Writer implements AutoCloseable {
+        private final DataOutputStream out;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private int rowCount;
+
+        private Writer(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(VERSION);
+        }
+
+        public void write(List<EnrollmentRow> rows) throws IOException {
+            for (EnrollmentRow row : rows) {
+                out.writeByte(ROW);
+                writeString(row.getSubject());
+                writeString(row.getInstructor());
+                writeVarInt(row.getCourse());
+                writeString(row.getEduProgram());
+                writeString(row.getYearOfStudy());
+                writeString(row.getStudentName());
+                writeString(row.getStudentId());
+                writeString(row.getSectionCode());
+                writeVarInt(row.getDuration());
+                rowCount++;
+            }
+        }
+
+        public int rowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.writeByte(END);
+            out.flush();
+        }
+
+        private void writeString(String value) throws IOException {
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                writeVarInt(index + 1);
+                return;
+            }
+            dictionary.put(value, dictionary.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(0);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+
+        // Неотрицательное число по 7 бит в байте, старший бит - продолжение
+        private void writeVarInt(int value) throws IOException {
+            if (value < 0) {
+                throw new IllegalArgumentException("Отрицательное число в снимке: " + value);
+            }
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+    }
+
+    // Возвращает количество прочитанных записей
+    public static int read(InputStream input, int chunkSize, Consumer<List<EnrollmentRow>> chunkConsumer)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input, 64 * 1024));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Файл не является снимком записей");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия снимка: " + version);
+        }
+        List<String> dictionary = new ArrayList<>();
+        List<EnrollmentRow> chunk = new ArrayList<>(chunkSize);
+        int rowCount = 0;
+        try {
+            for (int tag = in.readUnsignedByte(); tag != END; tag = in.readUnsignedByte()) {
+                if (tag != ROW) {
+                    throw new IOException("Поврежденный снимок: запись " + rowCount);
+                }
+                chunk.add(new EnrollmentRow(
+                        readString(in, dictionary),
+                        readString(in, dictionary),
+                        readVarInt(in),
+                        readString(in, dictionary),
+                        readString(in, dictionary),
+                        readString(in, dictionary),
+                        readString(in, dictionary),
+                        readString(in, dictionary),
+                        readVarInt(in)));
+                rowCount++;
+                if (chunk.size() >= chunkSize) {
+                    chunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("Снимок обрывается после записи " + rowCount, e);
+        }
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(chunk);
+        }
+        return rowCount;
+    }
+
+    private static String readString(DataInputStream in, List<String> dictionary) throws IOException {
+        int reference = readVarInt(in);
+        if (reference > 0) {
+            if (reference > dictionary.size()) {
+                throw new IOException("Поврежденный снимок: нет строки " + reference);
+            }
+            return dictionary.get(reference - 1);
+        }
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        dictionary.add(value);
+        return value;
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Поврежденный снимок: слишком длинное число");
+    }
+}
@@ -0,0 +1,24 @@
+package com.ai.hakaton.services.ingest;
+
+// Строка листа Excel: значения ячеек в виде строк по номеру колонки
+public final class SheetRow {
+    private final int rowNumber;
+    private final String[] cells;
+
+    public SheetRow(int rowNumber, String[] cells) {
+        this.rowNumber = rowNumber;
+        this.cells = cells;
+    }
+
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    // Пустая строка для отсутствующих ячеек, как getCellStringValue
+    public String getCell(int column) {
+        if (column >= cells.length || cells[column] == null) {
+            return "";
+        }
+        return cells[column];
+    }
+}
@@ -0,0 +1,125 @@
+package com.ai.hakaton.services.ingest;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Потоковое чтение первого листа xlsx через SAX (XSSFReader) без построения XSSFWorkbook.
+// Строки отдаются порциями по chunkSize, первая строка (заголовки) пропускается.
+public final class StreamingSheetReader {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private StreamingSheetReader() {
+    }
+
+    // Возвращает количество прочитанных строк данных
+    public static int read(File file, int chunkSize, Consumer<List<SheetRow>> chunkConsumer) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return 0;
+            }
+            try (InputStream sheet = sheets.next()) {
+                ChunkingHandler handler = new ChunkingHandler(chunkSize, chunkConsumer);
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+                handler.flush();
+                return handler.rowCount;
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Ошибка чтения Excel-файла: " + e.getMessage(), e);
+        }
+    }
+
+    // Загруженный файл сначала копируется во временный: OPCPackage читает zip с диска, а не в память
+    public static int read(InputStream input, int chunkSize, Consumer<List<SheetRow>> chunkConsumer) throws IOException {
+        Path temp = Files.createTempFile("upload-", ".xlsx");
+        try {
+            Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+            return read(temp.toFile(), chunkSize, chunkConsumer);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static final class ChunkingHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final int chunkSize;
+        private final Consumer<List<SheetRow>> chunkConsumer;
+        private List<SheetRow> chunk;
+        private String[] cells = new String[16];
+        private int lastColumn;
+        private int currentColumn;
+        private int rowCount;
+
+        private ChunkingHandler(int chunkSize, Consumer<List<SheetRow>> chunkConsumer) {
+            this.chunkSize = chunkSize;
+            this.chunkConsumer = chunkConsumer;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(cells, 0, lastColumn + 1, null);
+            lastColumn = -1;
+            currentColumn = -1;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            // Ссылка на ячейку может отсутствовать - тогда берем следующую колонку
+            currentColumn = cellReference == null ? currentColumn + 1 : new CellReference(cellReference).getCol();
+            if (currentColumn >= cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(cells.length * 2, currentColumn + 1));
+            }
+            cells[currentColumn] = formattedValue == null ? "" : formattedValue.trim();
+            lastColumn = Math.max(lastColumn, currentColumn);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0 || lastColumn < 0) {
+                return;
+            }
+            chunk.add(new SheetRow(rowNum, Arrays.copyOf(cells, lastColumn + 1)));
+            rowCount++;
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ai.hakaton.services.scheduling;
+
+// Экзамены студента в соседние дни: штраф - число пар соседних дней, в которые у студента
+// есть экзамены (как в ScheduleScore). Дни студента хранятся счетчиками экзаменов, поэтому пары
+// меняются, только когда день появляется у студента впервые или освобождается совсем.
+public final class BackToBackConstraint implements ScheduleConstraint {
+    public static final String NAME = "back-to-back";
+
+    private final ScheduleProblem problem;
+    private final byte[][] studentDays;
+
+    public BackToBackConstraint(ScheduleProblem problem) {
+        this.problem = problem;
+        this.studentDays = new byte[problem.studentCount()][problem.dayCount()];
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public long cost(int exam, int day, int start, int[] rooms) {
+        long delta = 0;
+        for (int s : problem.students(exam)) {
+            if (studentDays[s][day] == 0) {
+                delta += neighbourDays(studentDays[s], day);
+            }
+        }
+        return delta;
+    }
+
+    @Override
+    public long place(int exam, int day, int start, int[] rooms) {
+        long delta = 0;
+        for (int s : problem.students(exam)) {
+            if (studentDays[s][day]++ == 0) {
+                delta += neighbourDays(studentDays[s], day);
+            }
+        }
+        return delta;
+    }
+
+    @Override
+    public long remove(int exam, int day, int start, int[] rooms) {
+        long delta = 0;
+        for (int s : problem.students(exam)) {
+            if (--studentDays[s][day] == 0) {
+                delta -= neighbourDays(studentDays[s], day);
+            }
+        }
+        return delta;
+    }
+
+    private int neighbourDays(byte[] days, int day) {
+        int count = 0;
+        if (day > 0 && days[day - 1] > 0) {
+            count++;
+        }
+        if (day + 1 < problem.dayCount() && days[day + 1] > 0) {
+            count++;
+        }
+        return count;
+    }
+}
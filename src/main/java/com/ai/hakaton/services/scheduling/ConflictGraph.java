@@ -0,0 +1,73 @@
+package com.ai.hakaton.services.scheduling;
+
+// Граф конфликтов экзаменов: два экзамена смежны, если у них есть общий студент.
+// Строка матрицы смежности хранится как битовое множество long[].
+public final class ConflictGraph {
+    private final int examCount;
+    private final long[][] adjacency;
+    private final int[] degree;
+
+    // examStudents[e] - плотные индексы студентов экзамена e (0..studentCount-1)
+    public ConflictGraph(int[][] examStudents, int studentCount) {
+        this.examCount = examStudents.length;
+        int words = BitSets.words(examCount);
+        this.adjacency = new long[examCount][words];
+        this.degree = new int[examCount];
+
+        // Обратный индекс студент -> экзамены в виде плоских массивов
+        int[] counts = new int[studentCount + 1];
+        for (int[] students : examStudents) {
+            for (int s : students) {
+                counts[s + 1]++;
+            }
+        }
+        for (int s = 0; s < studentCount; s++) {
+            counts[s + 1] += counts[s];
+        }
+        int[] cursor = counts.clone();
+        int[] examsByStudent = new int[counts[studentCount]];
+        for (int e = 0; e < examCount; e++) {
+            for (int s : examStudents[e]) {
+                examsByStudent[cursor[s]++] = e;
+            }
+        }
+
+        // Попарно связываем экзамены каждого студента
+        for (int s = 0; s < studentCount; s++) {
+            for (int i = counts[s]; i < counts[s + 1]; i++) {
+                int a = examsByStudent[i];
+                for (int j = i + 1; j < counts[s + 1]; j++) {
+                    int b = examsByStudent[j];
+                    if (a != b) {
+                        BitSets.set(adjacency[a], b);
+                        BitSets.set(adjacency[b], a);
+                    }
+                }
+            }
+        }
+        for (int e = 0; e < examCount; e++) {
+            degree[e] = BitSets.cardinality(adjacency[e]);
+        }
+    }
+
+    public int examCount() {
+        return examCount;
+    }
+
+    public boolean conflicts(int a, int b) {
+        return BitSets.get(adjacency[a], b);
+    }
+
+    // Есть ли у экзамена общий студент хотя бы с одним экзаменом из множества
+    public boolean conflictsWith(int exam, long[] exams) {
+        return BitSets.intersects(adjacency[exam], exams);
+    }
+
+    public long[] neighbours(int exam) {
+        return adjacency[exam];
+    }
+
+    public int degree(int exam) {
+        return degree[exam];
+    }
+}
@@ -0,0 +1,321 @@
+package com.ai.hakaton.services.scheduling;
+
+import com.google.ortools.Loader;
+import com.google.ortools.sat.BoolVar;
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearExpr;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+
+// Точная модель CP-SAT (OR-Tools) на сетке слотов задачи,
+// x[e][d][s] = экзамен e начинается в день d в слот s (если успевает закончиться до конца дня).
+// Экзамен "идет" в момент t, если начался не позже t и еще не закончился. Ограничения:
+// - студент: не больше maxExamsPerStudentPerDay экзаменов в день (по уникальным наборам экзаменов
+//   студентов) и не больше одного идущего в начале каждого слота;
+// - преподаватель: не больше одного идущего в начале каждого слота, окончание в этот момент
+//   тоже считается (без стыковки);
+// - не больше maxExamsPerDay экзаменов в день, одна секция - один экзамен в день;
+// - вместимость: в начале каждого слота идущих экзаменов, которым нужна аудитория класса >= k,
+//   не больше, чем таких аудиторий (условие Холла для вложенных классов).
+// Все экзамены начинаются в слоты, поэтому любое пересечение видно в начале какого-то слота.
+// Цель - минимум неназначенных экзаменов. Аудитории раздаются после решения; экзамены больше
+// любой аудитории в модель не входят и ставятся после нее с делением между аудиториями.
+// Жадное решение используется как подсказка и как запасной вариант: возвращается лучшее из двух.
+public final class CpSatScheduler implements ScheduleSolver {
+    private static final Logger log = LoggerFactory.getLogger(CpSatScheduler.class);
+
+    private final double timeLimitSeconds;
+    private final int workers;
+
+    public CpSatScheduler(double timeLimitSeconds, int workers) {
+        this.timeLimitSeconds = timeLimitSeconds;
+        this.workers = workers;
+    }
+
+    @Override
+    public Schedule solve(ScheduleProblem problem, ScheduleProgress progress) {
+        Loader.loadNativeLibraries();
+        progress.phase("жадное начальное решение");
+        Schedule greedy = GreedyScheduler.run(problem, ExamOrderings.byStudentCount(problem), progress);
+        ScheduleScore greedyScore = ScheduleScore.evaluate(problem, greedy);
+        progress.startDone(greedyScore);
+        progress.phase("построение модели CP-SAT");
+
+        int examCount = problem.examCount();
+        int days = problem.dayCount();
+        int slots = problem.slotCount();
+
+        // Классы аудиторий: индекс в отсортированных различных вместимостях
+        int[] capacities = Arrays.stream(roomCapacities(problem)).distinct().sorted().toArray();
+        int classes = capacities.length;
+        int[] roomsAtLeast = new int[classes];
+        for (int r = 0; r < problem.roomCount(); r++) {
+            int k = Arrays.binarySearch(capacities, problem.roomCapacity(r));
+            for (int j = 0; j <= k; j++) {
+                roomsAtLeast[j]++;
+            }
+        }
+        int[] roomClass = new int[examCount];
+        for (int e = 0; e < examCount; e++) {
+            int k = Arrays.binarySearch(capacities, problem.studentCount(e));
+            roomClass[e] = k >= 0 ? k : -k - 1; // classes - экзамен не помещается никуда
+        }
+
+        CpModel model = new CpModel();
+        BoolVar[][][] x = new BoolVar[examCount][][];
+        BoolVar[] unscheduled = new BoolVar[examCount];
+        for (int e = 0; e < examCount; e++) {
+            unscheduled[e] = model.newBoolVar("u" + e);
+            if (roomClass[e] >= classes) {
+                model.addEquality(unscheduled[e], 1);
+                continue;
+            }
+            x[e] = new BoolVar[days][slots];
+            List<BoolVar> choices = new ArrayList<>(days * slots + 1);
+            for (int d = 0; d < days; d++) {
+                for (int s = 0; s < slots; s++) {
+                    x[e][d][s] = model.newBoolVar("x" + e + "_" + d + "_" + s);
+                    if (problem.slotStart(s) + problem.duration(e) <= problem.dayEndMinute()) {
+                        choices.add(x[e][d][s]);
+                    } else {
+                        model.addEquality(x[e][d][s], 0);
+                    }
+                }
+            }
+            choices.add(unscheduled[e]);
+            model.addExactlyOne(choices.toArray(new BoolVar[0]));
+        }
+
+        // Студенты: дневной лимит и без пересечений по времени
+        Set<List<Integer>> examSets = new HashSet<>();
+        for (int st = 0; st < problem.studentCount(); st++) {
+            int[] exams = problem.examsOf(st);
+            if (exams.length < 2) {
+                continue;
+            }
+            List<Integer> key = new ArrayList<>(exams.length);
+            for (int e : Arrays.stream(exams).sorted().toArray()) {
+                if (x[e] != null) {
+                    key.add(e);
+                }
+            }
+            if (key.size() >= 2) {
+                examSets.add(key);
+            }
+        }
+        int perStudent = problem.maxExamsPerStudentPerDay();
+        for (List<Integer> exams : examSets) {
+            addAtMostPerDay(model, x, exams, days, slots, perStudent);
+            if (perStudent > 1) {
+                addNoOverlap(model, problem, x, exams, false);
+            }
+        }
+
+        // Одна секция - не больше одного экзамена в день
+        List<List<Integer>> bySection = groupBy(problem.sectionCount(), examCount, x, problem::section);
+        for (List<Integer> exams : bySection) {
+            if (exams.size() >= 2) {
+                addAtMostPerDay(model, x, exams, days, slots, 1);
+            }
+        }
+
+        // Преподаватель: экзамены не пересекаются и не стыкуются
+        int instructorCount = 0;
+        for (int e = 0; e < examCount; e++) {
+            instructorCount = Math.max(instructorCount, problem.instructor(e) + 1);
+        }
+        for (List<Integer> exams : groupBy(instructorCount, examCount, x, problem::instructor)) {
+            if (exams.size() >= 2) {
+                addNoOverlap(model, problem, x, exams, true);
+            }
+        }
+
+        // Лимит экзаменов в день и вместимость по классам аудиторий в начале каждого слота
+        for (int d = 0; d < days; d++) {
+            List<BoolVar> dayExams = new ArrayList<>();
+            for (int e = 0; e < examCount; e++) {
+                if (x[e] != null) {
+                    dayExams.addAll(Arrays.asList(x[e][d]));
+                }
+            }
+            for (int t = 0; t < slots; t++) {
+                List<List<BoolVar>> byClass = new ArrayList<>(classes);
+                for (int k = 0; k < classes; k++) {
+                    byClass.add(new ArrayList<>());
+                }
+                for (int e = 0; e < examCount; e++) {
+                    if (x[e] == null) {
+                        continue;
+                    }
+                    for (int s = 0; s <= t; s++) {
+                        if (runs(problem, e, s, problem.slotStart(t), false)) {
+                            byClass.get(roomClass[e]).add(x[e][d][s]);
+                        }
+                    }
+                }
+                IntVar[] classCount = new IntVar[classes];
+                for (int k = 0; k < classes; k++) {
+                    classCount[k] = model.newIntVar(0, byClass.get(k).size(), "c" + d + "_" + t + "_" + k);
+                    model.addEquality(LinearExpr.sum(byClass.get(k).toArray(new BoolVar[0])), classCount[k]);
+                }
+                for (int k = 0; k < classes; k++) {
+                    model.addLessOrEqual(LinearExpr.sum(Arrays.copyOfRange(classCount, k, classes)), roomsAtLeast[k]);
+                }
+            }
+            model.addLessOrEqual(LinearExpr.sum(dayExams.toArray(new BoolVar[0])), problem.maxExamsPerDay());
+        }
+
+        // Подсказка из жадного решения
+        for (int e = 0; e < examCount; e++) {
+            if (x[e] == null) {
+                continue;
+            }
+            int hintDay = greedy.isScheduled(e) ? greedy.day(e) : -1;
+            int hintSlot = hintDay < 0 ? -1 : problem.slotOf(greedy.startMinute(e));
+            if (hintSlot < 0) {
+                hintDay = -1;
+            }
+            for (int d = 0; d < days; d++) {
+                for (int s = 0; s < slots; s++) {
+                    model.addHint(x[e][d][s], d == hintDay && s == hintSlot ? 1 : 0);
+                }
+            }
+            model.addHint(unscheduled[e], hintDay < 0 ? 1 : 0);
+        }
+
+        model.minimize(LinearExpr.sum(unscheduled));
+
+        progress.phase("решение CP-SAT");
+        CpSolver solver = new CpSolver();
+        solver.getParameters().setMaxTimeInSeconds(timeLimitSeconds);
+        solver.getParameters().setNumWorkers(workers);
+        CpSolverStatus status = solver.solve(model);
+        log.info("CP-SAT: {}, неназначено {} за {} с", status, (long) solver.objectiveValue(), solver.wallTime());
+        if (status != CpSolverStatus.OPTIMAL && status != CpSolverStatus.FEASIBLE) {
+            return greedy;
+        }
+
+        Schedule schedule = new Schedule(examCount);
+        RoomTimetable rooms = new RoomTimetable(problem);
+        for (int d = 0; d < days; d++) {
+            for (int s = 0; s < slots; s++) {
+                List<Integer> slotExams = new ArrayList<>();
+                for (int e = 0; e < examCount; e++) {
+                    if (x[e] != null && solver.booleanValue(x[e][d][s])) {
+                        slotExams.add(e);
+                    }
+                }
+                assignRooms(problem, schedule, rooms, slotExams, d, problem.slotStart(s));
+            }
+        }
+        // Экзамены больше любой аудитории и оставшиеся без аудитории досаживаются жадно:
+        // GreedyScheduler делит их между несколькими свободными аудиториями
+        GreedyScheduler scheduler = GreedyScheduler.of(problem, schedule);
+        for (int e : ExamOrderings.byStudentCount(problem)) {
+            if (!schedule.isScheduled(e)) {
+                scheduler.tryPlace(e);
+            }
+        }
+        schedule = scheduler.schedule();
+        ScheduleScore score = ScheduleScore.evaluate(problem, schedule);
+        // Аудитории раздаются после решения и могут не найтись - тогда подсказка бывает лучше
+        if (greedyScore.compareTo(score) < 0) {
+            log.info("CP-SAT хуже жадного решения: {} против {}", score, greedyScore);
+            return greedy;
+        }
+        progress.examsPlaced(examCount - score.unscheduled());
+        return schedule;
+    }
+
+    // Лучшее размещение по слотам в порядке времени: большие экзамены первыми, каждому - наименьшая
+    // аудитория, свободная на все время экзамена. Экзамены разной длины, начавшиеся в разных слотах,
+    // условие Холла не различает, поэтому экзамен без аудитории остается неназначенным.
+    private static void assignRooms(ScheduleProblem problem, Schedule schedule, RoomTimetable rooms,
+                                    List<Integer> exams, int day, int start) {
+        exams.sort((a, b) -> Integer.compare(problem.studentCount(b), problem.studentCount(a)));
+        for (int e : exams) {
+            int end = start + problem.duration(e);
+            int room = rooms.bestFit(problem.studentCount(e), day, start, end);
+            if (room >= 0) {
+                rooms.occupy(day, room, start, end);
+                schedule.assign(e, day, start, room);
+            }
+        }
+    }
+
+    private static void addAtMostPerDay(CpModel model, BoolVar[][][] x, List<Integer> exams, int days, int slots,
+                                        int limit) {
+        for (int d = 0; d < days; d++) {
+            List<BoolVar> literals = new ArrayList<>(exams.size() * slots);
+            for (int e : exams) {
+                literals.addAll(Arrays.asList(x[e][d]).subList(0, slots));
+            }
+            if (limit == 1) {
+                model.addAtMostOne(literals.toArray(new BoolVar[0]));
+            } else {
+                model.addLessOrEqual(LinearExpr.sum(literals.toArray(new BoolVar[0])), limit);
+            }
+        }
+    }
+
+    // В начале каждого слота идет не больше одного экзамена группы;
+    // touching - экзамен, закончившийся ровно в этот момент, тоже считается идущим
+    private static void addNoOverlap(CpModel model, ScheduleProblem problem, BoolVar[][][] x,
+                                     List<Integer> exams, boolean touching) {
+        int slots = problem.slotCount();
+        for (int d = 0; d < problem.dayCount(); d++) {
+            for (int t = 0; t < slots; t++) {
+                List<BoolVar> running = new ArrayList<>();
+                for (int e : exams) {
+                    for (int s = 0; s <= t; s++) {
+                        if (runs(problem, e, s, problem.slotStart(t), touching)) {
+                            running.add(x[e][d][s]);
+                        }
+                    }
+                }
+                if (running.size() >= 2) {
+                    model.addAtMostOne(running.toArray(new BoolVar[0]));
+                }
+            }
+        }
+    }
+
+    // Идет ли в момент time экзамен e, начавшийся в слот s
+    private static boolean runs(ScheduleProblem problem, int exam, int slot, int time, boolean touching) {
+        int start = problem.slotStart(slot);
+        int end = start + problem.duration(exam);
+        return start <= time && (time < end || touching && time == end);
+    }
+
+    private static List<List<Integer>> groupBy(int groups, int examCount, BoolVar[][][] x,
+                                               IntUnaryOperator key) {
+        List<List<Integer>> result = new ArrayList<>(groups);
+        for (int g = 0; g < groups; g++) {
+            result.add(new ArrayList<>());
+        }
+        for (int e = 0; e < examCount; e++) {
+            if (x[e] != null) {
+                result.get(key.applyAsInt(e)).add(e);
+            }
+        }
+        return result;
+    }
+
+    private static int[] roomCapacities(ScheduleProblem problem) {
+        int[] capacities = new int[problem.roomCount()];
+        for (int r = 0; r < capacities.length; r++) {
+            capacities[r] = problem.roomCapacity(r);
+        }
+        return capacities;
+    }
+}
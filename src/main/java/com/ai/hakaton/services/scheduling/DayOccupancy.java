@@ -0,0 +1,34 @@
+package com.ai.hakaton.services.scheduling;
+
+// Занятость дней: для каждого дня битовое множество назначенных экзаменов
+public final class DayOccupancy {
+    private final long[][] examsByDay;
+    private final int[] examCountByDay;
+
+    public DayOccupancy(int days, int examCount) {
+        this.examsByDay = new long[days][BitSets.words(examCount)];
+        this.examCountByDay = new int[days];
+    }
+
+    public void place(int exam, int day) {
+        BitSets.set(examsByDay[day], exam);
+        examCountByDay[day]++;
+    }
+
+    public void remove(int exam, int day) {
+        BitSets.clear(examsByDay[day], exam);
+        examCountByDay[day]--;
+    }
+
+    public long[] exams(int day) {
+        return examsByDay[day];
+    }
+
+    public int count(int day) {
+        return examCountByDay[day];
+    }
+
+    public int days() {
+        return examCountByDay.length;
+    }
+}
@@ -0,0 +1,119 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Записи студентов на экзамены в компактном виде:
+// экзамены и студенты пронумерованы плотными int, для каждого экзамена - int[] студентов.
+// Индекс экзамена - позиция его id в отсортированном массиве examIds.
+public final class EnrollmentIndex {
+    private final long[] examIds;
+    private final int[][] examStudents;
+    private final String[] studentNames;
+    private final String[] studentPrograms;
+
+    private EnrollmentIndex(long[] examIds, int[][] examStudents, String[] studentNames, String[] studentPrograms) {
+        this.examIds = examIds;
+        this.examStudents = examStudents;
+        this.studentNames = studentNames;
+        this.studentPrograms = studentPrograms;
+    }
+
+    public int examCount() {
+        return examStudents.length;
+    }
+
+    public int studentCount() {
+        return studentNames.length;
+    }
+
+    // -1, если экзамен не входит в индекс
+    public int indexOf(long examId) {
+        int index = Arrays.binarySearch(examIds, examId);
+        return index < 0 ? -1 : index;
+    }
+
+    public int[] students(int exam) {
+        return examStudents[exam];
+    }
+
+    public int studentCount(int exam) {
+        return examStudents[exam].length;
+    }
+
+    public String studentName(int student) {
+        return studentNames[student];
+    }
+
+    // Образовательная программа студента; null, если не указана
+    public String studentProgram(int student) {
+        return studentPrograms[student];
+    }
+
+    public int[][] examStudents() {
+        return examStudents;
+    }
+
+    // examIds должны быть отсортированы по возрастанию
+    public static Builder builder(long[] examIds) {
+        return new Builder(examIds);
+    }
+
+    public static final class Builder {
+        private final long[] examIds;
+        private final Map<String, Integer> studentIndexById = new HashMap<>();
+        private final int[][] students;
+        private final int[] sizes;
+        private String[] names = new String[16];
+        private String[] programs = new String[16];
+
+        private Builder(long[] examIds) {
+            this.examIds = examIds;
+            this.students = new int[examIds.length][];
+            this.sizes = new int[examIds.length];
+        }
+
+        // Записи по неизвестным экзаменам пропускаются
+        public Builder add(long examId, String studentId, String studentName, String studentProgram) {
+            int exam = Arrays.binarySearch(examIds, examId);
+            if (exam < 0) {
+                return this;
+            }
+            int student = intern(studentId, studentName, studentProgram);
+            int[] list = students[exam];
+            if (list == null) {
+                list = students[exam] = new int[8];
+            } else if (sizes[exam] == list.length) {
+                list = students[exam] = Arrays.copyOf(list, list.length * 2);
+            }
+            list[sizes[exam]++] = student;
+            return this;
+        }
+
+        private int intern(String studentId, String studentName, String studentProgram) {
+            Integer index = studentIndexById.get(studentId);
+            if (index != null) {
+                return index;
+            }
+            int next = studentIndexById.size();
+            studentIndexById.put(studentId, next);
+            if (next == names.length) {
+                names = Arrays.copyOf(names, names.length * 2);
+                programs = Arrays.copyOf(programs, programs.length * 2);
+            }
+            names[next] = studentName;
+            programs[next] = studentProgram;
+            return next;
+        }
+
+        public EnrollmentIndex build() {
+            int[][] examStudents = new int[students.length][];
+            for (int e = 0; e < students.length; e++) {
+                examStudents[e] = students[e] == null ? new int[0] : Arrays.copyOf(students[e], sizes[e]);
+            }
+            return new EnrollmentIndex(examIds, examStudents,
+                    Arrays.copyOf(names, studentIndexById.size()), Arrays.copyOf(programs, studentIndexById.size()));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+// Рабочие дни сессии: день планирования d - d-я по счету дата, начиная с first,
+// которая не выходной и не закрытая дата. Выходные и закрытые даты в задачу не попадают.
+public final class ExamCalendar {
+    private final LocalDate[] dates;
+
+    // Не меньше minDays рабочих дней и не раньше, чем до даты last включительно (last может быть null)
+    public ExamCalendar(LocalDate first, int minDays, LocalDate last, Set<DayOfWeek> weekends, Set<LocalDate> blackout) {
+        if (weekends.size() >= DayOfWeek.values().length) {
+            throw new IllegalArgumentException("Все дни недели выходные");
+        }
+        List<LocalDate> days = new ArrayList<>(minDays);
+        LocalDate date = first;
+        while (days.size() < minDays || last != null && !date.isAfter(last)) {
+            if (!weekends.contains(date.getDayOfWeek()) && !blackout.contains(date)) {
+                days.add(date);
+            }
+            date = date.plusDays(1);
+        }
+        this.dates = days.toArray(new LocalDate[0]);
+    }
+
+    public int dayCount() {
+        return dates.length;
+    }
+
+    public LocalDate date(int day) {
+        return dates[day];
+    }
+
+    // -1, если дата нерабочая или вне календаря
+    public int dayIndex(LocalDate date) {
+        int day = Arrays.binarySearch(dates, date);
+        return day < 0 ? -1 : day;
+    }
+}
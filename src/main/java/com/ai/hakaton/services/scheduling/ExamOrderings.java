@@ -0,0 +1,62 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
+
+// Порядки обхода экзаменов для жадной расстановки
+public final class ExamOrderings {
+
+    private ExamOrderings() {
+    }
+
+    // Сначала большие группы (исходный порядок сервиса)
+    public static int[] byStudentCount(ScheduleProblem problem) {
+        return sortByKeyDescending(problem.examCount(), problem::studentCount);
+    }
+
+    // Сначала экзамены с наибольшим числом конфликтов
+    public static int[] byDegree(ScheduleProblem problem) {
+        ConflictGraph graph = problem.conflictGraph();
+        return sortByKeyDescending(problem.examCount(), graph::degree);
+    }
+
+    // Степень в графе, умноженная на случайный коэффициент 0.5..1.5
+    public static int[] randomizedDegree(ScheduleProblem problem, long seed) {
+        Random random = new Random(seed);
+        ConflictGraph graph = problem.conflictGraph();
+        double[] keys = new double[problem.examCount()];
+        for (int e = 0; e < keys.length; e++) {
+            keys[e] = (graph.degree(e) + 1) * (0.5 + random.nextDouble());
+        }
+        Integer[] order = boxedIndexes(keys.length);
+        Arrays.sort(order, (a, b) -> Double.compare(keys[b], keys[a]));
+        return unbox(order);
+    }
+
+    private static int[] sortByKeyDescending(int size, IntUnaryOperator key) {
+        int[] keys = new int[size];
+        for (int e = 0; e < size; e++) {
+            keys[e] = key.applyAsInt(e);
+        }
+        Integer[] order = boxedIndexes(size);
+        Arrays.sort(order, (a, b) -> Integer.compare(keys[b], keys[a]));
+        return unbox(order);
+    }
+
+    private static Integer[] boxedIndexes(int size) {
+        Integer[] order = new Integer[size];
+        for (int e = 0; e < size; e++) {
+            order[e] = e;
+        }
+        return order;
+    }
+
+    private static int[] unbox(Integer[] order) {
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+}
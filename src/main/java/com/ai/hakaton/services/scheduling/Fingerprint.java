@@ -0,0 +1,36 @@
+package com.ai.hakaton.services.scheduling;
+
+// 128-битный отпечаток входных данных планирования.
+// Упорядоченная часть зависит от порядка значений, неупорядоченная - сумма перемешанных
+// значений, поэтому записи можно добавлять в любом порядке (потоковый запрос без ORDER BY).
+public final class Fingerprint {
+    private long ordered = 0x9E3779B97F4A7C15L;
+    private long unordered;
+    private long count;
+
+    public Fingerprint add(long value) {
+        ordered = mix(ordered ^ mix(value + count++));
+        return this;
+    }
+
+    public Fingerprint add(String value) {
+        return add(value == null ? -1L : value.hashCode() ^ ((long) value.length() << 32));
+    }
+
+    public Fingerprint addUnordered(long first, String second) {
+        long secondHash = second == null ? -1L : second.hashCode() ^ ((long) second.length() << 32);
+        unordered += mix(mix(first) ^ secondHash);
+        return this;
+    }
+
+    public String value() {
+        return String.format("%016x%016x", mix(ordered ^ count), mix(unordered));
+    }
+
+    // Финализатор splitmix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
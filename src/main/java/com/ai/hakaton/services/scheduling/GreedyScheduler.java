@@ -0,0 +1,467 @@
+package com.ai.hakaton.services.scheduling;
+
+// Жадная расстановка: каждый экзамен ставится в первый допустимый день, в первый подходящий слот.
+// Экзамены с общими студентами могут стоять в один день, если не пересекаются по времени
+// и у студентов не превышен дневной лимит (maxExamsPerStudentPerDay).
+// Экзамен занимает одну аудиторию; если в день нет времени, когда свободна подходящая,
+// он делится между несколькими свободными аудиториями одного типа (RoomTimetable.pack).
+// С целевой функцией (ScheduleEvaluator) ее штраф обновляется при каждой постановке и снятии,
+// а tryPlace выбирает допустимый день с наименьшим приростом штрафа вместо первого.
+// Состояние одного прогона; для параллельных прогонов создается отдельный экземпляр.
+public final class GreedyScheduler {
+    private final ScheduleProblem problem;
+    private final ConflictGraph conflictGraph;
+    private final Schedule schedule;
+    private final DayOccupancy occupancy;
+    private final RoomTimetable rooms;
+    private final long[][] sectionsByDay;
+    private final int[][] examsByDay;
+    // Число экзаменов студента в день [день][студент]; null, если больше одного в день нельзя
+    private final byte[][] studentExamsByDay;
+    // null - без целевой функции
+    private final ScheduleEvaluator evaluator;
+    private ScheduleProgress progress;
+    private int placed;
+    // Проверки допустимости (день, время) для текущего экзамена
+    private int checks;
+
+    public GreedyScheduler(ScheduleProblem problem) {
+        this(problem, null);
+    }
+
+    // evaluator - пустое состояние целевой функции для этой задачи
+    public GreedyScheduler(ScheduleProblem problem, ScheduleEvaluator evaluator) {
+        this.problem = problem;
+        this.evaluator = evaluator;
+        this.conflictGraph = problem.conflictGraph();
+        this.schedule = new Schedule(problem.examCount());
+        this.occupancy = new DayOccupancy(problem.dayCount(), problem.examCount());
+        this.rooms = new RoomTimetable(problem);
+        this.sectionsByDay = new long[problem.dayCount()][BitSets.words(problem.sectionCount())];
+        this.examsByDay = new int[problem.dayCount()][problem.maxExamsPerDay()];
+        this.studentExamsByDay = problem.maxExamsPerStudentPerDay() > 1
+                ? new byte[problem.dayCount()][problem.studentCount()] : null;
+    }
+
+    // Состояние по готовому расписанию (для локального поиска); допустимость не проверяется
+    public static GreedyScheduler of(ScheduleProblem problem, Schedule schedule) {
+        return of(problem, schedule, null);
+    }
+
+    public static GreedyScheduler of(ScheduleProblem problem, Schedule schedule, ScheduleEvaluator evaluator) {
+        GreedyScheduler scheduler = new GreedyScheduler(problem, evaluator);
+        for (int e = 0; e < schedule.examCount(); e++) {
+            if (schedule.isScheduled(e)) {
+                scheduler.place(e, schedule.day(e), schedule.startMinute(e), schedule.rooms(e));
+            }
+        }
+        return scheduler;
+    }
+
+    // Расстановка в заданном порядке
+    public static Schedule run(ScheduleProblem problem, int[] order) {
+        return run(problem, order, null);
+    }
+
+    public static Schedule run(ScheduleProblem problem, int[] order, ScheduleProgress progress) {
+        GreedyScheduler scheduler = new GreedyScheduler(problem);
+        scheduler.progress = progress;
+        for (int exam : order) {
+            scheduler.tryPlace(exam);
+        }
+        scheduler.reportProgress();
+        return scheduler.schedule;
+    }
+
+    // DSatur: следующим берется экзамен с наибольшим числом дней, занятых конфликтующими экзаменами,
+    // при равенстве - с наибольшей степенью в графе конфликтов
+    public static Schedule runDsatur(ScheduleProblem problem) {
+        return runDsatur(problem, null);
+    }
+
+    public static Schedule runDsatur(ScheduleProblem problem, ScheduleProgress progress) {
+        GreedyScheduler scheduler = new GreedyScheduler(problem);
+        scheduler.progress = progress;
+        ConflictGraph graph = problem.conflictGraph();
+        int examCount = problem.examCount();
+        long[][] blockedDays = new long[examCount][BitSets.words(problem.dayCount())];
+        long[] fullDays = new long[BitSets.words(problem.dayCount())];
+        long[] saturated = new long[fullDays.length];
+        boolean[] done = new boolean[examCount];
+
+        for (int step = 0; step < examCount; step++) {
+            int best = -1;
+            int bestSaturation = -1;
+            for (int e = 0; e < examCount; e++) {
+                if (done[e]) {
+                    continue;
+                }
+                for (int w = 0; w < saturated.length; w++) {
+                    saturated[w] = blockedDays[e][w] | fullDays[w];
+                }
+                int saturation = BitSets.cardinality(saturated);
+                if (saturation > bestSaturation
+                        || saturation == bestSaturation && graph.degree(e) > graph.degree(best)) {
+                    best = e;
+                    bestSaturation = saturation;
+                }
+            }
+            done[best] = true;
+            if (!scheduler.tryPlace(best)) {
+                continue;
+            }
+            int day = scheduler.schedule.day(best);
+            if (scheduler.occupancy.count(day) >= problem.maxExamsPerDay()) {
+                BitSets.set(fullDays, day);
+            }
+            long[] neighbours = graph.neighbours(best);
+            for (int w = 0; w < neighbours.length; w++) {
+                long word = neighbours[w];
+                while (word != 0) {
+                    int neighbour = (w << 6) + Long.numberOfTrailingZeros(word);
+                    BitSets.set(blockedDays[neighbour], day);
+                    word &= word - 1;
+                }
+            }
+        }
+        scheduler.reportProgress();
+        return scheduler.schedule;
+    }
+
+    // Ставит экзамен в первый день, где выполнены все ограничения;
+    // с целевой функцией - в самый дешевый из таких дней
+    public boolean tryPlace(int exam) {
+        checks = 0;
+        boolean placed = evaluator != null ? tryPlaceCheapest(exam) : tryPlaceFirst(exam);
+        reportChecks();
+        return placed;
+    }
+
+    private boolean tryPlaceFirst(int exam) {
+        for (int day = 0; day < problem.dayCount(); day++) {
+            if (tryPlace(exam, day)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // При равной стоимости выигрывает более ранний день
+    private boolean tryPlaceCheapest(int exam) {
+        int bestDay = -1;
+        int bestStart = -1;
+        int[] bestRooms = null;
+        long bestCost = Long.MAX_VALUE;
+        for (int day = 0; day < problem.dayCount() && bestCost > 0; day++) {
+            if (!canScheduleExam(exam, day)) {
+                continue;
+            }
+            int start = findAvailableTime(exam, day);
+            if (start < 0) {
+                continue;
+            }
+            int[] examRooms = findAvailableRooms(exam, day, start);
+            long cost = evaluator.cost(exam, day, start, examRooms);
+            if (cost < bestCost) {
+                bestDay = day;
+                bestStart = start;
+                bestRooms = examRooms;
+                bestCost = cost;
+            }
+        }
+        if (bestDay < 0) {
+            return false;
+        }
+        place(exam, bestDay, bestStart, bestRooms);
+        return true;
+    }
+
+    // Ставит экзамен в заданный день на самое раннее допустимое время
+    public boolean tryPlace(int exam, int day) {
+        if (!canScheduleExam(exam, day)) {
+            return false;
+        }
+        int start = findAvailableTime(exam, day);
+        if (start < 0) {
+            return false;
+        }
+        place(exam, day, start, findAvailableRooms(exam, day, start));
+        return true;
+    }
+
+    // Можно ли оставить экзамен на заданном месте (день, время, аудитория)
+    public boolean fits(int exam, int day, int start, int room) {
+        return fits(exam, day, start, new int[]{room});
+    }
+
+    // То же для экзамена в нескольких аудиториях: аудитории разные, одного типа и вместе вмещают всех
+    public boolean fits(int exam, int day, int start, int[] examRooms) {
+        if (day < 0 || day >= problem.dayCount() || examRooms == null || examRooms.length == 0) {
+            return false;
+        }
+        int capacity = 0;
+        for (int i = 0; i < examRooms.length; i++) {
+            int room = examRooms[i];
+            if (room < 0 || room >= problem.roomCount()
+                    || problem.roomType(room) != problem.roomType(examRooms[0])
+                    || !rooms.isFree(day, room, start, start + problem.duration(exam))) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (examRooms[j] == room) {
+                    return false;
+                }
+            }
+            capacity += problem.roomCapacity(room);
+        }
+        return capacity >= problem.studentCount(exam)
+                && canScheduleExam(exam, day)
+                && start + problem.duration(exam) <= problem.dayEndMinute()
+                && !instructorBusy(exam, day, start)
+                && !studentsBusy(exam, day, start);
+    }
+
+    public boolean canScheduleExam(int exam, int day) {
+        checks++;
+        //Ограничение по количеству экзаменов в день
+        if (occupancy.count(day) >= problem.maxExamsPerDay()) {
+            return false;
+        }
+        //Ограничение по пересечению студентов: общий день возможен только в пределах дневного лимита,
+        //время проверяется при выборе слота
+        if (conflictGraph.conflictsWith(exam, occupancy.exams(day)) && !studentsCanShareDay(exam, day)) {
+            return false;
+        }
+        //Ограничение на дублирование предметов в один день
+        return !BitSets.get(sectionsByDay[day], problem.section(exam));
+    }
+
+    // Какое ограничение не дает поставить экзамен в этот день (и время, если start >= 0);
+    // null, если поставить можно. Нужно для объяснения отказа, в поиске не используется
+    public String violation(int exam, int day, int start) {
+        if (day < 0 || day >= problem.dayCount()) {
+            return "дата вне календаря экзаменов";
+        }
+        if (occupancy.count(day) >= problem.maxExamsPerDay()) {
+            return "лимит экзаменов в день";
+        }
+        if (BitSets.get(sectionsByDay[day], problem.section(exam))) {
+            return "у секции уже есть экзамен в этот день";
+        }
+        if (conflictGraph.conflictsWith(exam, occupancy.exams(day)) && !studentsCanShareDay(exam, day)) {
+            return "лимит экзаменов студента в день";
+        }
+        if (start < 0) {
+            return findAvailableTime(exam, day) >= 0 ? null
+                    : "нет времени, когда свободны преподаватель, студенты и аудитория";
+        }
+        if (start + problem.duration(exam) > problem.dayEndMinute()) {
+            return "экзамен заканчивается после конца дня";
+        }
+        if (instructorBusy(exam, day, start)) {
+            return "преподаватель занят";
+        }
+        if (studentsBusy(exam, day, start)) {
+            return "студенты заняты на другом экзамене";
+        }
+        return findAvailableRooms(exam, day, start) == null ? "нет свободной аудитории нужной вместимости" : null;
+    }
+
+    private boolean studentsCanShareDay(int exam, int day) {
+        if (studentExamsByDay == null) {
+            return false;
+        }
+        byte[] counts = studentExamsByDay[day];
+        for (int s : problem.students(exam)) {
+            if (counts[s] >= problem.maxExamsPerStudentPerDay()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Единственный экзамен дня, из-за которого нельзя поставить exam (общие студенты или та же секция):
+    // -1, если таких нет, -2, если их несколько
+    public int soleBlocker(int exam, int day) {
+        long[] neighbours = conflictGraph.neighbours(exam);
+        long[] dayExams = occupancy.exams(day);
+        int blocker = -1;
+        for (int w = 0; w < neighbours.length; w++) {
+            long word = neighbours[w] & dayExams[w];
+            while (word != 0) {
+                if (blocker >= 0) {
+                    return -2;
+                }
+                blocker = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        if (BitSets.get(sectionsByDay[day], problem.section(exam))) {
+            for (int i = 0; i < occupancy.count(day); i++) {
+                int other = examsByDay[day][i];
+                if (other != blocker && problem.section(other) == problem.section(exam)) {
+                    if (blocker >= 0) {
+                        return -2;
+                    }
+                    blocker = other;
+                }
+            }
+        }
+        return blocker;
+    }
+
+    // Один проктор, одна аудитория: экзамены преподавателя не пересекаются и не стыкуются
+    private boolean instructorBusy(int exam, int day, int start) {
+        int end = start + problem.duration(exam);
+        for (int i = 0; i < occupancy.count(day); i++) {
+            int other = examsByDay[day][i];
+            if (problem.instructor(other) != problem.instructor(exam)) {
+                continue;
+            }
+            int otherStart = schedule.startMinute(other);
+            int otherEnd = otherStart + problem.duration(other);
+            if (start < otherEnd && end > otherStart || start == otherEnd || end == otherStart) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Студенты экзамена уже сидят на другом экзамене, пересекающемся по времени
+    private boolean studentsBusy(int exam, int day, int start) {
+        int end = start + problem.duration(exam);
+        long[] neighbours = conflictGraph.neighbours(exam);
+        long[] dayExams = occupancy.exams(day);
+        for (int w = 0; w < neighbours.length; w++) {
+            long word = neighbours[w] & dayExams[w];
+            while (word != 0) {
+                int other = (w << 6) + Long.numberOfTrailingZeros(word);
+                int otherStart = schedule.startMinute(other);
+                if (start < otherStart + problem.duration(other) && end > otherStart) {
+                    return true;
+                }
+                word &= word - 1;
+            }
+        }
+        return false;
+    }
+
+    // Самый ранний слот, когда свободны студенты, преподаватель и подходящая аудитория; -1 если нет.
+    // Деление между аудиториями - только если за весь день не нашлось слота с одной аудиторией
+    public int findAvailableTime(int exam, int day) {
+        int start = findAvailableTime(exam, day, false);
+        return start >= 0 ? start : findAvailableTime(exam, day, true);
+    }
+
+    private int findAvailableTime(int exam, int day, boolean split) {
+        int duration = problem.duration(exam);
+        for (int slot = 0; slot < problem.slotCount(); slot++) {
+            int start = problem.slotStart(slot);
+            //Ограничение по времени работы
+            if (start + duration > problem.dayEndMinute()) {
+                break;
+            }
+            checks++;
+            if (!instructorBusy(exam, day, start) && !studentsBusy(exam, day, start)
+                    && (split ? packAuditoriums(exam, day, start) != null
+                    : findAvailableAuditorium(exam, day, start) >= 0)) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    // Наименьшая по вместимости аудитория, свободная на время экзамена; -1 если нет
+    public int findAvailableAuditorium(int exam, int day, int start) {
+        return rooms.bestFit(problem.studentCount(exam), day, start, start + problem.duration(exam));
+    }
+
+    // Аудитории для экзамена: одна наименьшая подходящая, иначе несколько одного типа; null если нет
+    public int[] findAvailableRooms(int exam, int day, int start) {
+        int room = findAvailableAuditorium(exam, day, start);
+        return room >= 0 ? new int[]{room} : packAuditoriums(exam, day, start);
+    }
+
+    private int[] packAuditoriums(int exam, int day, int start) {
+        return rooms.pack(problem.studentCount(exam), day, start, start + problem.duration(exam));
+    }
+
+    public void place(int exam, int day, int start, int room) {
+        place(exam, day, start, new int[]{room});
+    }
+
+    public void place(int exam, int day, int start, int[] examRooms) {
+        examsByDay[day][occupancy.count(day)] = exam;
+        occupancy.place(exam, day);
+        for (int room : examRooms) {
+            rooms.occupy(day, room, start, start + problem.duration(exam));
+        }
+        BitSets.set(sectionsByDay[day], problem.section(exam));
+        countStudents(exam, day, 1);
+        schedule.assign(exam, day, start, examRooms);
+        if (evaluator != null) {
+            evaluator.place(exam, day, start, examRooms);
+        }
+        // Прогресс публикуется пачками, чтобы параллельные прогоны не спорили за счетчик
+        if ((++placed & 63) == 0) {
+            reportProgress();
+        }
+    }
+
+    // Снимает экзамен с его места; обратная операция к place
+    public void remove(int exam) {
+        int day = schedule.day(exam);
+        int[] dayExams = examsByDay[day];
+        int last = occupancy.count(day) - 1;
+        for (int i = 0; i <= last; i++) {
+            if (dayExams[i] == exam) {
+                dayExams[i] = dayExams[last];
+                break;
+            }
+        }
+        occupancy.remove(exam, day);
+        int start = schedule.startMinute(exam);
+        int[] examRooms = schedule.rooms(exam);
+        for (int room : examRooms) {
+            rooms.release(day, room, start);
+        }
+        if (evaluator != null) {
+            evaluator.remove(exam, day, start, examRooms);
+        }
+        BitSets.clear(sectionsByDay[day], problem.section(exam));
+        countStudents(exam, day, -1);
+        schedule.unassign(exam);
+        placed--;
+    }
+
+    private void countStudents(int exam, int day, int delta) {
+        if (studentExamsByDay == null) {
+            return;
+        }
+        byte[] counts = studentExamsByDay[day];
+        for (int s : problem.students(exam)) {
+            counts[s] += delta;
+        }
+    }
+
+    private void reportChecks() {
+        if (progress != null) {
+            progress.feasibilityChecks(checks);
+        }
+    }
+
+    private void reportProgress() {
+        if (progress != null) {
+            progress.examsPlaced(placed);
+        }
+    }
+
+    public Schedule schedule() {
+        return schedule;
+    }
+
+    // null, если расстановка без целевой функции
+    public ScheduleEvaluator evaluator() {
+        return evaluator;
+    }
+}
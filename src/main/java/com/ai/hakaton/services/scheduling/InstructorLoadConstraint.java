@@ -0,0 +1,41 @@
+package com.ai.hakaton.services.scheduling;
+
+// Нагрузка преподавателя: штраф - число экзаменов сверх dailyLimit у каждого преподавателя в каждый день
+public final class InstructorLoadConstraint implements ScheduleConstraint {
+    public static final String NAME = "instructor-load";
+
+    private final ScheduleProblem problem;
+    private final int dailyLimit;
+    // Экзамены преподавателя в день [преподаватель][день]
+    private final int[][] examsByDay;
+
+    public InstructorLoadConstraint(ScheduleProblem problem, int dailyLimit) {
+        this.problem = problem;
+        this.dailyLimit = Math.max(0, dailyLimit);
+        int instructorCount = 0;
+        for (int e = 0; e < problem.examCount(); e++) {
+            instructorCount = Math.max(instructorCount, problem.instructor(e) + 1);
+        }
+        this.examsByDay = new int[instructorCount][problem.dayCount()];
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public long cost(int exam, int day, int start, int[] rooms) {
+        return examsByDay[problem.instructor(exam)][day] >= dailyLimit ? 1 : 0;
+    }
+
+    @Override
+    public long place(int exam, int day, int start, int[] rooms) {
+        return examsByDay[problem.instructor(exam)][day]++ >= dailyLimit ? 1 : 0;
+    }
+
+    @Override
+    public long remove(int exam, int day, int start, int[] rooms) {
+        return --examsByDay[problem.instructor(exam)][day] >= dailyLimit ? -1 : 0;
+    }
+}
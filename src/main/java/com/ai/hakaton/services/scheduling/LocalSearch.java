@@ -0,0 +1,242 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.Random;
+
+// Улучшение готового расписания имитацией отжига в пределах бюджета времени.
+// Ходы: перенос экзамена в другой день, обмен днями двух экзаменов, вставка неназначенного
+// экзамена (при необходимости с вытеснением единственного мешающего). Время и аудитория
+// при каждом ходе подбираются заново (best-fit), поэтому отдельный обмен аудиториями не нужен.
+// Цель - меньше неназначенных, затем меньше штраф ScheduleObjective (по умолчанию - пары "подряд",
+// как в ScheduleScore). Штраф обновляется инкрементально при каждой постановке и снятии экзамена,
+// поэтому ход стоит столько, сколько студентов у переставленных экзаменов.
+// Температура зависит от масштаба целевой функции: начальная подбирается по среднему ухудшению
+// пробных переносов исходного расписания так, чтобы такое ухудшение принималось с вероятностью
+// START_ACCEPTANCE. Ухудшения на жестком уровне в выборку не входят и отжигом не принимаются.
+public final class LocalSearch {
+    private static final int TEMPERATURE_SAMPLES = 200;
+    private static final double START_ACCEPTANCE = 0.5;
+    // Конечная температура - доля начальной
+    private static final double COOLING = 0.025;
+
+    private final ScheduleProblem problem;
+    private final GreedyScheduler state;
+    private final ScheduleEvaluator evaluator;
+    private final Schedule schedule;
+    private final Random random;
+    private int unscheduled;
+    private final double startTemperature;
+    private double temperature;
+
+    private Schedule best;
+    private int bestUnscheduled;
+    private long bestPenalty;
+
+    private LocalSearch(ScheduleProblem problem, Schedule initial, long seed, ScheduleObjective objective) {
+        this.problem = problem;
+        this.state = GreedyScheduler.of(problem, initial, objective.evaluator(problem));
+        this.evaluator = state.evaluator();
+        this.schedule = state.schedule();
+        this.random = new Random(seed);
+        for (int e = 0; e < problem.examCount(); e++) {
+            if (!schedule.isScheduled(e)) {
+                unscheduled++;
+            }
+        }
+        this.best = schedule.copy();
+        this.bestUnscheduled = unscheduled;
+        this.bestPenalty = evaluator.penalty();
+        this.startTemperature = sampleTemperature();
+        this.temperature = startTemperature;
+    }
+
+    // Пробные переносы экзаменов в другой день с откатом: среднее ухудшение задает начальную температуру
+    private double sampleTemperature() {
+        long sum = 0;
+        int count = 0;
+        for (int i = 0; i < TEMPERATURE_SAMPLES; i++) {
+            int exam = random.nextInt(problem.examCount());
+            if (!schedule.isScheduled(exam)) {
+                continue;
+            }
+            int day = schedule.day(exam);
+            int start = schedule.startMinute(exam);
+            int[] rooms = schedule.rooms(exam);
+            long before = evaluator.penalty();
+            state.remove(exam);
+            if (state.tryPlace(exam, randomOtherDay(day))) {
+                long delta = evaluator.penalty() - before;
+                if (delta > 0 && delta < ScheduleObjective.HARD_WEIGHT) {
+                    sum += delta;
+                    count++;
+                }
+                state.remove(exam);
+            }
+            state.place(exam, day, start, rooms);
+        }
+        double uphill = count == 0 ? 1.0 : (double) sum / count;
+        return uphill / -Math.log(START_ACCEPTANCE);
+    }
+
+    public static Schedule improve(ScheduleProblem problem, Schedule initial, long budgetMillis, long seed) {
+        return improve(problem, initial, budgetMillis, seed, new ScheduleProgress());
+    }
+
+    public static Schedule improve(ScheduleProblem problem, Schedule initial, long budgetMillis, long seed,
+                                   ScheduleProgress progress) {
+        return improve(problem, initial, budgetMillis, seed, ScheduleObjective.backToBack(), progress);
+    }
+
+    public static Schedule improve(ScheduleProblem problem, Schedule initial, long budgetMillis, long seed,
+                                   ScheduleObjective objective, ScheduleProgress progress) {
+        if (budgetMillis <= 0 || problem.examCount() < 2 || problem.dayCount() < 2) {
+            return initial;
+        }
+        progress.phase("улучшение");
+        LocalSearch search = new LocalSearch(problem, initial, seed, objective);
+        search.run(budgetMillis);
+        return search.best;
+    }
+
+    private void run(long budgetMillis) {
+        long begin = System.nanoTime();
+        long budget = budgetMillis * 1_000_000L;
+        for (long iteration = 0; ; iteration++) {
+            if ((iteration & 255) == 0) {
+                long elapsed = System.nanoTime() - begin;
+                if (elapsed >= budget) {
+                    return;
+                }
+                // Геометрическое охлаждение по доле израсходованного времени
+                temperature = startTemperature * Math.pow(COOLING, (double) elapsed / budget);
+            }
+            double kind = random.nextDouble();
+            if (unscheduled > 0 && kind < 0.2) {
+                insertMove();
+            } else if (kind < 0.7) {
+                moveDay();
+            } else {
+                swapDays();
+            }
+        }
+    }
+
+    // Перенос экзамена в случайный другой день
+    private void moveDay() {
+        int exam = random.nextInt(problem.examCount());
+        if (!schedule.isScheduled(exam)) {
+            return;
+        }
+        int day = schedule.day(exam);
+        int start = schedule.startMinute(exam);
+        int[] rooms = schedule.rooms(exam);
+        int target = randomOtherDay(day);
+        long before = evaluator.penalty();
+
+        state.remove(exam);
+        if (!state.tryPlace(exam, target)) {
+            state.place(exam, day, start, rooms);
+            return;
+        }
+        if (accept(evaluator.penalty() - before)) {
+            recordBest();
+        } else {
+            state.remove(exam);
+            state.place(exam, day, start, rooms);
+        }
+    }
+
+    // Обмен днями двух экзаменов
+    private void swapDays() {
+        int first = random.nextInt(problem.examCount());
+        int second = random.nextInt(problem.examCount());
+        if (!schedule.isScheduled(first) || !schedule.isScheduled(second)
+                || schedule.day(first) == schedule.day(second)) {
+            return;
+        }
+        int firstDay = schedule.day(first);
+        int firstStart = schedule.startMinute(first);
+        int[] firstRooms = schedule.rooms(first);
+        int secondDay = schedule.day(second);
+        int secondStart = schedule.startMinute(second);
+        int[] secondRooms = schedule.rooms(second);
+        long before = evaluator.penalty();
+
+        state.remove(first);
+        state.remove(second);
+        boolean firstPlaced = state.tryPlace(first, secondDay);
+        boolean secondPlaced = firstPlaced && state.tryPlace(second, firstDay);
+        if (!secondPlaced) {
+            if (firstPlaced) {
+                state.remove(first);
+            }
+            state.place(first, firstDay, firstStart, firstRooms);
+            state.place(second, secondDay, secondStart, secondRooms);
+            return;
+        }
+        if (accept(evaluator.penalty() - before)) {
+            recordBest();
+        } else {
+            state.remove(first);
+            state.remove(second);
+            state.place(first, firstDay, firstStart, firstRooms);
+            state.place(second, secondDay, secondStart, secondRooms);
+        }
+    }
+
+    // Вставка неназначенного экзамена: в случайный день, а если мешает ровно один экзамен -
+    // вытесняем его и ставим в любой другой подходящий день. Число неназначенных не растет.
+    private void insertMove() {
+        int exam = randomUnscheduled();
+        int day = random.nextInt(problem.dayCount());
+        if (state.tryPlace(exam, day)) {
+            unscheduled--;
+            recordBest();
+            return;
+        }
+        int blocker = state.soleBlocker(exam, day);
+        if (blocker < 0) {
+            return;
+        }
+        int blockerStart = schedule.startMinute(blocker);
+        int[] blockerRooms = schedule.rooms(blocker);
+        state.remove(blocker);
+        if (!state.tryPlace(exam, day)) {
+            state.place(blocker, day, blockerStart, blockerRooms);
+            return;
+        }
+        if (state.tryPlace(blocker)) {
+            unscheduled--;
+            recordBest();
+            return;
+        }
+        state.remove(exam);
+        state.place(blocker, day, blockerStart, blockerRooms);
+    }
+
+    private int randomUnscheduled() {
+        int exam = random.nextInt(problem.examCount());
+        while (schedule.isScheduled(exam)) {
+            exam = exam + 1 == problem.examCount() ? 0 : exam + 1;
+        }
+        return exam;
+    }
+
+    private int randomOtherDay(int day) {
+        int other = random.nextInt(problem.dayCount() - 1);
+        return other >= day ? other + 1 : other;
+    }
+
+    // Ухудшение принимается с вероятностью exp(-delta / T)
+    private boolean accept(long delta) {
+        return delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature);
+    }
+
+    private void recordBest() {
+        long penalty = evaluator.penalty();
+        if (unscheduled < bestUnscheduled || unscheduled == bestUnscheduled && penalty < bestPenalty) {
+            best = schedule.copy();
+            bestUnscheduled = unscheduled;
+            bestPenalty = penalty;
+        }
+    }
+}
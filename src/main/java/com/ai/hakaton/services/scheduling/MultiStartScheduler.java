@@ -0,0 +1,141 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Параллельный мультистарт: много жадных прогонов с разными порядками экзаменов
+// на ForkJoinPool поверх общей неизменяемой ScheduleProblem; остается лучший: меньше неназначенных,
+// затем меньше штраф целевой функции (по умолчанию - пары экзаменов в соседние дни, как в ScheduleScore).
+// Старт 0 - исходный порядок по числу студентов, 1 - по степени, 2 - DSatur, остальные - случайные.
+public final class MultiStartScheduler {
+
+    private MultiStartScheduler() {
+    }
+
+    public static Result solve(ScheduleProblem problem, int starts, long seed, ForkJoinPool pool) {
+        return solve(problem, starts, seed, pool, new ScheduleProgress());
+    }
+
+    public static Result solve(ScheduleProblem problem, int starts, long seed, ForkJoinPool pool,
+                               ScheduleProgress progress) {
+        return solve(problem, starts, seed, pool, progress, ScheduleObjective.backToBack());
+    }
+
+    public static Result solve(ScheduleProblem problem, int starts, long seed, ForkJoinPool pool,
+                               ScheduleProgress progress, ScheduleObjective objective) {
+        progress.startsTotal(Math.max(1, starts));
+        return pool.invoke(new StartsTask(problem, seed, 0, Math.max(1, starts), progress, objective));
+    }
+
+    public static Result runStart(ScheduleProblem problem, long seed, int start) {
+        return runStart(problem, seed, start, new ScheduleProgress());
+    }
+
+    public static Result runStart(ScheduleProblem problem, long seed, int start, ScheduleProgress progress) {
+        return runStart(problem, seed, start, progress, ScheduleObjective.backToBack());
+    }
+
+    public static Result runStart(ScheduleProblem problem, long seed, int start, ScheduleProgress progress,
+                                  ScheduleObjective objective) {
+        Schedule schedule;
+        String strategy;
+        switch (start) {
+            case 0:
+                schedule = GreedyScheduler.run(problem, ExamOrderings.byStudentCount(problem), progress);
+                strategy = "по числу студентов";
+                break;
+            case 1:
+                schedule = GreedyScheduler.run(problem, ExamOrderings.byDegree(problem), progress);
+                strategy = "по степени";
+                break;
+            case 2:
+                schedule = GreedyScheduler.runDsatur(problem, progress);
+                strategy = "DSatur";
+                break;
+            default:
+                schedule = GreedyScheduler.run(problem, ExamOrderings.randomizedDegree(problem, seed + start), progress);
+                strategy = "случайный #" + start;
+        }
+        ScheduleScore score = ScheduleScore.evaluate(problem, schedule);
+        progress.startDone(score);
+        return new Result(schedule, score, objective.evaluate(problem, schedule).penalty(), strategy, start);
+    }
+
+    public static final class Result {
+        private final Schedule schedule;
+        private final ScheduleScore score;
+        private final long penalty;
+        private final String strategy;
+        private final int start;
+
+        Result(Schedule schedule, ScheduleScore score, long penalty, String strategy, int start) {
+            this.schedule = schedule;
+            this.score = score;
+            this.penalty = penalty;
+            this.strategy = strategy;
+            this.start = start;
+        }
+
+        public Schedule schedule() {
+            return schedule;
+        }
+
+        public ScheduleScore score() {
+            return score;
+        }
+
+        // Штраф целевой функции, по которой выбирался старт
+        public long penalty() {
+            return penalty;
+        }
+
+        public String strategy() {
+            return strategy;
+        }
+
+        // При равной оценке выигрывает меньший номер старта - результат детерминирован
+        Result better(Result other) {
+            int cmp = Integer.compare(score.unscheduled(), other.score.unscheduled());
+            if (cmp == 0) {
+                cmp = Long.compare(penalty, other.penalty);
+            }
+            if (cmp != 0) {
+                return cmp < 0 ? this : other;
+            }
+            return start <= other.start ? this : other;
+        }
+    }
+
+    private static final class StartsTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final ScheduleProblem problem;
+        private final long seed;
+        private final int from;
+        private final int to;
+        private final ScheduleProgress progress;
+        private final ScheduleObjective objective;
+
+        StartsTask(ScheduleProblem problem, long seed, int from, int to, ScheduleProgress progress,
+                   ScheduleObjective objective) {
+            this.problem = problem;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.progress = progress;
+            this.objective = objective;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from == 1) {
+                return runStart(problem, seed, from, progress, objective);
+            }
+            int mid = (from + to) >>> 1;
+            StartsTask left = new StartsTask(problem, seed, from, mid, progress, objective);
+            left.fork();
+            Result right = new StartsTask(problem, seed, mid, to, progress, objective).compute();
+            return left.join().better(right);
+        }
+    }
+}
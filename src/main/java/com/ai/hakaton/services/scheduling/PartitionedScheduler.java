@@ -0,0 +1,294 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+// Расстановка по компонентам связности: экзамены связаны, если у них есть общий студент,
+// преподаватель или секция. Разные компоненты делят только аудитории и лимит экзаменов в день,
+// поэтому каждая решается отдельной подзадачей параллельно на ForkJoinPool. Мелкие компоненты
+// объединяются в части не меньше minPartitionSize, чтобы не плодить крошечные подзадачи.
+// Лимит экзаменов в день делится между частями пропорционально их размеру.
+// Затем решения сводятся в общее расписание: большие части первыми, экзамен остается на своем
+// месте, если оно допустимо (при занятой аудитории подбирается другая в то же время),
+// остальные ставятся жадно первым подходящим днем.
+// Решатель частей выбирается по их числу: части и так идут параллельно, и решатель каждой
+// должен получить свою долю потоков и времени, а не весь бюджет.
+public final class PartitionedScheduler implements ScheduleSolver {
+    private final IntFunction<ScheduleSolver> solverForParts;
+    private final int minPartitionSize;
+    private final ForkJoinPool pool;
+
+    public PartitionedScheduler(ScheduleSolver solver, int minPartitionSize, ForkJoinPool pool) {
+        this(parts -> solver, minPartitionSize, pool);
+    }
+
+    public PartitionedScheduler(IntFunction<ScheduleSolver> solverForParts, int minPartitionSize,
+                                ForkJoinPool pool) {
+        this.solverForParts = solverForParts;
+        this.minPartitionSize = Math.max(1, minPartitionSize);
+        this.pool = pool;
+    }
+
+    @Override
+    public Schedule solve(ScheduleProblem problem, ScheduleProgress progress) {
+        List<int[]> partitions = partitions(problem, minPartitionSize);
+        if (partitions.size() < 2) {
+            return solverForParts.apply(1).solve(problem, progress);
+        }
+        int[] quotas = dailyQuotas(problem, partitions);
+        Schedule[] solutions = new Schedule[partitions.size()];
+        pool.invoke(new PartitionsTask(solverForParts.apply(partitions.size()), problem, partitions, quotas,
+                solutions, progress, 0, partitions.size()));
+        progress.phase("сведение частей");
+        Schedule merged = merge(problem, partitions, solutions);
+        ScheduleScore score = ScheduleScore.evaluate(problem, merged);
+        progress.partsMerged(problem.examCount() - score.unscheduled(), score);
+        return merged;
+    }
+
+    // Компоненты связности, отсортированные по убыванию размера; экзамены внутри - по возрастанию
+    public static List<int[]> components(ScheduleProblem problem) {
+        int examCount = problem.examCount();
+        int[] parent = new int[examCount];
+        for (int e = 0; e < examCount; e++) {
+            parent[e] = e;
+        }
+        ConflictGraph graph = problem.conflictGraph();
+        // Первый экзамен каждого преподавателя и каждой секции - к нему присоединяются остальные
+        Map<Integer, Integer> byInstructor = new HashMap<>();
+        int[] bySection = new int[problem.sectionCount()];
+        Arrays.fill(bySection, -1);
+        for (int e = 0; e < examCount; e++) {
+            long[] neighbours = graph.neighbours(e);
+            for (int w = 0; w < neighbours.length; w++) {
+                long word = neighbours[w];
+                while (word != 0) {
+                    union(parent, e, (w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            Integer first = byInstructor.putIfAbsent(problem.instructor(e), e);
+            if (first != null) {
+                union(parent, e, first);
+            }
+            int section = problem.section(e);
+            if (section >= 0) {
+                if (bySection[section] < 0) {
+                    bySection[section] = e;
+                }
+                union(parent, e, bySection[section]);
+            }
+        }
+
+        int[] sizes = new int[examCount];
+        for (int e = 0; e < examCount; e++) {
+            sizes[find(parent, e)]++;
+        }
+        int[][] members = new int[examCount][];
+        int[] filled = new int[examCount];
+        List<int[]> components = new ArrayList<>();
+        for (int e = 0; e < examCount; e++) {
+            int root = find(parent, e);
+            if (members[root] == null) {
+                members[root] = new int[sizes[root]];
+                components.add(members[root]);
+            }
+            members[root][filled[root]++] = e;
+        }
+        components.sort(Comparator.comparingInt((int[] component) -> component.length).reversed());
+        return components;
+    }
+
+    // Компоненты, где мелкие объединены в части не меньше minPartitionSize
+    public static List<int[]> partitions(ScheduleProblem problem, int minPartitionSize) {
+        List<int[]> partitions = new ArrayList<>();
+        int[] pending = new int[0];
+        for (int[] component : components(problem)) {
+            if (component.length >= minPartitionSize) {
+                partitions.add(component);
+                continue;
+            }
+            int from = pending.length;
+            pending = Arrays.copyOf(pending, from + component.length);
+            System.arraycopy(component, 0, pending, from, component.length);
+            if (pending.length >= minPartitionSize) {
+                Arrays.sort(pending);
+                partitions.add(pending);
+                pending = new int[0];
+            }
+        }
+        if (pending.length > 0) {
+            Arrays.sort(pending);
+            partitions.add(pending);
+        }
+        return partitions;
+    }
+
+    private static int find(int[] parent, int e) {
+        while (parent[e] != e) {
+            parent[e] = parent[parent[e]];
+            e = parent[e];
+        }
+        return e;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    // Подзадача на экзаменах части: студенты перенумерованы, аудитории и сетка общие
+    static ScheduleProblem subproblem(ScheduleProblem problem, int[] exams, int maxExamsPerDay) {
+        int[] localStudent = new int[problem.studentCount()];
+        Arrays.fill(localStudent, -1);
+        int studentCount = 0;
+        int[][] examStudents = new int[exams.length][];
+        int[] instructor = new int[exams.length];
+        int[] section = new int[exams.length];
+        int[] duration = new int[exams.length];
+        for (int i = 0; i < exams.length; i++) {
+            int e = exams[i];
+            int[] students = problem.students(e);
+            examStudents[i] = new int[students.length];
+            for (int j = 0; j < students.length; j++) {
+                int s = students[j];
+                if (localStudent[s] < 0) {
+                    localStudent[s] = studentCount++;
+                }
+                examStudents[i][j] = localStudent[s];
+            }
+            instructor[i] = problem.instructor(e);
+            section[i] = problem.section(e);
+            duration[i] = problem.duration(e);
+        }
+        int[] roomCapacity = new int[problem.roomCount()];
+        for (int r = 0; r < roomCapacity.length; r++) {
+            roomCapacity[r] = problem.roomCapacity(r);
+        }
+        int[] roomType = new int[problem.roomCount()];
+        for (int r = 0; r < roomType.length; r++) {
+            roomType[r] = problem.roomType(r);
+        }
+        int[] slotStarts = new int[problem.slotCount()];
+        for (int slot = 0; slot < slotStarts.length; slot++) {
+            slotStarts[slot] = problem.slotStart(slot);
+        }
+        return new ScheduleProblem(examStudents, studentCount, instructor, section, duration, roomCapacity, roomType,
+                problem.dayCount(), maxExamsPerDay, problem.maxExamsPerStudentPerDay(),
+                slotStarts, problem.dayEndMinute());
+    }
+
+    // Доли дневного лимита: каждой части сначала 1, остаток делится по размеру частей методом
+    // наибольшего остатка. В сумме ровно лимит, поэтому части не спорят за дни. Если частей больше
+    // лимита, каждой достается 1, а излишек разбирается при сведении
+    static int[] dailyQuotas(ScheduleProblem problem, List<int[]> partitions) {
+        int[] quotas = new int[partitions.size()];
+        Arrays.fill(quotas, 1);
+        int spare = problem.maxExamsPerDay() - quotas.length;
+        if (spare <= 0) {
+            return quotas;
+        }
+        long[] remainders = new long[partitions.size()];
+        int left = spare;
+        for (int p = 0; p < quotas.length; p++) {
+            long share = (long) spare * partitions.get(p).length;
+            int whole = (int) (share / problem.examCount());
+            quotas[p] += whole;
+            remainders[p] = share % problem.examCount();
+            left -= whole;
+        }
+        Integer[] byRemainder = new Integer[quotas.length];
+        for (int p = 0; p < quotas.length; p++) {
+            byRemainder[p] = p;
+        }
+        Arrays.sort(byRemainder, (a, b) -> Long.compare(remainders[b], remainders[a]));
+        for (int i = 0; i < left && i < quotas.length; i++) {
+            quotas[byRemainder[i]]++;
+        }
+        return quotas;
+    }
+
+    static Schedule merge(ScheduleProblem problem, List<int[]> partitions, Schedule[] solutions) {
+        GreedyScheduler scheduler = new GreedyScheduler(problem);
+        boolean[] free = new boolean[problem.examCount()];
+        for (int p = 0; p < partitions.size(); p++) {
+            int[] exams = partitions.get(p);
+            Schedule solution = solutions[p];
+            for (int i = 0; i < exams.length; i++) {
+                int e = exams[i];
+                if (!solution.isScheduled(i)) {
+                    free[e] = true;
+                    continue;
+                }
+                int day = solution.day(i);
+                int start = solution.startMinute(i);
+                int[] rooms = solution.rooms(i);
+                if (!scheduler.fits(e, day, start, rooms)) {
+                    rooms = scheduler.findAvailableRooms(e, day, start);
+                }
+                if (scheduler.fits(e, day, start, rooms)) {
+                    scheduler.place(e, day, start, rooms);
+                } else {
+                    free[e] = true;
+                }
+            }
+        }
+        for (int e : ExamOrderings.byDegree(problem)) {
+            if (free[e]) {
+                scheduler.tryPlace(e);
+            }
+        }
+        return scheduler.schedule();
+    }
+
+    private static final class PartitionsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ScheduleSolver solver;
+        private final ScheduleProblem problem;
+        private final List<int[]> partitions;
+        private final int[] quotas;
+        private final Schedule[] solutions;
+        private final ScheduleProgress progress;
+        private final int from;
+        private final int to;
+
+        PartitionsTask(ScheduleSolver solver, ScheduleProblem problem, List<int[]> partitions, int[] quotas,
+                       Schedule[] solutions, ScheduleProgress progress, int from, int to) {
+            this.solver = solver;
+            this.problem = problem;
+            this.partitions = partitions;
+            this.quotas = quotas;
+            this.solutions = solutions;
+            this.progress = progress;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                // У каждой части свой прогресс; его счетчики складываются в общий
+                solutions[from] = solver.solve(subproblem(problem, partitions.get(from), quotas[from]),
+                        progress.part());
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            PartitionsTask left = new PartitionsTask(solver, problem, partitions, quotas, solutions, progress,
+                    from, mid);
+            left.fork();
+            new PartitionsTask(solver, problem, partitions, quotas, solutions, progress, mid, to).compute();
+            left.join();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ai.hakaton.services.scheduling;
+
+// Предпочтительные дни групп студентов (образовательных программ): штраф - число студентов
+// экзамена, у группы которых есть предпочтения и день экзамена в них не входит.
+// studentGroup[s] - группа студента, -1 - без предпочтений; preferred[группа][день]
+public final class PreferredDaysConstraint implements ScheduleConstraint {
+    public static final String NAME = "preferred-days";
+
+    private final ScheduleProblem problem;
+    private final int[] studentGroup;
+    private final boolean[][] preferred;
+
+    public PreferredDaysConstraint(ScheduleProblem problem, int[] studentGroup, boolean[][] preferred) {
+        if (studentGroup.length != problem.studentCount()) {
+            throw new IllegalArgumentException("Группа задана не для всех студентов");
+        }
+        this.problem = problem;
+        this.studentGroup = studentGroup;
+        this.preferred = preferred;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public long cost(int exam, int day, int start, int[] rooms) {
+        long students = 0;
+        for (int s : problem.students(exam)) {
+            int group = studentGroup[s];
+            if (group >= 0 && !preferred[group][day]) {
+                students++;
+            }
+        }
+        return students;
+    }
+
+    @Override
+    public long place(int exam, int day, int start, int[] rooms) {
+        return cost(exam, day, start, rooms);
+    }
+
+    @Override
+    public long remove(int exam, int day, int start, int[] rooms) {
+        return -cost(exam, day, start, rooms);
+    }
+}
@@ -0,0 +1,124 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Занятость аудиторий по времени: для каждого дня и аудитории - непересекающиеся
+// интервалы [начало, конец) в TreeMap, поэтому проверка и занятие стоят O(log n),
+// а аудитория свободна в другие часы того же дня.
+// Подбор аудитории - best-fit: наименьшая вместимость, которой хватает (через TreeMap по вместимости).
+// Если ни одной такой свободной аудитории нет, экзамен делится между несколькими аудиториями одного типа.
+public final class RoomTimetable {
+    private final ScheduleProblem problem;
+    // Интервалы по индексу day * roomCount + room; null - аудитория свободна весь день
+    private final List<TreeMap<Integer, Integer>> busy;
+
+    public RoomTimetable(ScheduleProblem problem) {
+        this.problem = problem;
+        this.busy = new ArrayList<>(Collections.nCopies(problem.dayCount() * problem.roomCount(), null));
+    }
+
+    public boolean isFree(int day, int room, int start, int end) {
+        TreeMap<Integer, Integer> intervals = busy.get(index(day, room));
+        if (intervals == null) {
+            return true;
+        }
+        Map.Entry<Integer, Integer> before = intervals.floorEntry(start);
+        if (before != null && before.getValue() > start) {
+            return false;
+        }
+        Integer next = intervals.higherKey(start);
+        return next == null || next >= end;
+    }
+
+    // Наименьшая подходящая свободная аудитория, -1 если нет
+    public int bestFit(int studentCount, int day, int start, int end) {
+        for (int[] rooms : problem.roomsByCapacity().tailMap(studentCount, true).values()) {
+            for (int room : rooms) {
+                if (isFree(day, room, start, end)) {
+                    return room;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Несколько свободных аудиторий одного типа с общей вместимостью не меньше studentCount; null если нет.
+    // Для каждого типа: берутся самые большие свободные аудитории, пока остаток не поместится в одну,
+    // остаток - в наименьшую подходящую (first-fit decreasing с best-fit на последнем шаге).
+    // Из типов выбирается вариант с наименьшим числом аудиторий, затем с наименьшим числом пустых мест
+    public int[] pack(int studentCount, int day, int start, int end) {
+        int typeCount = problem.roomTypeCount();
+        int[][] free = new int[typeCount][problem.roomCount()];
+        int[] freeCount = new int[typeCount];
+        for (int[] rooms : problem.roomsByCapacity().descendingMap().values()) {
+            for (int room : rooms) {
+                if (isFree(day, room, start, end)) {
+                    int type = problem.roomType(room);
+                    free[type][freeCount[type]++] = room;
+                }
+            }
+        }
+        int[] best = null;
+        int bestWaste = 0;
+        for (int type = 0; type < typeCount; type++) {
+            int[] packed = pack(studentCount, free[type], freeCount[type]);
+            if (packed == null) {
+                continue;
+            }
+            int waste = -studentCount;
+            for (int room : packed) {
+                waste += problem.roomCapacity(room);
+            }
+            if (best == null || packed.length < best.length || packed.length == best.length && waste < bestWaste) {
+                best = packed;
+                bestWaste = waste;
+            }
+        }
+        return best;
+    }
+
+    // rooms - свободные аудитории одного типа по убыванию вместимости
+    private int[] pack(int studentCount, int[] rooms, int count) {
+        int[] packed = new int[count];
+        int remaining = studentCount;
+        for (int i = 0; i < count; i++) {
+            if (problem.roomCapacity(rooms[i]) >= remaining) {
+                // Остаток помещается: наименьшая из оставшихся аудиторий, которой хватает
+                int fit = count - 1;
+                while (problem.roomCapacity(rooms[fit]) < remaining) {
+                    fit--;
+                }
+                packed[i] = rooms[fit];
+                return Arrays.copyOf(packed, i + 1);
+            }
+            packed[i] = rooms[i];
+            remaining -= problem.roomCapacity(rooms[i]);
+        }
+        return null;
+    }
+
+    public void occupy(int day, int room, int start, int end) {
+        TreeMap<Integer, Integer> intervals = busy.get(index(day, room));
+        if (intervals == null) {
+            intervals = new TreeMap<>();
+            busy.set(index(day, room), intervals);
+        }
+        intervals.put(start, end);
+    }
+
+    public void release(int day, int room, int start) {
+        TreeMap<Integer, Integer> intervals = busy.get(index(day, room));
+        if (intervals != null) {
+            intervals.remove(start);
+        }
+    }
+
+    private int index(int day, int room) {
+        return day * problem.roomCount() + room;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ai.hakaton.services.scheduling;
+
+// Пустые места: штраф - вместимость аудиторий экзамена минус число его студентов
+public final class RoomWasteConstraint implements ScheduleConstraint {
+    public static final String NAME = "room-waste";
+
+    private final ScheduleProblem problem;
+
+    public RoomWasteConstraint(ScheduleProblem problem) {
+        this.problem = problem;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public long cost(int exam, int day, int start, int[] rooms) {
+        long capacity = 0;
+        for (int room : rooms) {
+            capacity += problem.roomCapacity(room);
+        }
+        return Math.max(0, capacity - problem.studentCount(exam));
+    }
+
+    @Override
+    public long place(int exam, int day, int start, int[] rooms) {
+        return cost(exam, day, start, rooms);
+    }
+
+    @Override
+    public long remove(int exam, int day, int start, int[] rooms) {
+        return -cost(exam, day, start, rooms);
+    }
+}
@@ -0,0 +1,101 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.Arrays;
+
+// Решение: для каждого экзамена день, время начала (минуты от полуночи) и аудитория.
+// День и время хранятся в short - ScheduleProblem проверяет, что они помещаются.
+// Экзамен, разделенный на несколько аудиторий, хранит первую в room, остальные - в extraRooms.
+public final class Schedule {
+    public static final int UNSCHEDULED = -1;
+
+    private final short[] day;
+    private final short[] startMinute;
+    private final int[] room;
+    // null, пока ни один экзамен не разделен; массивы аудиторий не изменяются после назначения
+    private int[][] extraRooms;
+
+    public Schedule(int examCount) {
+        this.day = new short[examCount];
+        this.startMinute = new short[examCount];
+        this.room = new int[examCount];
+        Arrays.fill(day, (short) UNSCHEDULED);
+        Arrays.fill(startMinute, (short) UNSCHEDULED);
+        Arrays.fill(room, UNSCHEDULED);
+    }
+
+    private Schedule(short[] day, short[] startMinute, int[] room, int[][] extraRooms) {
+        this.day = day;
+        this.startMinute = startMinute;
+        this.room = room;
+        this.extraRooms = extraRooms;
+    }
+
+    public void assign(int exam, int day, int startMinute, int room) {
+        this.day[exam] = (short) day;
+        this.startMinute[exam] = (short) startMinute;
+        this.room[exam] = room;
+        if (extraRooms != null) {
+            extraRooms[exam] = null;
+        }
+    }
+
+    // Экзамен в нескольких аудиториях одновременно
+    public void assign(int exam, int day, int startMinute, int[] rooms) {
+        assign(exam, day, startMinute, rooms[0]);
+        if (rooms.length > 1) {
+            if (extraRooms == null) {
+                extraRooms = new int[examCount()][];
+            }
+            extraRooms[exam] = Arrays.copyOfRange(rooms, 1, rooms.length);
+        }
+    }
+
+    public void unassign(int exam) {
+        assign(exam, UNSCHEDULED, UNSCHEDULED, UNSCHEDULED);
+    }
+
+    public boolean isScheduled(int exam) {
+        return day[exam] != UNSCHEDULED;
+    }
+
+    public int day(int exam) {
+        return day[exam];
+    }
+
+    public int startMinute(int exam) {
+        return startMinute[exam];
+    }
+
+    public int room(int exam) {
+        return room[exam];
+    }
+
+    // Аудитории, кроме первой; null, если экзамен в одной аудитории
+    public int[] extraRooms(int exam) {
+        return extraRooms == null ? null : extraRooms[exam];
+    }
+
+    // Все аудитории экзамена; пустой массив, если экзамен не назначен
+    public int[] rooms(int exam) {
+        if (!isScheduled(exam)) {
+            return new int[0];
+        }
+        int[] extra = extraRooms(exam);
+        if (extra == null) {
+            return new int[]{room[exam]};
+        }
+        int[] rooms = new int[extra.length + 1];
+        rooms[0] = room[exam];
+        System.arraycopy(extra, 0, rooms, 1, extra.length);
+        return rooms;
+    }
+
+    public int examCount() {
+        return day.length;
+    }
+
+    public Schedule copy() {
+        return new Schedule(day.clone(), startMinute.clone(), room.clone(),
+                extraRooms == null ? null : extraRooms.clone());
+    }
+}
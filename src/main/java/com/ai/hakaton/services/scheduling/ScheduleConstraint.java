@@ -0,0 +1,16 @@
+package com.ai.hakaton.services.scheduling;
+
+// Мягкое ограничение с инкрементальным штрафом. Состояние ограничения следует за расписанием:
+// place и remove вызываются при каждой постановке и снятии экзамена и возвращают изменение штрафа,
+// cost - то же изменение для постановки без изменения состояния. Все три метода трогают только
+// студентов, преподавателя и аудитории этого экзамена, а не все расписание.
+public interface ScheduleConstraint {
+
+    String name();
+
+    long cost(int exam, int day, int start, int[] rooms);
+
+    long place(int exam, int day, int start, int[] rooms);
+
+    long remove(int exam, int day, int start, int[] rooms);
+}
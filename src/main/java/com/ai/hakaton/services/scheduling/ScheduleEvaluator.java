@@ -0,0 +1,66 @@
+package com.ai.hakaton.services.scheduling;
+
+// Состояние целевой функции для одного расписания: штраф каждого ограничения и взвешенная сумма.
+// Обновляется GreedyScheduler при каждой постановке и снятии экзамена, поэтому изменение штрафа
+// от хода - разность penalty() до и после, а стоимость постановки без хода - cost().
+// Не потокобезопасен: у каждого прогона свой экземпляр (ScheduleObjective.evaluator).
+public final class ScheduleEvaluator {
+    private final ScheduleConstraint[] constraints;
+    private final long[] weights;
+    private final long[] penalties;
+    private long penalty;
+
+    ScheduleEvaluator(ScheduleConstraint[] constraints, long[] weights) {
+        this.constraints = constraints;
+        this.weights = weights;
+        this.penalties = new long[constraints.length];
+    }
+
+    // Прирост взвешенного штрафа, если поставить экзамен сюда; состояние не меняется
+    public long cost(int exam, int day, int start, int[] rooms) {
+        long cost = 0;
+        for (int i = 0; i < constraints.length; i++) {
+            cost += weights[i] * constraints[i].cost(exam, day, start, rooms);
+        }
+        return cost;
+    }
+
+    void place(int exam, int day, int start, int[] rooms) {
+        for (int i = 0; i < constraints.length; i++) {
+            long delta = constraints[i].place(exam, day, start, rooms);
+            penalties[i] += delta;
+            penalty += weights[i] * delta;
+        }
+    }
+
+    void remove(int exam, int day, int start, int[] rooms) {
+        for (int i = 0; i < constraints.length; i++) {
+            long delta = constraints[i].remove(exam, day, start, rooms);
+            penalties[i] += delta;
+            penalty += weights[i] * delta;
+        }
+    }
+
+    public long penalty() {
+        return penalty;
+    }
+
+    // Невзвешенный штраф ограничения; 0, если его нет в целевой функции
+    public long penalty(String constraint) {
+        for (int i = 0; i < constraints.length; i++) {
+            if (constraints[i].name().equals(constraint)) {
+                return penalties[i];
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("штраф=").append(penalty);
+        for (int i = 0; i < constraints.length; i++) {
+            result.append(", ").append(constraints[i].name()).append('=').append(penalties[i]);
+        }
+        return result.toString();
+    }
+}
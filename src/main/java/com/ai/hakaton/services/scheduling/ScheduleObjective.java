@@ -0,0 +1,81 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// Декларативная целевая функция: мягкие ограничения с весами. Жесткий уровень умножает вес на HARD_WEIGHT,
+// поэтому одно такое нарушение дороже любого разумного набора мягких, а отжиг его практически не принимает.
+// Допустимость (пересечения, вместимость, лимиты) по-прежнему проверяет GreedyScheduler,
+// неназначенные экзамены считаются отдельно и важнее любого штрафа.
+// Описание неизменяемо; состояние одного прогона - в ScheduleEvaluator.
+public final class ScheduleObjective {
+    public static final long HARD_WEIGHT = 1_000_000L;
+
+    private final List<Function<ScheduleProblem, ScheduleConstraint>> constraints;
+    private final long[] weights;
+
+    private ScheduleObjective(List<Function<ScheduleProblem, ScheduleConstraint>> constraints, long[] weights) {
+        this.constraints = constraints;
+        this.weights = weights;
+    }
+
+    // Та же цель, что у ScheduleScore: пары экзаменов студента в соседние дни с весом 1
+    public static ScheduleObjective backToBack() {
+        return builder().soft(1, BackToBackConstraint::new).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Новое пустое состояние для задачи; заполняется через GreedyScheduler
+    public ScheduleEvaluator evaluator(ScheduleProblem problem) {
+        ScheduleConstraint[] instances = new ScheduleConstraint[constraints.size()];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = constraints.get(i).apply(problem);
+        }
+        return new ScheduleEvaluator(instances, weights.clone());
+    }
+
+    // Штраф готового расписания
+    public ScheduleEvaluator evaluate(ScheduleProblem problem, Schedule schedule) {
+        ScheduleEvaluator evaluator = evaluator(problem);
+        for (int e = 0; e < schedule.examCount(); e++) {
+            if (schedule.isScheduled(e)) {
+                evaluator.place(e, schedule.day(e), schedule.startMinute(e), schedule.rooms(e));
+            }
+        }
+        return evaluator;
+    }
+
+    public static final class Builder {
+        private final List<Function<ScheduleProblem, ScheduleConstraint>> constraints = new ArrayList<>();
+        private final List<Long> weights = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        // Ограничения с нулевым весом не создаются и ничего не стоят
+        public Builder soft(long weight, Function<ScheduleProblem, ScheduleConstraint> constraint) {
+            if (weight > 0) {
+                constraints.add(constraint);
+                weights.add(weight);
+            }
+            return this;
+        }
+
+        public Builder hard(long weight, Function<ScheduleProblem, ScheduleConstraint> constraint) {
+            return soft(Math.multiplyExact(weight, HARD_WEIGHT), constraint);
+        }
+
+        public Builder add(long weight, boolean hard, Function<ScheduleProblem, ScheduleConstraint> constraint) {
+            return hard ? hard(weight, constraint) : soft(weight, constraint);
+        }
+
+        public ScheduleObjective build() {
+            return new ScheduleObjective(List.copyOf(constraints),
+                    weights.stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Входные данные планирования в примитивном виде. Экзамены, студенты, преподаватели,
+// секции и аудитории пронумерованы плотными индексами. Объект неизменяемый и
+// может одновременно использоваться несколькими потоками.
+// День - сетка слотов (времена начала экзаменов); у каждого экзамена своя длительность.
+public final class ScheduleProblem {
+    private final int[][] examStudents;
+    private final int[][] studentExams;
+    private final int[] instructor;
+    private final int[] section;
+    private final int sectionCount;
+    private final int[] duration;
+    private final int[] roomCapacity;
+    private final int[] roomType;
+    private final int roomTypeCount;
+    private final int dayCount;
+    private final int maxExamsPerDay;
+    private final int maxExamsPerStudentPerDay;
+    private final int[] slotStarts;
+    private final int dayEndMinute;
+    private final ConflictGraph conflictGraph;
+    private final NavigableMap<Integer, int[]> roomsByCapacity;
+
+    // slotStarts - времена начала слотов в минутах от полуночи по возрастанию;
+    // экзамен должен закончиться не позже dayEndMinute. Все аудитории одного типа
+    public ScheduleProblem(int[][] examStudents, int studentCount, int[] instructor, int[] section,
+                           int[] duration, int[] roomCapacity, int dayCount, int maxExamsPerDay,
+                           int maxExamsPerStudentPerDay, int[] slotStarts, int dayEndMinute) {
+        this(examStudents, studentCount, instructor, section, duration, roomCapacity, new int[roomCapacity.length],
+                dayCount, maxExamsPerDay, maxExamsPerStudentPerDay, slotStarts, dayEndMinute);
+    }
+
+    // roomType - плотный индекс типа аудитории: экзамен делится только между аудиториями одного типа
+    public ScheduleProblem(int[][] examStudents, int studentCount, int[] instructor, int[] section,
+                           int[] duration, int[] roomCapacity, int[] roomType, int dayCount, int maxExamsPerDay,
+                           int maxExamsPerStudentPerDay, int[] slotStarts, int dayEndMinute) {
+        // Schedule хранит день и время начала в short
+        if (dayCount > Short.MAX_VALUE || dayEndMinute > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Слишком длинный период планирования: " + dayCount + " дней");
+        }
+        if (roomType.length != roomCapacity.length) {
+            throw new IllegalArgumentException("Тип задан не для всех аудиторий");
+        }
+        if (slotStarts.length == 0) {
+            throw new IllegalArgumentException("Не задано ни одного слота");
+        }
+        for (int i = 0; i < slotStarts.length; i++) {
+            if (i > 0 && slotStarts[i] <= slotStarts[i - 1] || slotStarts[i] < 0 || slotStarts[i] >= dayEndMinute) {
+                throw new IllegalArgumentException("Слоты должны идти по возрастанию внутри дня: "
+                        + Arrays.toString(slotStarts));
+            }
+        }
+        this.examStudents = examStudents;
+        this.instructor = instructor;
+        this.section = section;
+        this.duration = duration;
+        this.roomCapacity = roomCapacity;
+        this.roomType = roomType;
+        this.dayCount = dayCount;
+        this.maxExamsPerDay = maxExamsPerDay;
+        this.maxExamsPerStudentPerDay = Math.max(1, maxExamsPerStudentPerDay);
+        this.slotStarts = slotStarts.clone();
+        this.dayEndMinute = dayEndMinute;
+        this.conflictGraph = new ConflictGraph(examStudents, studentCount);
+
+        // Аудитории, сгруппированные по вместимости, для best-fit поиска
+        TreeMap<Integer, List<Integer>> grouped = new TreeMap<>();
+        for (int r = 0; r < roomCapacity.length; r++) {
+            grouped.computeIfAbsent(roomCapacity[r], k -> new ArrayList<>()).add(r);
+        }
+        TreeMap<Integer, int[]> byCapacity = new TreeMap<>();
+        for (Map.Entry<Integer, List<Integer>> entry : grouped.entrySet()) {
+            byCapacity.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        this.roomsByCapacity = Collections.unmodifiableNavigableMap(byCapacity);
+        int maxType = -1;
+        for (int type : roomType) {
+            maxType = Math.max(maxType, type);
+        }
+        this.roomTypeCount = maxType + 1;
+
+        int maxSection = -1;
+        for (int s : section) {
+            maxSection = Math.max(maxSection, s);
+        }
+        this.sectionCount = maxSection + 1;
+
+        // Обратный индекс студент -> экзамены для подсчета целевой функции
+        int[] counts = new int[studentCount];
+        for (int[] students : examStudents) {
+            for (int s : students) {
+                counts[s]++;
+            }
+        }
+        this.studentExams = new int[studentCount][];
+        for (int s = 0; s < studentCount; s++) {
+            studentExams[s] = new int[counts[s]];
+        }
+        int[] cursor = new int[studentCount];
+        for (int e = 0; e < examStudents.length; e++) {
+            for (int s : examStudents[e]) {
+                studentExams[s][cursor[s]++] = e;
+            }
+        }
+    }
+
+    public int examCount() {
+        return examStudents.length;
+    }
+
+    public int studentCount() {
+        return studentExams.length;
+    }
+
+    public int studentCount(int exam) {
+        return examStudents[exam].length;
+    }
+
+    public int[] students(int exam) {
+        return examStudents[exam];
+    }
+
+    public int[] examsOf(int student) {
+        return studentExams[student];
+    }
+
+    public int instructor(int exam) {
+        return instructor[exam];
+    }
+
+    public int section(int exam) {
+        return section[exam];
+    }
+
+    public int sectionCount() {
+        return sectionCount;
+    }
+
+    // Длительность экзамена в минутах
+    public int duration(int exam) {
+        return duration[exam];
+    }
+
+    public int roomCount() {
+        return roomCapacity.length;
+    }
+
+    public int roomCapacity(int room) {
+        return roomCapacity[room];
+    }
+
+    public int roomType(int room) {
+        return roomType[room];
+    }
+
+    public int roomTypeCount() {
+        return roomTypeCount;
+    }
+
+    public NavigableMap<Integer, int[]> roomsByCapacity() {
+        return roomsByCapacity;
+    }
+
+    public int dayCount() {
+        return dayCount;
+    }
+
+    public int maxExamsPerDay() {
+        return maxExamsPerDay;
+    }
+
+    // Сколько экзаменов у одного студента может быть в один день (в разных слотах)
+    public int maxExamsPerStudentPerDay() {
+        return maxExamsPerStudentPerDay;
+    }
+
+    public int slotCount() {
+        return slotStarts.length;
+    }
+
+    public int slotStart(int slot) {
+        return slotStarts[slot];
+    }
+
+    // Номер слота с заданным временем начала, -1 если время не из сетки
+    public int slotOf(int startMinute) {
+        int slot = Arrays.binarySearch(slotStarts, startMinute);
+        return slot < 0 ? -1 : slot;
+    }
+
+    public int dayStartMinute() {
+        return slotStarts[0];
+    }
+
+    public int dayEndMinute() {
+        return dayEndMinute;
+    }
+
+    public ConflictGraph conflictGraph() {
+        return conflictGraph;
+    }
+}
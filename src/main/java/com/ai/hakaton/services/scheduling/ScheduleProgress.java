@@ -0,0 +1,133 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+// Прогресс расстановки, обновляется алгоритмами из рабочих потоков и читается при опросе задания
+public final class ScheduleProgress {
+    // Прогресс всего расписания, если это прогресс части; null - верхний уровень
+    private final ScheduleProgress parent;
+    private volatile String phase = "ожидание";
+    private volatile int examsTotal;
+    private final AtomicInteger examsPlaced = new AtomicInteger();
+    private final AtomicInteger startsTotal = new AtomicInteger();
+    private final AtomicInteger startsDone = new AtomicInteger();
+    private volatile ScheduleScore bestScore;
+    // Получатель числа проверок допустимости на экзамен (метрики); null - не считаем
+    private volatile IntConsumer feasibilityListener;
+
+    public ScheduleProgress() {
+        this(null);
+    }
+
+    private ScheduleProgress(ScheduleProgress parent) {
+        this.parent = parent;
+        if (parent != null) {
+            this.feasibilityListener = parent.feasibilityListener;
+        }
+    }
+
+    public void phase(String phase) {
+        this.phase = phase;
+    }
+
+    public void examsTotal(int examsTotal) {
+        this.examsTotal = examsTotal;
+    }
+
+    // При нескольких параллельных прогонах показываем самый продвинутый
+    // Прирост части добавляется к родителю: там расставленные экзамены суммируются по частям
+    public void examsPlaced(int placed) {
+        int previous = examsPlaced.getAndAccumulate(placed, Math::max);
+        if (parent != null && placed > previous) {
+            parent.addExamsPlaced(placed - previous);
+        }
+    }
+
+    private void addExamsPlaced(int delta) {
+        examsPlaced.addAndGet(delta);
+        if (parent != null) {
+            parent.addExamsPlaced(delta);
+        }
+    }
+
+    public void startsTotal(int startsTotal) {
+        int previous = this.startsTotal.getAndSet(startsTotal);
+        if (parent != null) {
+            parent.addStartsTotal(startsTotal - previous);
+        }
+    }
+
+    private void addStartsTotal(int delta) {
+        startsTotal.addAndGet(delta);
+        if (parent != null) {
+            parent.addStartsTotal(delta);
+        }
+    }
+
+    // Оценка части не сравнима с оценкой всего расписания, поэтому родителю идет только счетчик
+    public synchronized void startDone(ScheduleScore score) {
+        startsDone.incrementAndGet();
+        if (bestScore == null || score.compareTo(bestScore) < 0) {
+            bestScore = score;
+        }
+        if (parent != null) {
+            parent.addStartDone();
+        }
+    }
+
+    private void addStartDone() {
+        startsDone.incrementAndGet();
+        if (parent != null) {
+            parent.addStartDone();
+        }
+    }
+
+    // Итог сведения частей: при сведении часть экзаменов могла переехать или остаться без места
+    public synchronized void partsMerged(int placed, ScheduleScore score) {
+        examsPlaced.set(placed);
+        bestScore = score;
+    }
+
+    public void onFeasibilityChecks(IntConsumer listener) {
+        this.feasibilityListener = listener;
+    }
+
+    // Прогресс подзадачи (части расписания): счетчики части пересылаются в этот прогресс,
+    // проверки допустимости идут в общие метрики
+    public ScheduleProgress part() {
+        return new ScheduleProgress(this);
+    }
+
+    // Вызывается из рабочих потоков после попытки поставить экзамен
+    public void feasibilityChecks(int checks) {
+        IntConsumer listener = feasibilityListener;
+        if (listener != null) {
+            listener.accept(checks);
+        }
+    }
+
+    public String phase() {
+        return phase;
+    }
+
+    public int examsTotal() {
+        return examsTotal;
+    }
+
+    public int examsPlaced() {
+        return examsPlaced.get();
+    }
+
+    public int startsTotal() {
+        return startsTotal.get();
+    }
+
+    public int startsDone() {
+        return startsDone.get();
+    }
+
+    public ScheduleScore bestScore() {
+        return bestScore;
+    }
+}
@@ -0,0 +1,125 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Инкрементальная починка расписания: текущие назначения сохраняются, пересчитываются
+// только закрепленные (перенесенные) экзамены, явно запрошенные, неназначенные
+// и те, что после изменений нарушают ограничения (окрестность в графе конфликтов).
+// Закрепленный перенос выполняется точно или не выполняется вовсе: если его нельзя соблюсти,
+// починка отклоняется с PinConflictException.
+public final class ScheduleRepair {
+
+    private ScheduleRepair() {
+    }
+
+    // pinnedDay[e] >= 0 - экзамен переносится на этот день, pinnedStart[e] >= 0 - и на это время;
+    // released[e] - экзамен нужно поставить заново. Переносы ставятся в порядке индексов экзаменов,
+    // поэтому при конфликте двух переносов отклоняется второй
+    public static Schedule repair(ScheduleProblem problem, Schedule current,
+                                  int[] pinnedDay, int[] pinnedStart, boolean[] released) {
+        return repair(problem, current, pinnedDay, pinnedStart, released, null);
+    }
+
+    // objective - освобожденные экзамены ставятся в день с наименьшим приростом штрафа, а не в первый
+    public static Schedule repair(ScheduleProblem problem, Schedule current, int[] pinnedDay, int[] pinnedStart,
+                                  boolean[] released, ScheduleObjective objective) {
+        int examCount = problem.examCount();
+        GreedyScheduler scheduler = new GreedyScheduler(problem,
+                objective == null ? null : objective.evaluator(problem));
+        boolean[] free = new boolean[examCount];
+
+        // 1. Закрепленные экзамены; аудитория сохраняется, если она свободна
+        List<PinConflict> conflicts = new ArrayList<>();
+        for (int e = 0; e < examCount; e++) {
+            if (pinnedDay[e] < 0) {
+                continue;
+            }
+            int day = pinnedDay[e];
+            int start = day >= problem.dayCount() ? -1
+                    : pinnedStart[e] >= 0 ? pinnedStart[e] : scheduler.findAvailableTime(e, day);
+            int[] rooms = current.rooms(e);
+            if (start >= 0 && !scheduler.fits(e, day, start, rooms)) {
+                rooms = scheduler.findAvailableRooms(e, day, start);
+            }
+            if (start >= 0 && scheduler.fits(e, day, start, rooms)) {
+                scheduler.place(e, day, start, rooms);
+            } else {
+                String constraint = scheduler.violation(e, day, pinnedStart[e]);
+                conflicts.add(new PinConflict(e, constraint == null ? "ограничения расписания" : constraint));
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new PinConflictException(conflicts);
+        }
+
+        // 2. Остальные остаются на местах, если не конфликтуют; крупные экзамены проверяются первыми,
+        // поэтому при новом конфликте переставляется меньший
+        for (int e : ExamOrderings.byStudentCount(problem)) {
+            if (pinnedDay[e] >= 0) {
+                continue;
+            }
+            if (released[e] || !current.isScheduled(e)
+                    || !scheduler.fits(e, current.day(e), current.startMinute(e), current.rooms(e))) {
+                free[e] = true;
+            } else {
+                scheduler.place(e, current.day(e), current.startMinute(e), current.rooms(e));
+            }
+        }
+
+        // 3. Освобожденные экзамены - первым подходящим (или самым дешевым) днем, сначала самые конфликтные
+        for (int e : ExamOrderings.byDegree(problem)) {
+            if (free[e]) {
+                scheduler.tryPlace(e);
+            }
+        }
+        return scheduler.schedule();
+    }
+
+    // Перенос, который нельзя выполнить: индекс экзамена и нарушаемое ограничение
+    public static final class PinConflict {
+        private final int exam;
+        private final String constraint;
+
+        PinConflict(int exam, String constraint) {
+            this.exam = exam;
+            this.constraint = constraint;
+        }
+
+        public int exam() {
+            return exam;
+        }
+
+        public String constraint() {
+            return constraint;
+        }
+    }
+
+    public static final class PinConflictException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        private final List<PinConflict> conflicts;
+
+        PinConflictException(List<PinConflict> conflicts) {
+            super("Переносы нельзя выполнить: " + conflicts.size());
+            this.conflicts = List.copyOf(conflicts);
+        }
+
+        public List<PinConflict> conflicts() {
+            return conflicts;
+        }
+    }
+
+    // Экзамены, у которых изменились день, время или аудитории
+    public static List<Integer> changed(Schedule before, Schedule after) {
+        List<Integer> changed = new ArrayList<>();
+        for (int e = 0; e < before.examCount(); e++) {
+            if (before.day(e) != after.day(e) || before.startMinute(e) != after.startMinute(e)
+                    || !Arrays.equals(before.rooms(e), after.rooms(e))) {
+                changed.add(e);
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ai.hakaton.services.scheduling;
+
+// Целевая функция: сначала меньше неназначенных экзаменов, затем меньше
+// пар экзаменов у одного студента в соседние дни
+public final class ScheduleScore implements Comparable<ScheduleScore> {
+    private final int unscheduled;
+    private final long backToBack;
+
+    public ScheduleScore(int unscheduled, long backToBack) {
+        this.unscheduled = unscheduled;
+        this.backToBack = backToBack;
+    }
+
+    public static ScheduleScore evaluate(ScheduleProblem problem, Schedule schedule) {
+        int unscheduled = 0;
+        for (int e = 0; e < schedule.examCount(); e++) {
+            if (!schedule.isScheduled(e)) {
+                unscheduled++;
+            }
+        }
+
+        // Дни экзаменов студента как битовое множество; соседние дни = бит и следующий за ним
+        long[] days = new long[BitSets.words(problem.dayCount())];
+        long backToBack = 0;
+        for (int s = 0; s < problem.studentCount(); s++) {
+            int[] exams = problem.examsOf(s);
+            if (exams.length < 2) {
+                continue;
+            }
+            for (int e : exams) {
+                if (schedule.isScheduled(e)) {
+                    BitSets.set(days, schedule.day(e));
+                }
+            }
+            for (int w = 0; w < days.length; w++) {
+                long next = w + 1 < days.length ? days[w + 1] << 63 : 0L;
+                backToBack += Long.bitCount(days[w] & ((days[w] >>> 1) | next));
+                days[w] = 0L;
+            }
+        }
+        return new ScheduleScore(unscheduled, backToBack);
+    }
+
+    public int unscheduled() {
+        return unscheduled;
+    }
+
+    public long backToBack() {
+        return backToBack;
+    }
+
+    @Override
+    public int compareTo(ScheduleScore other) {
+        int byUnscheduled = Integer.compare(unscheduled, other.unscheduled);
+        return byUnscheduled != 0 ? byUnscheduled : Long.compare(backToBack, other.backToBack);
+    }
+
+    @Override
+    public String toString() {
+        return "неназначено=" + unscheduled + ", подряд=" + backToBack;
+    }
+}
@@ -0,0 +1,10 @@
+package com.ai.hakaton.services.scheduling;
+
+// Подключаемый алгоритм расстановки экзаменов
+public interface ScheduleSolver {
+    Schedule solve(ScheduleProblem problem, ScheduleProgress progress);
+
+    default Schedule solve(ScheduleProblem problem) {
+        return solve(problem, new ScheduleProgress());
+    }
+}
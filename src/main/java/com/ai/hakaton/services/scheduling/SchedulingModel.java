@@ -0,0 +1,144 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Данные для планирования без JPA-сущностей: id экзаменов и аудиторий в отсортированных
+// массивах (индекс = позиция), преподаватели, секции и типы аудиторий - плотные int, записи - EnrollmentIndex.
+// Строится один раз из проекций репозиториев; назначения переносятся обратно по id.
+public final class SchedulingModel {
+    private final long[] examIds;
+    private final int[] instructor;
+    private final int[] section;
+    private final int[] duration;
+    private final long[] roomIds;
+    private final int[] roomCapacity;
+    private final int[] roomType;
+    private final EnrollmentIndex enrollments;
+
+    private SchedulingModel(long[] examIds, int[] instructor, int[] section, int[] duration,
+                            long[] roomIds, int[] roomCapacity, int[] roomType, EnrollmentIndex enrollments) {
+        this.examIds = examIds;
+        this.instructor = instructor;
+        this.section = section;
+        this.duration = duration;
+        this.roomIds = roomIds;
+        this.roomCapacity = roomCapacity;
+        this.roomType = roomType;
+        this.enrollments = enrollments;
+    }
+
+    public ScheduleProblem problem(int dayCount, int maxExamsPerDay, int maxExamsPerStudentPerDay,
+                                   int[] slotStarts, int dayEndMinute) {
+        return new ScheduleProblem(enrollments.examStudents(), enrollments.studentCount(), instructor, section,
+                duration, roomCapacity, roomType, dayCount, maxExamsPerDay, maxExamsPerStudentPerDay, slotStarts, dayEndMinute);
+    }
+
+    public int examCount() {
+        return examIds.length;
+    }
+
+    public long examId(int exam) {
+        return examIds[exam];
+    }
+
+    // -1, если экзамена нет в модели
+    public int examIndex(long examId) {
+        return enrollments.indexOf(examId);
+    }
+
+    public int roomCount() {
+        return roomIds.length;
+    }
+
+    public long roomId(int room) {
+        return roomIds[room];
+    }
+
+    // -1, если аудитории нет в модели
+    public int roomIndex(long roomId) {
+        int index = Arrays.binarySearch(roomIds, roomId);
+        return index < 0 ? -1 : index;
+    }
+
+    public EnrollmentIndex enrollments() {
+        return enrollments;
+    }
+
+    // Экзамены и аудитории добавляются в порядке возрастания id
+    public static Builder builder(int examCount, int roomCount) {
+        return new Builder(examCount, roomCount);
+    }
+
+    public static final class Builder {
+        private final long[] examIds;
+        private final int[] instructor;
+        private final int[] section;
+        private final int[] duration;
+        private final long[] roomIds;
+        private final int[] roomCapacity;
+        private final int[] roomType;
+        private final Map<String, Integer> instructorIndex = new HashMap<>();
+        private final Map<String, Integer> roomTypeIndex = new HashMap<>();
+        private final Map<Long, Integer> sectionIndex = new HashMap<>();
+        private int exams;
+        private int rooms;
+        private EnrollmentIndex.Builder enrollments;
+
+        private Builder(int examCount, int roomCount) {
+            this.examIds = new long[examCount];
+            this.instructor = new int[examCount];
+            this.section = new int[examCount];
+            this.duration = new int[examCount];
+            this.roomIds = new long[roomCount];
+            this.roomCapacity = new int[roomCount];
+            this.roomType = new int[roomCount];
+        }
+
+        // Преподаватели и секции нумеруются по порядку появления; длительность - в минутах
+        public Builder exam(long examId, String instructorName, Long sectionId, int durationMinutes) {
+            if (exams > 0 && examIds[exams - 1] >= examId) {
+                throw new IllegalArgumentException("Экзамены должны идти по возрастанию id: " + examId);
+            }
+            examIds[exams] = examId;
+            instructor[exams] = instructorIndex.computeIfAbsent(instructorName, k -> instructorIndex.size());
+            section[exams] = sectionIndex.computeIfAbsent(sectionId, k -> sectionIndex.size());
+            duration[exams] = durationMinutes;
+            exams++;
+            return this;
+        }
+
+        // Экзамен делится только между аудиториями одного типа; типы нумеруются по порядку появления
+        public Builder room(long roomId, int capacity, String type) {
+            if (rooms > 0 && roomIds[rooms - 1] >= roomId) {
+                throw new IllegalArgumentException("Аудитории должны идти по возрастанию id: " + roomId);
+            }
+            roomIds[rooms] = roomId;
+            roomCapacity[rooms] = capacity;
+            roomType[rooms] = roomTypeIndex.computeIfAbsent(type, k -> roomTypeIndex.size());
+            rooms++;
+            return this;
+        }
+
+        // Записи студентов добавляются после всех экзаменов
+        public Builder enrollment(long examId, String studentId, String studentName, String studentProgram) {
+            if (enrollments == null) {
+                if (exams != examIds.length) {
+                    throw new IllegalStateException("Записи добавляются после всех экзаменов");
+                }
+                enrollments = EnrollmentIndex.builder(examIds);
+            }
+            enrollments.add(examId, studentId, studentName, studentProgram);
+            return this;
+        }
+
+        public SchedulingModel build() {
+            if (exams != examIds.length || rooms != roomIds.length) {
+                throw new IllegalStateException("Добавлены не все экзамены или аудитории");
+            }
+            EnrollmentIndex index = (enrollments == null ? EnrollmentIndex.builder(examIds) : enrollments).build();
+            return new SchedulingModel(examIds, instructor, section, duration, roomIds, roomCapacity, roomType, index);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ai.hakaton.services;
+
+import com.ai.hakaton.repositories.ExamRepository;
+import com.ai.hakaton.repositories.SectionRepository;
+import com.ai.hakaton.repositories.StudentRepository;
+import com.ai.hakaton.services.ingest.EnrollmentRow;
+import com.ai.hakaton.services.ingest.EnrollmentSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Работает с отдельной тестовой базой (профиль test). Тест без транзакции, чтобы проверять именно
+// откат загрузки: в транзакции теста уже записанные порции были бы видны до ее отката
+@SpringBootTest
+@ActiveProfiles("test")
+class DataLoadServiceTest {
+
+    @Autowired
+    private DataLoadService dataLoadService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SectionRepository sectionRepository;
+
+    // Оборванный снимок: несколько порций успевают записаться до ошибки, но в базе не остается ничего
+    @Test
+    void truncatedSnapshotPersistsNothing() throws IOException {
+        String prefix = "truncated-" + UUID.randomUUID();
+        List<EnrollmentRow> rows = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            rows.add(new EnrollmentRow("Subject " + i % 30, "Instructor " + i % 30, 1, "Program", "2024",
+                    "Student " + i, prefix + "-" + i, prefix + "-section-" + i % 30, 120));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (EnrollmentSnapshot.Writer writer = EnrollmentSnapshot.writer(out)) {
+            writer.write(rows);
+        }
+        byte[] snapshot = out.toByteArray();
+        byte[] truncated = Arrays.copyOf(snapshot, snapshot.length * 4 / 5);
+
+        long exams = examRepository.count();
+        long students = studentRepository.count();
+        long sections = sectionRepository.count();
+
+        assertThrows(IOException.class, () -> dataLoadService.loadExamsAndStudentsSnapshot(
+                new MockMultipartFile("file", "enrollments.exsn", "application/octet-stream", truncated)));
+
+        assertEquals(exams, examRepository.count());
+        assertEquals(students, studentRepository.count());
+        assertEquals(sections, sectionRepository.count());
+    }
+}
@@ -0,0 +1,95 @@
+package com.ai.hakaton.services;
+
+import com.ai.hakaton.models.ScheduleCacheEntry;
+import com.ai.hakaton.repositories.ScheduleCacheRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleCacheTest {
+    // Таблица schedule_cache в памяти: findById, save и deleteAll
+    private final Map<Long, ScheduleCacheEntry> table = new HashMap<>();
+    private final ScheduleCacheRepository repository = (ScheduleCacheRepository) Proxy.newProxyInstance(
+            ScheduleCacheRepository.class.getClassLoader(), new Class<?>[]{ScheduleCacheRepository.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "findById" -> Optional.ofNullable(table.get((Long) args[0]));
+                case "save" -> {
+                    ScheduleCacheEntry entry = (ScheduleCacheEntry) args[0];
+                    table.put(entry.getId(), entry);
+                    yield entry;
+                }
+                case "deleteAll" -> {
+                    table.clear();
+                    yield null;
+                }
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+
+    private ScheduleCache cache() {
+        ScheduleCache cache = new ScheduleCache();
+        try {
+            Field field = ScheduleCache.class.getDeclaredField("scheduleCacheRepository");
+            field.setAccessible(true);
+            field.set(cache, repository);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return cache;
+    }
+
+    @Test
+    void storedScheduleIsValidUntilDataIsLoaded() {
+        ScheduleCache cache = cache();
+        assertFalse(cache.isValid());
+
+        cache.store("a", 3L);
+        assertTrue(cache.isValid());
+        assertEquals(3L, cache.activeVersionId());
+
+        cache.invalidate();
+        assertFalse(cache.isValid());
+    }
+
+    // После загрузки тех же данных отпечаток совпадает с сохраненным, и кэш снова действителен
+    @Test
+    void sameFingerprintRevalidatesAfterInvalidation() {
+        ScheduleCache cache = cache();
+        cache.store("a", 3L);
+        cache.invalidate();
+
+        assertFalse(cache.matches("b"));
+        assertFalse(cache.isValid());
+        assertTrue(cache.matches("a"));
+        assertTrue(cache.isValid());
+    }
+
+    // После перезапуска отпечаток берется из таблицы
+    @Test
+    void storedFingerprintSurvivesRestart() {
+        cache().store("a", 3L);
+        ScheduleCache restarted = cache();
+
+        assertFalse(restarted.isValid());
+        assertTrue(restarted.matches("a"));
+    }
+
+    @Test
+    void clearForgetsStoredSchedule() {
+        ScheduleCache cache = cache();
+        cache.store("a", 3L);
+        cache.clear();
+
+        assertFalse(cache.isValid());
+        assertFalse(cache.matches("a"));
+        assertNull(cache.activeVersionId());
+    }
+}
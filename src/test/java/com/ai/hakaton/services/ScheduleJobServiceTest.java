@@ -0,0 +1,120 @@
+package com.ai.hakaton.services;
+
+import com.ai.hakaton.models.Exam;
+import com.ai.hakaton.services.scheduling.ScheduleProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleJobServiceTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 2);
+
+    // Планирование ждет release и возвращает один экзамен; failure - следующий запуск падает
+    private static final class StubScheduler extends ExamSchedulerService {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger runs = new AtomicInteger();
+        private volatile boolean failure;
+        private volatile Map<LocalDate, List<Long>> loaded;
+
+        @Override
+        public Map<LocalDate, List<Exam>> scheduleExams(ScheduleProgress progress) {
+            runs.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure) {
+                throw new IllegalStateException("нет аудиторий");
+            }
+            Exam exam = new Exam();
+            exam.setId(7L);
+            return Map.of(DAY, List.of(exam));
+        }
+
+        @Override
+        public Map<LocalDate, List<Exam>> loadSchedule(Map<LocalDate, List<Long>> examIdsByDate) {
+            loaded = examIdsByDate;
+            return Map.of();
+        }
+    }
+
+    private final StubScheduler scheduler = new StubScheduler();
+    private final ScheduleJobService jobs = new ScheduleJobService(scheduler, 1, 1);
+
+    @AfterEach
+    void shutdown() {
+        jobs.shutdown();
+    }
+
+    private static void awaitFinished(ScheduleJob job) throws InterruptedException {
+        for (int i = 0; i < 1000 && job.isActive(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(!job.isActive(), "задание не завершилось");
+    }
+
+    // Пока задание не завершено, повторный запрос получает его же, а не ставит новое в очередь
+    @Test
+    void repeatedRequestsJoinActiveJob() throws InterruptedException {
+        ScheduleJob first = jobs.submit();
+
+        assertSame(first, jobs.submit());
+        assertSame(first, jobs.submit());
+        scheduler.release.countDown();
+        awaitFinished(first);
+        ScheduleJob second = jobs.submit();
+        awaitFinished(second);
+
+        assertNotSame(first, second);
+        assertEquals(2, scheduler.runs.get());
+    }
+
+    @Test
+    void resultIsAvailableOnlyAfterJobIsDone() throws InterruptedException {
+        ScheduleJob job = jobs.submit();
+
+        ResponseStatusException early = assertThrows(ResponseStatusException.class,
+                () -> jobs.getResult(job.getId()));
+        assertEquals(HttpStatus.CONFLICT, early.getStatusCode());
+        scheduler.release.countDown();
+        awaitFinished(job);
+        jobs.getResult(job.getId());
+
+        assertEquals(ScheduleJob.Status.DONE, job.getStatus());
+        assertEquals(Map.of(DAY, List.of(7L)), scheduler.loaded);
+    }
+
+    @Test
+    void failedJobKeepsErrorAndIsNotReused() throws InterruptedException {
+        scheduler.failure = true;
+        scheduler.release.countDown();
+        ScheduleJob job = jobs.submit();
+        awaitFinished(job);
+
+        assertEquals(ScheduleJob.Status.FAILED, job.getStatus());
+        assertEquals("нет аудиторий", job.getError());
+        assertNotSame(job, jobs.submit());
+    }
+
+    @Test
+    void unknownJobIsNotFound() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> jobs.getJob("missing"));
+
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+}
@@ -0,0 +1,142 @@
+package com.ai.hakaton.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleWriterTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 2);
+    private static final LocalTime NINE = LocalTime.of(9, 0);
+
+    // Вместо базы запоминает выполненные запросы и значения параметров, как их выставил ScheduleWriter
+    private static final class RecordingJdbcTemplate extends JdbcTemplate {
+        private final List<String> statements = new ArrayList<>();
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            for (T argument : batchArgs) {
+                List<Object> parameters = new ArrayList<>();
+                try {
+                    pss.setValues(statement(parameters), argument);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                statements.add(sql + " " + parameters);
+            }
+            return new int[0][];
+        }
+
+        @Override
+        public int update(String sql, PreparedStatementSetter pss) {
+            List<Object> parameters = new ArrayList<>();
+            try {
+                pss.setValues(statement(parameters));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            statements.add(sql + " " + parameters);
+            return 0;
+        }
+
+        // setXxx(index, value) и setNull(index, type) дописывают значение по порядку вызова
+        private static PreparedStatement statement(List<Object> parameters) {
+            Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        Object[] elements = (Object[]) args[1];
+                        return Proxy.newProxyInstance(Array.class.getClassLoader(), new Class<?>[]{Array.class},
+                                (array, arrayMethod, arrayArgs) -> Arrays.asList(elements));
+                    });
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("getConnection")) {
+                            return connection;
+                        }
+                        if (method.getName().equals("setNull")) {
+                            parameters.add(null);
+                        } else if (method.getName().equals("setArray")) {
+                            parameters.add(((Array) args[1]).getArray());
+                        } else if (method.getName().startsWith("set")) {
+                            parameters.add(args[1]);
+                        }
+                        return null;
+                    });
+        }
+    }
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private final ScheduleWriter.Session session = new ScheduleWriter(jdbcTemplate).session();
+
+    private static ScheduleWriter.Assignment assignment(long examId, LocalDate date, LocalTime time, Long auditoriumId,
+                                                        Long... extra) {
+        return new ScheduleWriter.Assignment(examId, date, time, auditoriumId, List.of(extra));
+    }
+
+    @Test
+    void unchangedAssignmentsAreNotWritten() {
+        session.assign(assignment(1, DAY, NINE, 10L), assignment(1, DAY, NINE, 10L));
+        session.assign(assignment(2, null, null, null), assignment(2, null, null, null));
+        session.assign(assignment(3, DAY, NINE, 10L, 11L, 12L), assignment(3, DAY, NINE, 10L, 11L, 12L));
+        session.write();
+
+        assertEquals(0, session.changedCount());
+        assertEquals(List.of(), jdbcTemplate.statements);
+    }
+
+    // Дата, время и аудитория сравниваются по отдельности; снятый экзамен пишется с NULL
+    @Test
+    void eachChangedFieldMakesAnUpdate() {
+        session.assign(assignment(1, DAY, NINE, 10L), assignment(1, DAY.plusDays(1), NINE, 10L));
+        session.assign(assignment(2, DAY, NINE, 10L), assignment(2, DAY, LocalTime.of(12, 30), 10L));
+        session.assign(assignment(3, DAY, NINE, 10L), assignment(3, DAY, NINE, 20L));
+        session.assign(assignment(4, DAY, NINE, 10L), assignment(4, null, null, null));
+        session.assign(assignment(5, DAY, NINE, 10L), assignment(5, DAY, NINE, 10L));
+        session.write();
+
+        assertEquals(4, session.changedCount());
+        String update = "UPDATE exams SET exam_date = ?, exam_time = ?, auditorium_id = ? WHERE id = ? ";
+        assertEquals(List.of(
+                update + List.of(Date.valueOf(DAY.plusDays(1)), Time.valueOf(NINE), 10L, 1L),
+                update + List.of(Date.valueOf(DAY), Time.valueOf(LocalTime.of(12, 30)), 10L, 2L),
+                update + List.of(Date.valueOf(DAY), Time.valueOf(NINE), 20L, 3L),
+                update + Arrays.asList(null, null, null, 4L)), jdbcTemplate.statements);
+    }
+
+    // Дополнительные аудитории переписываются только у экзаменов, где они были или появились
+    @Test
+    void extraAuditoriumsAreRewrittenOnlyWhereTheyChanged() {
+        // Были и убраны
+        session.assign(assignment(1, DAY, NINE, 10L, 11L), assignment(1, DAY, NINE, 10L));
+        // Появились при том же времени и основной аудитории
+        session.assign(assignment(2, DAY, NINE, 20L), assignment(2, DAY, NINE, 20L, 21L, 22L));
+        // Без дополнительных аудиторий до и после
+        session.assign(assignment(3, DAY, NINE, 30L), assignment(3, DAY, NINE, 31L));
+        session.write();
+
+        assertEquals(3, session.changedCount());
+        List<String> statements = jdbcTemplate.statements;
+        assertEquals(6, statements.size());
+        assertTrue(statements.get(0).startsWith("UPDATE exams"));
+        assertEquals("DELETE FROM exam_extra_auditoriums WHERE exam_id = ANY(?) [[1, 2]]", statements.get(3));
+        String insert = "INSERT INTO exam_extra_auditoriums (exam_id, auditorium_id) VALUES (?, ?) ";
+        assertEquals(List.of(insert + List.of(2L, 21L), insert + List.of(2L, 22L)), statements.subList(4, 6));
+    }
+}
@@ -0,0 +1,103 @@
+package com.ai.hakaton.services.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvSheetReaderTest {
+    // Заголовок, запятая и "" в кавычках, перевод строки внутри кавычек, пустая строка,
+    // пустая ячейка и последняя строка без перевода строки; концы строк и CRLF, и LF
+    private static final String CSV = "id,subject,note\r\n"
+            + "1,\"Math, advanced\",\"say \"\"hi\"\"\"\r\n"
+            + "2,Физика,\"two\nlines\"\r\n"
+            + "\r\n"
+            + "3,,x\n"
+            + "4,last,end";
+    private static final List<String> EXPECTED = List.of(
+            "1:1|Math, advanced|say \"hi\"",
+            "2:2|Физика|two\nlines",
+            "4:3||x",
+            "5:4|last|end");
+
+    // Строка - номер и ячейки через |
+    private static List<String> read(byte[] content, int chunkSize, int windowSize) throws IOException {
+        File file = Files.createTempFile("reader-", ".csv").toFile();
+        try {
+            Files.write(file.toPath(), content);
+            List<String> rows = new ArrayList<>();
+            int count = CsvSheetReader.read(file, chunkSize, windowSize, chunk -> {
+                assertTrue(chunk.size() <= chunkSize, "порция больше " + chunkSize);
+                for (SheetRow row : chunk) {
+                    StringBuilder line = new StringBuilder().append(row.getRowNumber()).append(':');
+                    for (int column = 0; column < 3; column++) {
+                        line.append(column == 0 ? "" : "|").append(row.getCell(column));
+                    }
+                    rows.add(line.toString());
+                }
+            });
+            assertEquals(rows.size(), count);
+            return rows;
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    private static List<String> read(String content) throws IOException {
+        return read(content.getBytes(StandardCharsets.UTF_8), 1000, 1 << 20);
+    }
+
+    @Test
+    void readsQuotedCellsAndSkipsHeaderAndEmptyRows() throws IOException {
+        assertEquals(EXPECTED, read(CSV));
+    }
+
+    // Граница окна проходит по каждому байту: внутри ячейки, между "", внутри русской буквы,
+    // между \r и \n. Окно не меньше самой длинной строки
+    @Test
+    void everyWindowBoundaryGivesSameRows() throws IOException {
+        byte[] content = CSV.getBytes(StandardCharsets.UTF_8);
+        int longestRow = "1,\"Math, advanced\",\"say \"\"hi\"\"\"\r\n".getBytes(StandardCharsets.UTF_8).length;
+        for (int window = longestRow; window <= content.length; window++) {
+            assertEquals(EXPECTED, read(content, 1, window), "окно " + window);
+        }
+    }
+
+    @Test
+    void rowLongerThanWindowIsRejected() {
+        byte[] content = "id,name\n1,a very long value that does not fit\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> read(content, 10, 16));
+    }
+
+    @Test
+    void byteOrderMarkIsSkipped() throws IOException {
+        assertEquals(List.of("1:a|b|"), read("\uFEFFid,x\n a ,b\n"));
+    }
+
+    @Test
+    void delimiterIsDetectedFromHeader() throws IOException {
+        assertEquals(List.of("1:a,b|c|d"), read("id;x;y\n\"a,b\";c;d\n"));
+        assertEquals(List.of("1:a;b|c,d|"), read("id\tx\n\"a;b\"\tc,d\n"));
+        // Запятая в значении заголовка не перевешивает разделитель
+        assertEquals(List.of("1:a|b|"), read("\"id, код\";x;y\na;b\n"));
+    }
+
+    // Незакрытая кавычка в конце файла: значение берется до конца файла
+    @Test
+    void unterminatedQuoteAtEndOfFileKeepsValue() throws IOException {
+        assertEquals(List.of("1:1|open\nrest|"), read("id,x\n1,\"open\nrest"));
+        byte[] content = "id,x\n1,\"open\nrest".getBytes(StandardCharsets.UTF_8);
+        for (int window = 13; window <= content.length; window++) {
+            assertEquals(List.of("1:1|open\nrest|"), read(content, 10, window), "окно " + window);
+        }
+    }
+}
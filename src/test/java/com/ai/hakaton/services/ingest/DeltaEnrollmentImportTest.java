@@ -0,0 +1,95 @@
+package com.ai.hakaton.services.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Работает с отдельной тестовой базой PostgreSQL (профиль test). Файл разностной загрузки описывает
+// полное состояние, поэтому каждый тест идет в транзакции, которая откатывается по завершении
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class DeltaEnrollmentImportTest {
+
+    @Autowired
+    private DeltaEnrollmentImport deltaEnrollmentImport;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Две секции, три экзамена; студент s1 сдает в секции A оба экзамена
+    private static List<EnrollmentRow> rows() {
+        List<EnrollmentRow> rows = new ArrayList<>();
+        rows.add(new EnrollmentRow("Math", "Ivanov", 1, "CS", "2024", "Student 1", "delta-s1", "delta-A", 120));
+        rows.add(new EnrollmentRow("Physics", "Petrov", 1, "CS", "2024", "Student 1", "delta-s1", "delta-A", 120));
+        rows.add(new EnrollmentRow("Math", "Ivanov", 1, "CS", "2024", "Student 2", "delta-s2", "delta-A", 120));
+        rows.add(new EnrollmentRow("History", "Sidorov", 2, "IT", "2023", "Student 3", "delta-s3", "delta-B", 90));
+        rows.add(new EnrollmentRow("Math", "Ivanov", 2, "IT", "2023", "Student 3", "delta-s3", "delta-A", 120));
+        return rows;
+    }
+
+    private DeltaEnrollmentImport.Delta apply(List<EnrollmentRow> rows) {
+        DeltaEnrollmentImport.Target target = deltaEnrollmentImport.target();
+        target.accept(rows);
+        return deltaEnrollmentImport.apply(target);
+    }
+
+    private int count(String sql, Object... args) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return count == null ? 0 : count;
+    }
+
+    private boolean enrolled(String studentId, String subject) {
+        return count("SELECT count(*) FROM student_exam se JOIN exams e ON e.id = se.exam_id " +
+                "WHERE se.student_id = ? AND e.subject = ?", studentId, subject) > 0;
+    }
+
+    @Test
+    void sameFileTwiceGivesEmptyDelta() {
+        DeltaEnrollmentImport.Delta first = apply(rows());
+        assertFalse(first.isEmpty());
+
+        DeltaEnrollmentImport.Delta second = apply(rows());
+
+        assertTrue(second.isEmpty(), second.toString());
+        assertFalse(second.affectsSchedule());
+    }
+
+    // s1 перестает сдавать физику, но остается в секции A: удаляется одна запись на экзамен,
+    // студент, секция и сам экзамен (его сдают другие) остаются
+    @Test
+    void removedEnrollmentDeletesOnlyItsLinks() {
+        apply(rows());
+        int students = count("SELECT count(*) FROM students");
+        int exams = count("SELECT count(*) FROM exams");
+        int sections = count("SELECT count(*) FROM sections");
+        int studentSections = count("SELECT count(*) FROM student_section");
+        int studentExams = count("SELECT count(*) FROM student_exam");
+
+        List<EnrollmentRow> rows = rows();
+        rows.add(new EnrollmentRow("Physics", "Petrov", 1, "CS", "2024", "Student 2", "delta-s2", "delta-A", 120));
+        apply(rows);
+        rows.remove(1);
+        DeltaEnrollmentImport.Delta delta = apply(rows);
+
+        assertEquals("Секции: +0 -0\nСтуденты: +0 ~0 -0\nЭкзамены: +0 ~0 -0\nЗаписи: +0 -1", delta.toString());
+        assertFalse(enrolled("delta-s1", "Physics"));
+        assertTrue(enrolled("delta-s1", "Math"));
+        assertTrue(enrolled("delta-s2", "Physics"));
+        assertEquals(students, count("SELECT count(*) FROM students"));
+        assertEquals(exams, count("SELECT count(*) FROM exams"));
+        assertEquals(sections, count("SELECT count(*) FROM sections"));
+        assertEquals(studentSections, count("SELECT count(*) FROM student_section"));
+        assertEquals(studentExams, count("SELECT count(*) FROM student_exam"));
+    }
+}
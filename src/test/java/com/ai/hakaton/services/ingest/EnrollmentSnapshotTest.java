@@ -0,0 +1,104 @@
+package com.ai.hakaton.services.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EnrollmentSnapshotTest {
+
+    // Повторяющиеся строки, пустая строка, кириллица; числа на границах длины varint
+    private static List<EnrollmentRow> rows() {
+        List<EnrollmentRow> rows = new ArrayList<>();
+        rows.add(new EnrollmentRow("Математика", "Иванов", 1, "CS", "2024", "Студент 1", "s1", "A", 120));
+        rows.add(new EnrollmentRow("Математика", "Иванов", 127, "CS", "2024", "Студент 2", "s2", "A", 0));
+        rows.add(new EnrollmentRow("Physics", "", 128, "IT", "2023", "Студент 1", "s1", "B", 16384));
+        rows.add(new EnrollmentRow("Physics", "Petrov", 300, "", "", "", "s3", "B", Integer.MAX_VALUE));
+        return rows;
+    }
+
+    private static byte[] write(List<EnrollmentRow> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (EnrollmentSnapshot.Writer writer = EnrollmentSnapshot.writer(out)) {
+            writer.write(rows);
+            assertEquals(rows.size(), writer.rowCount());
+        }
+        return out.toByteArray();
+    }
+
+    private static List<String> read(byte[] snapshot, int chunkSize) throws IOException {
+        List<String> rows = new ArrayList<>();
+        int count = EnrollmentSnapshot.read(new ByteArrayInputStream(snapshot), chunkSize, chunk -> {
+            for (EnrollmentRow row : chunk) {
+                rows.add(text(row));
+            }
+        });
+        assertEquals(rows.size(), count);
+        return rows;
+    }
+
+    private static String text(EnrollmentRow row) {
+        return String.join("|", row.getSubject(), row.getInstructor(), String.valueOf(row.getCourse()),
+                row.getEduProgram(), row.getYearOfStudy(), row.getStudentName(), row.getStudentId(),
+                row.getSectionCode(), String.valueOf(row.getDuration()));
+    }
+
+    @Test
+    void rowsSurviveRoundTrip() throws IOException {
+        List<String> expected = new ArrayList<>();
+        for (EnrollmentRow row : rows()) {
+            expected.add(text(row));
+        }
+
+        assertEquals(expected, read(write(rows()), 1));
+        assertEquals(expected, read(write(rows()), 3));
+        assertEquals(List.of(), read(write(List.of()), 3));
+    }
+
+    // Повторная запись: байт записи, семь ссылок на словарь по байту и два однобайтовых числа
+    @Test
+    void repeatedStringsAreWrittenAsDictionaryReferences() throws IOException {
+        EnrollmentRow row = rows().get(0);
+
+        assertEquals(10, write(List.of(row, row)).length - write(List.of(row)).length);
+    }
+
+    @Test
+    void truncatedSnapshotIsRejected() throws IOException {
+        byte[] snapshot = write(rows());
+        for (int length = 0; length < snapshot.length; length++) {
+            byte[] truncated = Arrays.copyOf(snapshot, length);
+            assertThrows(IOException.class, () -> read(truncated, 10), "длина " + length);
+        }
+    }
+
+    @Test
+    void corruptSnapshotIsRejected() throws IOException {
+        byte[] snapshot = write(rows());
+        // Заголовок: 4 байта "EXSN", 4 байта версии, затем байт первой записи
+        byte[] magic = snapshot.clone();
+        magic[0] = 'X';
+        byte[] version = snapshot.clone();
+        version[7] = 2;
+        byte[] tag = snapshot.clone();
+        tag[8] = 7;
+        byte[] header = Arrays.copyOf(snapshot, 9);
+        // Ссылка на строку, которой нет в словаре
+        byte[] reference = Arrays.copyOf(header, 10);
+        reference[9] = 5;
+        // Число длиннее пяти байт
+        byte[] varint = Arrays.copyOf(header, 14);
+        Arrays.fill(varint, 9, 14, (byte) 0xFF);
+
+        for (byte[] corrupt : List.of(magic, version, tag, reference, varint)) {
+            assertThrows(IOException.class, () -> read(corrupt, 10));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ai.hakaton.services.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ConflictGraphTest {
+
+    private static boolean shareStudent(int[] a, int[] b) {
+        for (int x : a) {
+            for (int y : b) {
+                if (x == y) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Смежность, степени и соседи совпадают с попарной проверкой общих студентов;
+    // 130 экзаменов - несколько слов в битовом множестве, включая неполное последнее
+    @Test
+    void matchesBruteForcePairwiseCheck() {
+        Random random = new Random(17);
+        int examCount = 130;
+        int studentCount = 400;
+        int[][] examStudents = new int[examCount][];
+        for (int e = 0; e < examCount; e++) {
+            // Есть экзамены без студентов
+            examStudents[e] = random.ints(0, studentCount).distinct().limit(random.nextInt(12)).toArray();
+        }
+        ConflictGraph graph = new ConflictGraph(examStudents, studentCount);
+
+        assertEquals(examCount, graph.examCount());
+        for (int a = 0; a < examCount; a++) {
+            int degree = 0;
+            long[] neighbours = graph.neighbours(a);
+            for (int b = 0; b < examCount; b++) {
+                boolean expected = a != b && shareStudent(examStudents[a], examStudents[b]);
+                assertEquals(expected, graph.conflicts(a, b), a + "-" + b);
+                assertEquals(expected, (neighbours[b >> 6] >>> b & 1) != 0, a + "-" + b);
+                if (expected) {
+                    degree++;
+                }
+            }
+            assertEquals(degree, graph.degree(a));
+            assertFalse(graph.conflicts(a, a));
+        }
+    }
+
+    @Test
+    void conflictsWithMatchesAnyNeighbourInSet() {
+        Random random = new Random(23);
+        int examCount = 90;
+        int studentCount = 300;
+        int[][] examStudents = new int[examCount][];
+        for (int e = 0; e < examCount; e++) {
+            examStudents[e] = random.ints(0, studentCount).distinct().limit(1 + random.nextInt(8)).toArray();
+        }
+        ConflictGraph graph = new ConflictGraph(examStudents, studentCount);
+
+        for (int round = 0; round < 200; round++) {
+            long[] set = new long[BitSets.words(examCount)];
+            boolean[] members = new boolean[examCount];
+            for (int i = 0; i < 5; i++) {
+                int e = random.nextInt(examCount);
+                BitSets.set(set, e);
+                members[e] = true;
+            }
+            int exam = random.nextInt(examCount);
+            boolean expected = false;
+            for (int e = 0; e < examCount; e++) {
+                expected |= members[e] && e != exam && shareStudent(examStudents[exam], examStudents[e]);
+            }
+            assertEquals(expected, graph.conflictsWith(exam, set));
+        }
+    }
+}
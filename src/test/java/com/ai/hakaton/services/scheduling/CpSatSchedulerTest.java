@@ -0,0 +1,23 @@
+package com.ai.hakaton.services.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CpSatSchedulerTest {
+
+    // Небольшие задачи: CP-SAT успевает за секунды, тесно и по дням, и по аудиториям
+    @Test
+    void solutionIsFeasibleAndNotWorseThanGreedy() {
+        for (long seed = 1; seed <= 5; seed++) {
+            ScheduleProblem problem = TestProblems.random(seed, 40, 150, 30, 4, 4, 8);
+            Schedule greedy = GreedyScheduler.run(problem, ExamOrderings.byStudentCount(problem));
+            Schedule schedule = new CpSatScheduler(5, 1).solve(problem);
+
+            TestProblems.assertFeasible(problem, schedule);
+            ScheduleScore score = ScheduleScore.evaluate(problem, schedule);
+            ScheduleScore greedyScore = ScheduleScore.evaluate(problem, greedy);
+            assertTrue(score.compareTo(greedyScore) <= 0, "seed " + seed + ": " + score + " хуже " + greedyScore);
+        }
+    }
+}
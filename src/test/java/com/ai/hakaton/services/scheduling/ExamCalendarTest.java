@@ -0,0 +1,76 @@
+package com.ai.hakaton.services.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExamCalendarTest {
+    private static final Set<DayOfWeek> WEEKEND = Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+    private static final LocalDate FRIDAY = LocalDate.of(2025, 6, 6);
+
+    private static List<LocalDate> dates(ExamCalendar calendar) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (int d = 0; d < calendar.dayCount(); d++) {
+            dates.add(calendar.date(d));
+        }
+        return dates;
+    }
+
+    @Test
+    void weekendsAreSkipped() {
+        ExamCalendar calendar = new ExamCalendar(FRIDAY, 3, null, WEEKEND, Set.of());
+
+        assertEquals(List.of(FRIDAY, FRIDAY.plusDays(3), FRIDAY.plusDays(4)), dates(calendar));
+    }
+
+    @Test
+    void blackoutDatesAreSkipped() {
+        ExamCalendar calendar = new ExamCalendar(FRIDAY, 3, null, WEEKEND, Set.of(FRIDAY.plusDays(3)));
+
+        assertEquals(List.of(FRIDAY, FRIDAY.plusDays(4), FRIDAY.plusDays(5)), dates(calendar));
+    }
+
+    @Test
+    void firstDayOnWeekendStartsFromNextWorkingDay() {
+        ExamCalendar calendar = new ExamCalendar(FRIDAY.plusDays(1), 1, null, WEEKEND, Set.of());
+
+        assertEquals(List.of(FRIDAY.plusDays(3)), dates(calendar));
+    }
+
+    // Календарь идет до last включительно, но не короче minDays
+    @Test
+    void lastDateExtendsButNeverShortensCalendar() {
+        LocalDate monday = FRIDAY.plusDays(3);
+
+        assertEquals(5, new ExamCalendar(monday, 1, monday.plusDays(4), WEEKEND, Set.of()).dayCount());
+        assertEquals(5, new ExamCalendar(monday, 1, monday.plusDays(6), WEEKEND, Set.of()).dayCount());
+        assertEquals(4, new ExamCalendar(monday, 4, monday, WEEKEND, Set.of()).dayCount());
+    }
+
+    @Test
+    void dayIndexOfNonWorkingOrOutsideDateIsMissing() {
+        LocalDate blackout = FRIDAY.plusDays(4);
+        ExamCalendar calendar = new ExamCalendar(FRIDAY, 3, null, WEEKEND, Set.of(blackout));
+
+        assertEquals(0, calendar.dayIndex(FRIDAY));
+        assertEquals(1, calendar.dayIndex(FRIDAY.plusDays(3)));
+        assertEquals(2, calendar.dayIndex(FRIDAY.plusDays(5)));
+        assertEquals(-1, calendar.dayIndex(FRIDAY.plusDays(1)));
+        assertEquals(-1, calendar.dayIndex(blackout));
+        assertEquals(-1, calendar.dayIndex(FRIDAY.minusDays(1)));
+        assertEquals(-1, calendar.dayIndex(FRIDAY.plusDays(6)));
+    }
+
+    @Test
+    void calendarWithoutWorkingDaysIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExamCalendar(FRIDAY, 1, null, Set.of(DayOfWeek.values()), Set.of()));
+    }
+}
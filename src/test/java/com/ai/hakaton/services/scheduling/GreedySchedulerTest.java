@@ -0,0 +1,42 @@
+package com.ai.hakaton.services.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GreedySchedulerTest {
+
+    // Экзамены 0 и 1 - у одного студента, 300 и 90 минут; экзамен 2 - у другого, 240 минут.
+    // Студенту можно два экзамена в день, преподаватели и секции разные, две аудитории
+    private static GreedyScheduler scheduler() {
+        int[][] examStudents = {{0}, {0}, {1}};
+        ScheduleProblem problem = new ScheduleProblem(examStudents, 2, new int[]{0, 1, 2}, new int[]{0, 1, 2},
+                new int[]{300, 90, 240}, new int[]{100, 100}, new int[2], 2, 10, 2,
+                TestProblems.SLOTS, TestProblems.DAY_END);
+        GreedyScheduler scheduler = new GreedyScheduler(problem);
+        scheduler.place(0, 0, 540, 0);
+        return scheduler;
+    }
+
+    // Длинный экзамен с 9:00 идет до 14:00 и занимает слот 12:30 у своих студентов
+    @Test
+    void longExamBlocksFollowingSlotForItsStudents() {
+        GreedyScheduler scheduler = scheduler();
+
+        assertEquals("студенты заняты на другом экзамене", scheduler.violation(1, 0, 750));
+        assertNull(scheduler.violation(1, 0, 960));
+        assertEquals(960, scheduler.findAvailableTime(1, 0));
+        assertNull(scheduler.violation(1, 1, 540));
+    }
+
+    // 240 минут с 16:00 не укладываются до конца дня 19:30
+    @Test
+    void examMustEndBeforeDayEnd() {
+        GreedyScheduler scheduler = scheduler();
+
+        assertEquals("экзамен заканчивается после конца дня", scheduler.violation(2, 0, 960));
+        assertNull(scheduler.violation(2, 0, 750));
+        assertNull(scheduler.violation(2, 0, 540));
+    }
+}
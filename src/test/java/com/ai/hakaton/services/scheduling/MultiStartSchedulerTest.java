@@ -0,0 +1,35 @@
+package com.ai.hakaton.services.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiStartSchedulerTest {
+    private static final int STARTS = 8;
+
+    // Из стартов с наименьшим числом неназначенных выбирается старт с наименьшим штрафом цели,
+    // а не с наименьшим числом пар в соседние дни
+    @Test
+    void bestStartIsRankedByObjective() {
+        ScheduleObjective objective = ScheduleObjective.builder().soft(1, RoomWasteConstraint::new).build();
+        for (long seed = 1; seed <= 5; seed++) {
+            ScheduleProblem problem = TestProblems.random(seed, 60, 300, 40, 6, 5, 10);
+            MultiStartScheduler.Result best = MultiStartScheduler.solve(problem, STARTS, seed,
+                    ForkJoinPool.commonPool(), new ScheduleProgress(), objective);
+
+            assertEquals(objective.evaluate(problem, best.schedule()).penalty(), best.penalty());
+            for (int start = 0; start < STARTS; start++) {
+                MultiStartScheduler.Result result = MultiStartScheduler.runStart(problem, seed, start,
+                        new ScheduleProgress(), objective);
+                int unscheduled = result.score().unscheduled();
+                assertTrue(best.score().unscheduled() <= unscheduled, "seed " + seed + ", старт " + start);
+                if (best.score().unscheduled() == unscheduled) {
+                    assertTrue(best.penalty() <= result.penalty(), "seed " + seed + ", старт " + start);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.ai.hakaton.services.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedSchedulerTest {
+    private static final int MAX_EXAMS_PER_DAY = 12;
+
+    // Независимые группы экзаменов: у каждой свои студенты, преподаватели и секции,
+    // внутри группы экзамены связаны цепочкой общих студентов. Есть группы из 1-3 экзаменов
+    private static ScheduleProblem clustered(long seed, int[] groupSizes) {
+        Random random = new Random(seed);
+        int examCount = 0;
+        for (int size : groupSizes) {
+            examCount += size;
+        }
+        int[][] examStudents = new int[examCount][];
+        int[] instructor = new int[examCount];
+        int[] section = new int[examCount];
+        int[] duration = new int[examCount];
+        int e = 0;
+        int firstStudent = 0;
+        int firstInstructor = 0;
+        for (int size : groupSizes) {
+            int students = 10 * size + 5;
+            for (int i = 0; i < size; i++, e++) {
+                int[] enrolled = random.ints(firstStudent, firstStudent + students).distinct()
+                        .limit(5 + random.nextInt(10)).toArray();
+                // Общий студент с предыдущим экзаменом группы
+                enrolled[0] = firstStudent + i;
+                enrolled[1] = firstStudent + i + 1;
+                examStudents[e] = Arrays.stream(enrolled).distinct().sorted().toArray();
+                instructor[e] = firstInstructor + random.nextInt(Math.max(1, size / 3));
+                section[e] = e;
+                duration[e] = 120;
+            }
+            firstStudent += students;
+            firstInstructor += Math.max(1, size / 3);
+        }
+        int[] capacity = new int[8];
+        Arrays.fill(capacity, 60);
+        return new ScheduleProblem(examStudents, firstStudent, instructor, section, duration, capacity, 6,
+                MAX_EXAMS_PER_DAY, 2, TestProblems.SLOTS, TestProblems.DAY_END);
+    }
+
+    private static final int[] GROUPS = {40, 25, 1, 2, 18, 3, 1, 30, 2, 1, 9};
+
+    @Test
+    void partitionsCoverExamsOnceAndShareNothing() {
+        ScheduleProblem problem = clustered(1, GROUPS);
+        int minPartitionSize = 10;
+        List<int[]> partitions = PartitionedScheduler.partitions(problem, minPartitionSize);
+
+        int[] partitionOf = new int[problem.examCount()];
+        Arrays.fill(partitionOf, -1);
+        for (int p = 0; p < partitions.size(); p++) {
+            int[] exams = partitions.get(p);
+            if (p < partitions.size() - 1) {
+                assertTrue(exams.length >= minPartitionSize, "часть " + p + ": " + exams.length);
+            }
+            for (int e : exams) {
+                assertEquals(-1, partitionOf[e], "экзамен " + e + " в двух частях");
+                partitionOf[e] = p;
+            }
+        }
+        for (int a = 0; a < problem.examCount(); a++) {
+            assertTrue(partitionOf[a] >= 0, "экзамен " + a + " не попал ни в одну часть");
+            for (int b = a + 1; b < problem.examCount(); b++) {
+                if (partitionOf[a] != partitionOf[b]) {
+                    assertFalse(problem.conflictGraph().conflicts(a, b));
+                    assertFalse(problem.instructor(a) == problem.instructor(b));
+                    assertFalse(problem.section(a) == problem.section(b));
+                }
+            }
+        }
+        assertEquals(GROUPS.length, PartitionedScheduler.components(problem).size());
+    }
+
+    @Test
+    void dailyQuotasSumToDailyLimit() {
+        ScheduleProblem problem = clustered(2, GROUPS);
+        // Крупная часть и несколько мелких: у мелких доля меньше 1, но каждой нужен хотя бы один экзамен в день
+        for (int[] sizes : new int[][]{{95, 20, 7, 5, 3, 2}, {66, 66}, {130, 1, 1}, {132}}) {
+            List<int[]> partitions = new ArrayList<>();
+            for (int size : sizes) {
+                partitions.add(new int[size]);
+            }
+            int[] quotas = PartitionedScheduler.dailyQuotas(problem, partitions);
+            int sum = 0;
+            for (int p = 0; p < quotas.length; p++) {
+                assertTrue(quotas[p] >= 1);
+                if (p > 0) {
+                    assertTrue(quotas[p] <= quotas[p - 1], "доли не по размеру частей");
+                }
+                sum += quotas[p];
+            }
+            assertEquals(MAX_EXAMS_PER_DAY, sum);
+        }
+    }
+
+    @Test
+    void dailyQuotasGiveOneEachWhenPartsExceedLimit() {
+        ScheduleProblem problem = clustered(3, GROUPS);
+        List<int[]> partitions = new ArrayList<>();
+        for (int p = 0; p < MAX_EXAMS_PER_DAY + 3; p++) {
+            partitions.add(new int[p == 0 ? problem.examCount() - MAX_EXAMS_PER_DAY - 2 : 1]);
+        }
+        for (int quota : PartitionedScheduler.dailyQuotas(problem, partitions)) {
+            assertEquals(1, quota);
+        }
+    }
+
+    // Части решены с полным дневным лимитом каждая, поэтому в сумме дни переполнены;
+    // сведение обязано соблюсти лимит и не поставить вместе конфликтующие экзамены
+    @Test
+    void mergeNeverExceedsDailyCap() {
+        ScheduleProblem problem = clustered(4, GROUPS);
+        List<int[]> partitions = PartitionedScheduler.partitions(problem, 10);
+        Schedule[] solutions = new Schedule[partitions.size()];
+        for (int p = 0; p < partitions.size(); p++) {
+            solutions[p] = GreedyScheduler.runDsatur(
+                    PartitionedScheduler.subproblem(problem, partitions.get(p), MAX_EXAMS_PER_DAY));
+        }
+
+        assertFeasible(problem, PartitionedScheduler.merge(problem, partitions, solutions));
+    }
+
+    @Test
+    void solveRespectsDailyCap() {
+        ScheduleProblem problem = clustered(5, GROUPS);
+        Schedule schedule = new PartitionedScheduler((p, progress) -> GreedyScheduler.runDsatur(p, progress), 10,
+                ForkJoinPool.commonPool()).solve(problem);
+
+        assertFeasible(problem, schedule);
+    }
+
+    // Счетчики частей складываются в общий прогресс, итог сведения виден после решения
+    @Test
+    void solveReportsProgressOfParts() {
+        ScheduleProblem problem = clustered(6, GROUPS);
+        ScheduleProgress progress = new ScheduleProgress();
+        Schedule schedule = new PartitionedScheduler(
+                (p, part) -> MultiStartScheduler.solve(p, 4, 1, ForkJoinPool.commonPool(), part).schedule(), 10,
+                ForkJoinPool.commonPool()).solve(problem, progress);
+
+        int parts = PartitionedScheduler.partitions(problem, 10).size();
+        ScheduleScore score = ScheduleScore.evaluate(problem, schedule);
+        assertEquals(4 * parts, progress.startsTotal());
+        assertEquals(4 * parts, progress.startsDone());
+        assertEquals(problem.examCount() - score.unscheduled(), progress.examsPlaced());
+        assertEquals(0, score.compareTo(progress.bestScore()));
+    }
+
+    private static void assertFeasible(ScheduleProblem problem, Schedule schedule) {
+        int[] perDay = new int[problem.dayCount()];
+        for (int a = 0; a < problem.examCount(); a++) {
+            if (!schedule.isScheduled(a)) {
+                continue;
+            }
+            perDay[schedule.day(a)]++;
+            for (int b = a + 1; b < problem.examCount(); b++) {
+                if (schedule.isScheduled(b) && schedule.day(a) == schedule.day(b)
+                        && problem.conflictGraph().conflicts(a, b)) {
+                    int startA = schedule.startMinute(a);
+                    int startB = schedule.startMinute(b);
+                    assertTrue(startA + problem.duration(a) <= startB || startB + problem.duration(b) <= startA,
+                            "пересекаются экзамены " + a + " и " + b);
+                }
+            }
+        }
+        for (int day = 0; day < perDay.length; day++) {
+            assertTrue(perDay[day] <= MAX_EXAMS_PER_DAY, "день " + day + ": " + perDay[day]);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ai.hakaton.services.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomTimetableTest {
+
+    // Два дня, один экзамен; аудитории заданы вместимостью и типом
+    private static ScheduleProblem problem(int[] capacity, int[] type) {
+        int[][] examStudents = {{0}};
+        return new ScheduleProblem(examStudents, 1, new int[]{0}, new int[]{0}, new int[]{120}, capacity, type,
+                2, 10, 2, TestProblems.SLOTS, TestProblems.DAY_END);
+    }
+
+    // Аудитории 0..2 вместимостью 100, 60, 40 одного типа
+    private static RoomTimetable timetable() {
+        return new RoomTimetable(problem(new int[]{100, 60, 40}, new int[3]));
+    }
+
+    @Test
+    void emptyRoomIsFree() {
+        assertTrue(timetable().isFree(0, 0, 540, 660));
+    }
+
+    @Test
+    void overlappingIntervalsAreBusy() {
+        RoomTimetable rooms = timetable();
+        rooms.occupy(0, 0, 600, 720);
+
+        assertFalse(rooms.isFree(0, 0, 600, 720));
+        assertFalse(rooms.isFree(0, 0, 540, 601));
+        assertFalse(rooms.isFree(0, 0, 719, 800));
+        assertFalse(rooms.isFree(0, 0, 630, 660));
+        assertFalse(rooms.isFree(0, 0, 500, 800));
+    }
+
+    // Интервалы полуоткрытые: экзамен может начаться ровно в момент окончания предыдущего
+    @Test
+    void touchingIntervalsAreFree() {
+        RoomTimetable rooms = timetable();
+        rooms.occupy(0, 0, 600, 720);
+
+        assertTrue(rooms.isFree(0, 0, 480, 600));
+        assertTrue(rooms.isFree(0, 0, 720, 840));
+    }
+
+    @Test
+    void gapBetweenIntervalsIsFreeOnlyIfWideEnough() {
+        RoomTimetable rooms = timetable();
+        rooms.occupy(0, 0, 540, 660);
+        rooms.occupy(0, 0, 780, 900);
+
+        assertTrue(rooms.isFree(0, 0, 660, 780));
+        assertFalse(rooms.isFree(0, 0, 660, 781));
+        assertFalse(rooms.isFree(0, 0, 659, 780));
+    }
+
+    @Test
+    void otherDaysAndRoomsAreIndependent() {
+        RoomTimetable rooms = timetable();
+        rooms.occupy(0, 0, 540, 660);
+
+        assertTrue(rooms.isFree(1, 0, 540, 660));
+        assertTrue(rooms.isFree(0, 1, 540, 660));
+    }
+
+    @Test
+    void releaseFreesOnlyThatInterval() {
+        RoomTimetable rooms = timetable();
+        rooms.occupy(0, 0, 540, 660);
+        rooms.occupy(0, 0, 750, 870);
+        rooms.release(0, 0, 540);
+
+        assertTrue(rooms.isFree(0, 0, 540, 660));
+        assertFalse(rooms.isFree(0, 0, 750, 870));
+        // Освобождение свободной аудитории ничего не меняет
+        rooms.release(0, 1, 540);
+        rooms.release(0, 0, 540);
+        assertTrue(rooms.isFree(0, 1, 540, 660));
+    }
+
+    @Test
+    void bestFitTakesSmallestFreeRoomThatFits() {
+        RoomTimetable rooms = timetable();
+
+        assertEquals(2, rooms.bestFit(40, 0, 540, 660));
+        assertEquals(1, rooms.bestFit(41, 0, 540, 660));
+        rooms.occupy(0, 1, 600, 700);
+        assertEquals(0, rooms.bestFit(41, 0, 540, 660));
+        assertEquals(1, rooms.bestFit(41, 0, 700, 820));
+        assertEquals(-1, rooms.bestFit(101, 0, 540, 660));
+    }
+
+    // Тип 0: аудитории 0..2 вместимостью 100, 60, 40; тип 1: аудитории 3..5 вместимостью 80, 80, 30
+    private static RoomTimetable mixedTypes() {
+        return new RoomTimetable(problem(new int[]{100, 60, 40, 80, 80, 30}, new int[]{0, 0, 0, 1, 1, 1}));
+    }
+
+    @Test
+    void packPrefersFewerRoomsThenLessWaste() {
+        RoomTimetable rooms = mixedTypes();
+
+        // Одна аудитория: 60 свободнее, чем 80
+        assertArrayEquals(new int[]{1}, rooms.pack(50, 0, 540, 660));
+        // Две аудитории: 100 + 40 без пустых мест против 80 + 80
+        assertArrayEquals(new int[]{0, 2}, rooms.pack(140, 0, 540, 660));
+        // Остаток 50 после 100 - в наименьшую подходящую, 60
+        assertArrayEquals(new int[]{0, 1}, rooms.pack(150, 0, 540, 660));
+    }
+
+    @Test
+    void packUsesAnotherTypeWhenRoomsAreBusy() {
+        RoomTimetable rooms = mixedTypes();
+        rooms.occupy(0, 0, 540, 660);
+
+        assertArrayEquals(new int[]{3, 4}, rooms.pack(140, 0, 540, 660));
+        // В другое время аудитория 0 свободна
+        assertArrayEquals(new int[]{0, 2}, rooms.pack(140, 0, 660, 780));
+    }
+
+    // Аудитории разных типов не смешиваются, даже если вместе их хватило бы
+    @Test
+    void packNeverMixesRoomTypes() {
+        RoomTimetable rooms = mixedTypes();
+
+        assertNull(rooms.pack(250, 0, 540, 660));
+        // Все аудитории типа 1 вмещают ровно 190, типа 0 - 200
+        assertArrayEquals(new int[]{3, 4, 5}, rooms.pack(190, 0, 540, 660));
+        assertArrayEquals(new int[]{0, 1, 2}, rooms.pack(195, 0, 540, 660));
+    }
+}
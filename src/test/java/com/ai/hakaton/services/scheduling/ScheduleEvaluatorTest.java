@@ -0,0 +1,88 @@
+package com.ai.hakaton.services.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleEvaluatorTest {
+
+    private static ScheduleObjective weighted(ScheduleProblem problem) {
+        int[] group = new int[problem.studentCount()];
+        for (int s = 0; s < group.length; s++) {
+            group[s] = s % 3 - 1;
+        }
+        boolean[][] preferred = new boolean[2][problem.dayCount()];
+        for (int d = 0; d < problem.dayCount(); d++) {
+            preferred[0][d] = d % 5 < 2;
+            preferred[1][d] = d % 5 >= 3;
+        }
+        return ScheduleObjective.builder()
+                .soft(3, BackToBackConstraint::new)
+                .hard(1, p -> new InstructorLoadConstraint(p, 1))
+                .soft(1, RoomWasteConstraint::new)
+                .soft(2, p -> new PreferredDaysConstraint(p, group, preferred))
+                .build();
+    }
+
+    // Инкрементальный штраф после случайных постановок и снятий совпадает с пересчетом с нуля
+    @Test
+    void incrementalPenaltyMatchesFullEvaluation() {
+        ScheduleProblem problem = TestProblems.random(7, 150, 800, 60, 12, 10, 40);
+        ScheduleObjective objective = weighted(problem);
+        GreedyScheduler state = new GreedyScheduler(problem, objective.evaluator(problem));
+        Random random = new Random(11);
+        for (int i = 0; i < 3000; i++) {
+            int exam = random.nextInt(problem.examCount());
+            if (state.schedule().isScheduled(exam)) {
+                state.remove(exam);
+            } else if (random.nextBoolean()) {
+                state.tryPlace(exam);
+            } else {
+                state.tryPlace(exam, random.nextInt(problem.dayCount()));
+            }
+            if (i % 500 == 0) {
+                assertEquals(objective.evaluate(problem, state.schedule()).penalty(), state.evaluator().penalty());
+            }
+        }
+        ScheduleEvaluator full = objective.evaluate(problem, state.schedule());
+        assertEquals(full.penalty(), state.evaluator().penalty());
+        assertEquals(full.toString(), state.evaluator().toString());
+    }
+
+    // Штраф "подряд" совпадает с ScheduleScore
+    @Test
+    void backToBackMatchesScheduleScore() {
+        ScheduleProblem problem = TestProblems.random(3, 120, 600, 50, 10, 8, 40);
+        ScheduleObjective objective = weighted(problem);
+        GreedyScheduler state = new GreedyScheduler(problem, objective.evaluator(problem));
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            int exam = random.nextInt(problem.examCount());
+            if (state.schedule().isScheduled(exam) && random.nextInt(3) == 0) {
+                state.remove(exam);
+            } else if (!state.schedule().isScheduled(exam)) {
+                state.tryPlace(exam);
+            }
+        }
+        long backToBack = ScheduleScore.evaluate(problem, state.schedule()).backToBack();
+        assertTrue(backToBack > 0);
+        assertEquals(backToBack, state.evaluator().penalty(BackToBackConstraint.NAME));
+        assertEquals(backToBack, ScheduleObjective.backToBack().evaluate(problem, state.schedule()).penalty());
+    }
+
+    // Отжиг с весами не ухудшает исходное расписание
+    @Test
+    void localSearchDoesNotWorsenWeightedObjective() {
+        ScheduleProblem problem = TestProblems.random(9, 150, 800, 60, 12, 10, 40);
+        ScheduleObjective objective = weighted(problem);
+        Schedule initial = GreedyScheduler.runDsatur(problem);
+        Schedule improved = LocalSearch.improve(problem, initial, 300, 1, objective, new ScheduleProgress());
+        ScheduleScore before = ScheduleScore.evaluate(problem, initial);
+        ScheduleScore after = ScheduleScore.evaluate(problem, improved);
+        assertTrue(after.unscheduled() < before.unscheduled() || after.unscheduled() == before.unscheduled()
+                && objective.evaluate(problem, improved).penalty() <= objective.evaluate(problem, initial).penalty());
+    }
+}
@@ -0,0 +1,97 @@
+package com.ai.hakaton.services.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScheduleRepairTest {
+
+    // Три экзамена в разных секциях: 0 и 1 у одного преподавателя, у 1 и 2 общий студент
+    private static ScheduleProblem problem() {
+        int[][] examStudents = {{0, 1}, {2, 3}, {3, 4}};
+        return new ScheduleProblem(examStudents, 5, new int[]{0, 0, 1}, new int[]{0, 1, 2},
+                new int[]{120, 120, 120}, new int[]{50, 50}, 3, 10, 1, TestProblems.SLOTS, TestProblems.DAY_END);
+    }
+
+    private static int[] none(int count) {
+        int[] values = new int[count];
+        Arrays.fill(values, -1);
+        return values;
+    }
+
+    @Test
+    void feasiblePinIsHonoredExactly() {
+        ScheduleProblem problem = problem();
+        Schedule current = new Schedule(3);
+        current.assign(0, 0, 540, 0);
+        current.assign(1, 1, 540, 0);
+        current.assign(2, 2, 540, 0);
+        int[] pinnedDay = none(3);
+        int[] pinnedStart = none(3);
+        pinnedDay[1] = 0;
+        pinnedStart[1] = 960;
+
+        Schedule repaired = ScheduleRepair.repair(problem, current, pinnedDay, pinnedStart, new boolean[3]);
+
+        assertEquals(0, repaired.day(1));
+        assertEquals(960, repaired.startMinute(1));
+        assertEquals(List.of(1), ScheduleRepair.changed(current, repaired));
+    }
+
+    // Переносы ставятся раньше остальных экзаменов, поэтому конфликтовать могут только между собой
+    @Test
+    void infeasiblePinIsRejectedWithConstraint() {
+        ScheduleProblem problem = problem();
+        Schedule current = new Schedule(3);
+        current.assign(0, 0, 540, 0);
+        current.assign(1, 1, 540, 0);
+        current.assign(2, 2, 540, 0);
+        int[] pinnedDay = none(3);
+        int[] pinnedStart = none(3);
+        // Тот же преподаватель в то же время
+        pinnedDay[0] = 2;
+        pinnedStart[0] = 750;
+        pinnedDay[1] = 2;
+        pinnedStart[1] = 750;
+
+        ScheduleRepair.PinConflictException e = assertThrows(ScheduleRepair.PinConflictException.class,
+                () -> ScheduleRepair.repair(problem, current, pinnedDay, pinnedStart, new boolean[3]));
+
+        assertEquals(1, e.conflicts().size());
+        assertEquals(1, e.conflicts().get(0).exam());
+        assertEquals("преподаватель занят", e.conflicts().get(0).constraint());
+    }
+
+    @Test
+    void pinOverStudentDailyLimitIsRejected() {
+        ScheduleProblem problem = problem();
+        Schedule current = new Schedule(3);
+        int[] pinnedDay = none(3);
+        // У экзаменов 1 и 2 общий студент, лимит - один экзамен в день
+        pinnedDay[1] = 1;
+        pinnedDay[2] = 1;
+
+        ScheduleRepair.PinConflictException e = assertThrows(ScheduleRepair.PinConflictException.class,
+                () -> ScheduleRepair.repair(problem, current, pinnedDay, none(3), new boolean[3]));
+
+        assertEquals(2, e.conflicts().get(0).exam());
+        assertEquals("лимит экзаменов студента в день", e.conflicts().get(0).constraint());
+    }
+
+    @Test
+    void pinOutsideCalendarIsRejected() {
+        ScheduleProblem problem = problem();
+        Schedule current = new Schedule(3);
+        int[] pinnedDay = none(3);
+        pinnedDay[0] = 5;
+
+        ScheduleRepair.PinConflictException e = assertThrows(ScheduleRepair.PinConflictException.class,
+                () -> ScheduleRepair.repair(problem, current, pinnedDay, none(3), new boolean[3]));
+
+        assertEquals("дата вне календаря экзаменов", e.conflicts().get(0).constraint());
+    }
+}
@@ -0,0 +1,92 @@
+package com.ai.hakaton.services.scheduling;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Случайные задачи планирования для тестов ядра
+final class TestProblems {
+    static final int[] SLOTS = {540, 750, 960};
+    static final int DAY_END = 1170;
+
+    private TestProblems() {
+    }
+
+    // examCount экзаменов по 5..(5 + maxSize) студентов из studentCount, roomCount аудиторий
+    // вместимостью 30..129 двух типов
+    static ScheduleProblem random(long seed, int examCount, int studentCount, int maxSize, int roomCount,
+                                  int dayCount, int maxExamsPerDay) {
+        Random random = new Random(seed);
+        int[][] examStudents = new int[examCount][];
+        int[] instructor = new int[examCount];
+        int[] section = new int[examCount];
+        int[] duration = new int[examCount];
+        for (int e = 0; e < examCount; e++) {
+            examStudents[e] = random.ints(0, studentCount).distinct().limit(5 + random.nextInt(maxSize)).sorted().toArray();
+            instructor[e] = random.nextInt(Math.max(1, examCount / 4));
+            section[e] = e;
+            duration[e] = 120;
+        }
+        int[] capacity = new int[roomCount];
+        int[] type = new int[roomCount];
+        for (int r = 0; r < roomCount; r++) {
+            capacity[r] = 30 + random.nextInt(100);
+            type[r] = r % 2;
+        }
+        return new ScheduleProblem(examStudents, studentCount, instructor, section, duration, capacity, type,
+                dayCount, maxExamsPerDay, 2, SLOTS, DAY_END);
+    }
+
+    // Все жесткие ограничения задачи: день и время в пределах дня, лимиты в день, секция и преподаватель,
+    // студенты и аудитории без пересечений, суммарная вместимость аудиторий экзамена
+    static void assertFeasible(ScheduleProblem problem, Schedule schedule) {
+        int[] perDay = new int[problem.dayCount()];
+        int[][] perStudentDay = new int[problem.studentCount()][problem.dayCount()];
+        for (int a = 0; a < problem.examCount(); a++) {
+            if (!schedule.isScheduled(a)) {
+                continue;
+            }
+            int day = schedule.day(a);
+            int start = schedule.startMinute(a);
+            int end = start + problem.duration(a);
+            assertTrue(day >= 0 && day < problem.dayCount(), "день экзамена " + a);
+            assertTrue(start >= problem.dayStartMinute() && end <= problem.dayEndMinute(), "время экзамена " + a);
+            perDay[day]++;
+            for (int s : problem.students(a)) {
+                perStudentDay[s][day]++;
+            }
+            int capacity = 0;
+            for (int room : schedule.rooms(a)) {
+                capacity += problem.roomCapacity(room);
+            }
+            assertTrue(capacity >= problem.studentCount(a), "вместимость для экзамена " + a);
+            for (int b = a + 1; b < problem.examCount(); b++) {
+                if (!schedule.isScheduled(b) || schedule.day(b) != day) {
+                    continue;
+                }
+                assertTrue(problem.section(a) < 0 || problem.section(a) != problem.section(b),
+                        "секция экзаменов " + a + " и " + b);
+                int startB = schedule.startMinute(b);
+                boolean overlap = start < startB + problem.duration(b) && startB < end;
+                if (!overlap) {
+                    continue;
+                }
+                assertTrue(!problem.conflictGraph().conflicts(a, b), "студенты экзаменов " + a + " и " + b);
+                assertTrue(problem.instructor(a) != problem.instructor(b), "преподаватель экзаменов " + a + " и " + b);
+                for (int roomA : schedule.rooms(a)) {
+                    for (int roomB : schedule.rooms(b)) {
+                        assertTrue(roomA != roomB, "аудитория экзаменов " + a + " и " + b);
+                    }
+                }
+            }
+        }
+        for (int day = 0; day < perDay.length; day++) {
+            assertTrue(perDay[day] <= problem.maxExamsPerDay(), "экзаменов в день " + day);
+        }
+        for (int[] days : perStudentDay) {
+            for (int count : days) {
+                assertTrue(count <= problem.maxExamsPerStudentPerDay(), "экзаменов студента в день");
+            }
+        }
+    }
+}